@@ -1,15 +1,14 @@
 package ru.practicum.shareit.booking;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ServerTransportFactory;
 
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -18,28 +17,31 @@ public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public BookingClient(ServerTransportFactory transports) {
+        super(transports.create(API_PREFIX));
     }
 
-    public ResponseEntity<Object> create(long userId, BookingRequestDto createBookingDto) {
+    public Mono<ResponseEntity<Object>> create(long userId, BookingRequestDto createBookingDto) {
         return post("", userId, createBookingDto);
     }
 
-    public ResponseEntity<Object> update(long ownerId, long bookingId, boolean approved) {
+    public Mono<ResponseEntity<Object>> update(long ownerId, long bookingId, boolean approved) {
         return patch("/" + bookingId + "?approved=" + approved, ownerId);
     }
 
-    public ResponseEntity<Object> get(long userId, long bookingId) {
+    public Mono<ResponseEntity<Object>> createAll(long userId, List<BookingRequestDto> createBookingDtos) {
+        return post("/batch", userId, createBookingDtos);
+    }
+
+    public Mono<ResponseEntity<Object>> updateAll(long ownerId, List<Long> bookingIds, boolean approved) {
+        return patch("/batch?approved=" + approved, ownerId, bookingIds);
+    }
+
+    public Mono<ResponseEntity<Object>> get(long userId, long bookingId) {
         return get(String.format("/%d", bookingId), userId);
     }
 
-    public ResponseEntity<Object> getAllByBooker(long bookerId, String status, int from, int size) {
+    public Mono<ResponseEntity<Object>> getAllByBooker(long bookerId, String status, int from, int size) {
         Map<String, Object> parameters = Map.of(
                 "state", status,
                 "from", from,
@@ -48,7 +50,7 @@ public class BookingClient extends BaseClient {
         return get("?state={state}&from={from}&size={size}", bookerId, parameters);
     }
 
-    public ResponseEntity<Object> getAllByOwner(long ownerId, String status, int from, int size) {
+    public Mono<ResponseEntity<Object>> getAllByOwner(long ownerId, String status, int from, int size) {
         Map<String, Object> parameters = Map.of(
                 "state", status,
                 "from", from,
@@ -56,4 +58,22 @@ public class BookingClient extends BaseClient {
         );
         return get("/owner?state={state}&from={from}&size={size}", ownerId, parameters);
     }
-}
\ No newline at end of file
+
+    public Mono<ResponseEntity<Object>> getPageByBooker(long bookerId, String status, String cursor, int size) {
+        Map<String, Object> parameters = Map.of(
+                "state", status,
+                "cursor", cursor,
+                "size", size
+        );
+        return get("?state={state}&cursor={cursor}&size={size}", bookerId, parameters);
+    }
+
+    public Mono<ResponseEntity<Object>> getPageByOwner(long ownerId, String status, String cursor, int size) {
+        Map<String, Object> parameters = Map.of(
+                "state", status,
+                "cursor", cursor,
+                "size", size
+        );
+        return get("/owner?state={state}&cursor={cursor}&size={size}", ownerId, parameters);
+    }
+}
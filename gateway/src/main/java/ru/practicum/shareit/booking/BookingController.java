@@ -6,11 +6,17 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.constraint_group.Create;
 
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.util.List;
 
 @Validated
 @Controller
@@ -19,10 +25,12 @@ import javax.validation.constraints.PositiveOrZero;
 @RequestMapping(path = "/bookings")
 public class BookingController {
 
+    private static final int MAX_BATCH_SIZE = 100;
+
     private final BookingClient client;
 
     @PostMapping
-    public ResponseEntity<Object> create(
+    public Mono<ResponseEntity<Object>> create(
             @RequestHeader("X-Sharer-User-Id") long userId,
             @Validated(Create.class) @RequestBody BookingRequestDto createBookingDto) {
         log.info("Выполнен запрос POST /bookings.");
@@ -30,7 +38,7 @@ public class BookingController {
     }
 
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> update(
+    public Mono<ResponseEntity<Object>> update(
             @RequestHeader("X-Sharer-User-Id") long ownerId,
             @PathVariable long bookingId,
             @RequestParam boolean approved) {
@@ -38,28 +46,58 @@ public class BookingController {
         return client.update(ownerId, bookingId, approved);
     }
 
+    // Некорректная запись отклоняет весь пакет, а занятость периода и права проверяются сервером для каждой записи отдельно
+    @Validated(Create.class)
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<Object>> createAll(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @NotEmpty(groups = {Create.class}) @Size(max = MAX_BATCH_SIZE, groups = {Create.class})
+            @RequestBody List<@NotNull(groups = {Create.class}) @Valid BookingRequestDto> createBookingDtos) {
+        log.info("Выполнен запрос POST /bookings/batch на {} бронирований.", createBookingDtos.size());
+        return client.createAll(userId, createBookingDtos);
+    }
+
+    @PatchMapping("/batch")
+    public Mono<ResponseEntity<Object>> updateAll(
+            @RequestHeader("X-Sharer-User-Id") long ownerId,
+            @RequestParam boolean approved,
+            @NotEmpty @Size(max = MAX_BATCH_SIZE) @RequestBody List<@NotNull Long> bookingIds) {
+        log.info("Выполнен запрос PATCH /bookings/batch?approved={} на {} бронирований.", approved, bookingIds.size());
+        return client.updateAll(ownerId, bookingIds, approved);
+    }
+
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> get(@RequestHeader("X-Sharer-User-Id") long userId, @PathVariable long bookingId) {
+    public Mono<ResponseEntity<Object>> get(@RequestHeader("X-Sharer-User-Id") long userId, @PathVariable long bookingId) {
         log.info("Выполнен запрос GET /bookings/{}.", bookingId);
         return client.get(userId, bookingId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAllByBooker(
+    public Mono<ResponseEntity<Object>> getAllByBooker(
             @RequestHeader("X-Sharer-User-Id") long bookerId,
             @RequestParam(name = "state", required = false, defaultValue = "ALL") String status,
             @PositiveOrZero @RequestParam(name = "from", required = false, defaultValue = "0") int from,
-            @Positive @RequestParam(name = "size", required = false, defaultValue = "5") int size) {
+            @Positive @RequestParam(name = "size", required = false, defaultValue = "5") int size,
+            @RequestParam(name = "cursor", required = false) String cursor) {
+        if (cursor != null) {
+            log.info("Выполнен запрос GET /bookings?state={}&cursor={}&size={}.", status, cursor, size);
+            return client.getPageByBooker(bookerId, status, cursor, size);
+        }
         log.info("Выполнен запрос GET /bookings?state={}&from={}&size={}.", status, from, size);
         return client.getAllByBooker(bookerId, status, from, size);
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> getAllByOwner(
+    public Mono<ResponseEntity<Object>> getAllByOwner(
             @RequestHeader("X-Sharer-User-Id") long ownerId,
             @RequestParam(required = false, name = "state", defaultValue = "ALL") String status,
             @PositiveOrZero @RequestParam(name = "from", required = false, defaultValue = "0") int from,
-            @Positive @RequestParam(name = "size", required = false, defaultValue = "5") int size) {
+            @Positive @RequestParam(name = "size", required = false, defaultValue = "5") int size,
+            @RequestParam(name = "cursor", required = false) String cursor) {
+        if (cursor != null) {
+            log.info("Выполнен запрос GET /bookings/owner?state={}&cursor={}&size={}.", status, cursor, size);
+            return client.getPageByOwner(ownerId, status, cursor, size);
+        }
         log.info("Выполнен запрос GET /bookings/owner?state={}&from={}&size={}.", status, from, size);
         return client.getAllByOwner(ownerId, status, from, size);
     }
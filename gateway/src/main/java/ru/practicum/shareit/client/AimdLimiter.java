@@ -0,0 +1,79 @@
+package ru.practicum.shareit.client;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Лимит одновременных запросов к серверу: растёт на единицу, пока ответы быстрые и лимит используется,
+// и умножается на backoffRatio при ошибке, таймауте или медленном ответе
+public class AimdLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+    private long lastDecreaseNanos = System.nanoTime();
+
+    public AimdLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio, long latencyThresholdNanos) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit || backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Некорректные параметры адаптивного лимита.");
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void onSuccess(long startedNanos) {
+        int current = inFlight.getAndDecrement();
+        if (System.nanoTime() - startedNanos > latencyThresholdNanos) {
+            decrease(startedNanos);
+        } else if (current * 2 >= limit) {
+            increase();
+        }
+    }
+
+    public void onDropped(long startedNanos) {
+        inFlight.decrementAndGet();
+        decrease(startedNanos);
+    }
+
+    // Отменённый запрос ничего не говорит о состоянии сервера
+    public void onIgnored() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void increase() {
+        limit = Math.min(maxLimit, limit + 1);
+    }
+
+    // Запросы, отправленные до предыдущего снижения, лимит повторно не снижают, иначе одна волна таймаутов обнулит его
+    private synchronized void decrease(long startedNanos) {
+        if (startedNanos - lastDecreaseNanos < 0) {
+            return;
+        }
+        limit = Math.max(minLimit, (int) (limit * backoffRatio));
+        lastDecreaseNanos = System.nanoTime();
+    }
+}
@@ -0,0 +1,74 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import reactor.core.publisher.Mono;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// GET без параметров отвечается из кэша, пока ответ свежий; изменения сбрасывают ресурсы по заголовку сервера
+public class CachingTransport implements ServerTransport {
+
+    private final String apiPrefix;
+    private final ServerTransport delegate;
+    private final ResponseCache responseCache;
+
+    public CachingTransport(String apiPrefix, ServerTransport delegate, ResponseCache responseCache) {
+        this.apiPrefix = apiPrefix;
+        this.delegate = delegate;
+        this.responseCache = responseCache;
+    }
+
+    @Override
+    public Mono<ResponseEntity<Object>> exchange(
+            HttpMethod method,
+            String path,
+            @Nullable Long userId,
+            @Nullable Map<String, Object> parameters,
+            @Nullable Object body) {
+        if (method != HttpMethod.GET) {
+            return delegate
+                    .exchange(method, path, userId, parameters, body)
+                    .map(response -> {
+                        responseCache.invalidate(response.getHeaders());
+                        return ServerResponses.withoutHeader(response, ResponseCache.INVALIDATE_HEADER);
+                    });
+        }
+        if (parameters != null) {
+            return delegate.exchange(method, path, userId, parameters, body);
+        }
+        String resource = apiPrefix + path;
+        // Заголовки запроса читаются в потоке Tomcat, до перехода в асинхронный режим
+        List<String> ifNoneMatch = ifNoneMatch();
+        Optional<ResponseEntity<Object>> cached = responseCache.get(resource, userId, ifNoneMatch);
+        if (cached.isPresent()) {
+            return Mono.just(cached.get());
+        }
+        // Версия ресурса берётся до отправки запроса: ответ, прочитанный до сброса ресурса, не кэшируется
+        return Mono.defer(() -> {
+            long version = responseCache.startLoading(resource);
+            return delegate
+                    .exchange(method, path, userId, null, body)
+                    .map(response -> responseCache.put(resource, userId, response, ifNoneMatch, version))
+                    .doFinally(signal -> responseCache.finishLoading(resource));
+        });
+    }
+
+    private static List<String> ifNoneMatch() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes)) {
+            return List.of();
+        }
+        HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.getRequestAttributes()).getRequest();
+        HttpHeaders headers = new HttpHeaders();
+        headers.put(HttpHeaders.IF_NONE_MATCH, Collections.list(request.getHeaders(HttpHeaders.IF_NONE_MATCH)));
+        return headers.getIfNoneMatch();
+    }
+}
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+// Наплыв одинаковых GET, например на популярную вещь или поиск, уходит на сервер одним запросом
+public class CoalescingTransport implements ServerTransport {
+
+    private final String apiPrefix;
+    private final ServerTransport delegate;
+    private final InFlightRequests inFlightRequests;
+
+    public CoalescingTransport(String apiPrefix, ServerTransport delegate, InFlightRequests inFlightRequests) {
+        this.apiPrefix = apiPrefix;
+        this.delegate = delegate;
+        this.inFlightRequests = inFlightRequests;
+    }
+
+    @Override
+    public Mono<ResponseEntity<Object>> exchange(
+            HttpMethod method,
+            String path,
+            @Nullable Long userId,
+            @Nullable Map<String, Object> parameters,
+            @Nullable Object body) {
+        if (method != HttpMethod.GET) {
+            return delegate.exchange(method, path, userId, parameters, body);
+        }
+        return inFlightRequests.join(
+                resource(path, parameters),
+                userId,
+                () -> delegate.exchange(method, path, userId, parameters, body)
+        );
+    }
+
+    private String resource(String path, @Nullable Map<String, Object> parameters) {
+        if (parameters == null) {
+            return apiPrefix + path;
+        }
+        return apiPrefix + UriComponentsBuilder.fromUriString(path).buildAndExpand(parameters).toUriString();
+    }
+}
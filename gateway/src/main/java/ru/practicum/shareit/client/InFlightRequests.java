@@ -0,0 +1,70 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Одинаковые GET, пришедшие, пока первый ещё ждёт ответа сервера, получают его же ответ
+@Component
+public class InFlightRequests {
+
+    private final Map<Key, Flight> flights = new ConcurrentHashMap<>();
+    private final Counter coalesced;
+
+    public InFlightRequests(MeterRegistry meterRegistry) {
+        this.coalesced = Counter.builder("shareit.server.coalesced")
+                .description("GET-запросы, присоединённые к уже отправленному на сервер такому же запросу")
+                .register(meterRegistry);
+        Gauge.builder("shareit.server.coalescing.active", flights, Map::size)
+                .description("Разные GET-запросы, ожидающие ответа сервера")
+                .register(meterRegistry);
+    }
+
+    public Mono<ResponseEntity<Object>> join(String resource, @Nullable Long userId, Supplier<Mono<ResponseEntity<Object>>> call) {
+        return Mono.defer(() -> {
+            Key key = new Key(resource, userId);
+            Flight flight = flights.get(key);
+            if (flight != null) {
+                coalesced.increment();
+                return flight.response;
+            }
+            Flight created = new Flight(key, call);
+            flight = flights.putIfAbsent(key, created);
+            if (flight != null) {
+                coalesced.increment();
+                return flight.response;
+            }
+            return created.response;
+        });
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static final class Key {
+        private final String resource;
+        @Nullable
+        private final Long userId;
+    }
+
+    private final class Flight {
+        private final Mono<ResponseEntity<Object>> response;
+
+        // Запрос к серверу не отменяется, пока его ждёт хотя бы один клиент; ответ раздаётся всем присоединившимся
+        private Flight(Key key, Supplier<Mono<ResponseEntity<Object>>> call) {
+            this.response = Mono
+                    .defer(call)
+                    .doFinally(signal -> flights.remove(key, this))
+                    .share();
+        }
+    }
+}
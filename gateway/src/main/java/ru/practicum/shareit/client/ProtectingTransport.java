@@ -0,0 +1,35 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+// Под перегрузкой запрос отклоняется сразу, а не ждёт своей очереди к серверу
+public class ProtectingTransport implements ServerTransport {
+
+    private final String apiPrefix;
+    private final ServerTransport delegate;
+    private final ServerProtection protection;
+
+    public ProtectingTransport(String apiPrefix, ServerTransport delegate, ServerProtection protection) {
+        this.apiPrefix = apiPrefix;
+        this.delegate = delegate;
+        this.protection = protection;
+    }
+
+    @Override
+    public Mono<ResponseEntity<Object>> exchange(
+            HttpMethod method,
+            String path,
+            @Nullable Long userId,
+            @Nullable Map<String, Object> parameters,
+            @Nullable Object body) {
+        return protection.protect(
+                protection.group(apiPrefix, path),
+                () -> delegate.exchange(method, path, userId, parameters, body)
+        );
+    }
+}
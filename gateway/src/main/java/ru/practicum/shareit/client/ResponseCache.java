@@ -0,0 +1,180 @@
+package ru.practicum.shareit.client;
+
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Ответы сервера на GET с ETag и Cache-Control: max-age, ключ — ресурс и пользователь из X-Sharer-User-Id
+@Slf4j
+@Component
+public class ResponseCache {
+
+    public static final String INVALIDATE_HEADER = "X-Cache-Invalidate";
+
+    private static final Pattern MAX_AGE = Pattern.compile("max-age=(\\d+)");
+
+    private final Map<Key, Entry> entries;
+    // Ключи по ресурсу, чтобы сбрасывать ответы всех пользователей разом
+    private final Map<String, Set<Key>> keysByResource = new HashMap<>();
+    // Запросы к серверу, которые выполняются сейчас. Сброс ресурса меняет версию его загрузки, и ответ,
+    // полученный до изменения, в кэш не попадает
+    private final Map<String, Loading> loadings = new HashMap<>();
+
+    public ResponseCache(@Value("${shareit-server.cache.max-entries:10000}") int maxEntries) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > maxEntries) {
+                    unindex(eldest.getKey());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public Optional<ResponseEntity<Object>> get(String resource, @Nullable Long userId, List<String> ifNoneMatch) {
+        Key key = new Key(resource, userId);
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null && entry.expiresAt - System.nanoTime() <= 0) {
+                entries.remove(key);
+                unindex(key);
+                entry = null;
+            }
+        }
+        return Optional.ofNullable(entry).map(cached -> respond(cached.headers, cached.body, ifNoneMatch));
+    }
+
+    // Вызывается перед запросом к серверу, каждому вызову соответствует finishLoading
+    public synchronized long startLoading(String resource) {
+        Loading loading = loadings.computeIfAbsent(resource, r -> new Loading());
+        loading.requests++;
+        return loading.version;
+    }
+
+    public synchronized void finishLoading(String resource) {
+        Loading loading = loadings.get(resource);
+        if (loading != null && --loading.requests == 0) {
+            loadings.remove(resource);
+        }
+    }
+
+    public ResponseEntity<Object> put(String resource, @Nullable Long userId, ResponseEntity<Object> response, List<String> ifNoneMatch, long version) {
+        long maxAgeSeconds = maxAgeSeconds(response);
+        if (maxAgeSeconds <= 0 || !(response.getBody() instanceof byte[])) {
+            return response;
+        }
+        Key key = new Key(resource, userId);
+        Entry entry = new Entry(HttpHeaders.readOnlyHttpHeaders(response.getHeaders()), (byte[]) response.getBody(), System.nanoTime() + maxAgeSeconds * 1_000_000_000L);
+        synchronized (this) {
+            Loading loading = loadings.get(resource);
+            if (loading == null || loading.version == version) {
+                entries.put(key, entry);
+                keysByResource.computeIfAbsent(resource, r -> new HashSet<>()).add(key);
+            }
+        }
+        return respond(entry.headers, entry.body, ifNoneMatch);
+    }
+
+    public void invalidate(HttpHeaders serverHeaders) {
+        List<String> resources = serverHeaders.get(INVALIDATE_HEADER);
+        if (resources == null) {
+            return;
+        }
+        synchronized (this) {
+            for (String resource : resources) {
+                Set<Key> keys = keysByResource.remove(resource);
+                if (keys != null) {
+                    entries.keySet().removeAll(keys);
+                }
+                Loading loading = loadings.get(resource);
+                if (loading != null) {
+                    loading.version++;
+                }
+            }
+        }
+        log.debug("Сброшены закэшированные ответы для {}.", resources);
+    }
+
+    private void unindex(Key key) {
+        Set<Key> keys = keysByResource.get(key.resource);
+        if (keys != null) {
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                keysByResource.remove(key.resource);
+            }
+        }
+    }
+
+    // Кэшируются только успешные ответы, которые сервер пометил как свежие на время max-age
+    private static long maxAgeSeconds(ResponseEntity<Object> response) {
+        String cacheControl = response.getHeaders().getCacheControl();
+        if (response.getStatusCode() != HttpStatus.OK || response.getHeaders().getETag() == null || cacheControl == null
+                || cacheControl.contains("no-store") || cacheControl.contains("no-cache")) {
+            return 0;
+        }
+        Matcher matcher = MAX_AGE.matcher(cacheControl);
+        return matcher.find() ? Long.parseLong(matcher.group(1)) : 0;
+    }
+
+    private static ResponseEntity<Object> respond(HttpHeaders headers, byte[] body, List<String> ifNoneMatch) {
+        String etag = headers.getETag();
+        if (etag != null && matches(etag, ifNoneMatch)) {
+            return ResponseEntity
+                    .status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .header(HttpHeaders.CACHE_CONTROL, headers.getCacheControl())
+                    .build();
+        }
+        return ResponseEntity.ok().headers(headers).body(body);
+    }
+
+    // Для If-None-Match сравнение слабое: префикс W/ не учитывается
+    private static boolean matches(String etag, List<String> ifNoneMatch) {
+        String opaque = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidate : ifNoneMatch) {
+            if (candidate.equals("*") || (candidate.startsWith("W/") ? candidate.substring(2) : candidate).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static final class Key {
+        private final String resource;
+        @Nullable
+        private final Long userId;
+    }
+
+    @RequiredArgsConstructor
+    private static final class Entry {
+        private final HttpHeaders headers;
+        private final byte[] body;
+        private final long expiresAt;
+    }
+
+    private static final class Loading {
+        private long version;
+        private int requests;
+    }
+}
@@ -0,0 +1,51 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+// Запрос выполняется в потоке подписчика, то есть занимает поток Tomcat до ответа сервера
+public class RestTemplateTransport implements ServerTransport {
+
+    private final RestTemplate rest;
+
+    public RestTemplateTransport(RestTemplate rest) {
+        this.rest = rest;
+    }
+
+    @Override
+    public Mono<ResponseEntity<Object>> exchange(
+            HttpMethod method,
+            String path,
+            @Nullable Long userId,
+            @Nullable Map<String, Object> parameters,
+            @Nullable Object body) {
+        return Mono.fromCallable(() -> makeAndSendRequest(method, path, userId, parameters, body));
+    }
+
+    private ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable Object body) {
+        HttpEntity<Object> requestEntity = new HttpEntity<>(body, ServerHeaders.of(userId));
+
+        ResponseEntity<byte[]> shareitServerResponse;
+        try {
+            if (parameters != null) {
+                shareitServerResponse = rest.exchange(path, method, requestEntity, byte[].class, parameters);
+            } else {
+                shareitServerResponse = rest.exchange(path, method, requestEntity, byte[].class);
+            }
+        } catch (HttpStatusCodeException e) {
+            return ServerResponses.passThrough(e.getRawStatusCode(), e.getResponseHeaders(), e.getResponseBodyAsByteArray());
+        }
+        return ServerResponses.passThrough(
+                shareitServerResponse.getStatusCodeValue(),
+                shareitServerResponse.getHeaders(),
+                shareitServerResponse.getBody()
+        );
+    }
+}
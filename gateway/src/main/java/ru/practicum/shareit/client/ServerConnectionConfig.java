@@ -0,0 +1,101 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import io.netty.channel.ChannelOption;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.concurrent.TimeUnit;
+
+// Один пул на все клиенты шлюза для каждого из способов доставки запросов
+@Configuration
+@EnableConfigurationProperties(ServerConnectionProperties.class)
+public class ServerConnectionConfig {
+
+    private static final String POOL_NAME = "shareit-server";
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager serverConnectionManager(ServerConnectionProperties properties) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(
+                properties.getMaxLifeTime().toMillis(),
+                TimeUnit.MILLISECONDS
+        );
+        connectionManager.setMaxTotal(properties.getMaxTotal());
+        connectionManager.setDefaultMaxPerRoute(properties.getMaxPerRoute());
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient serverHttpClient(
+            PoolingHttpClientConnectionManager serverConnectionManager,
+            ServerConnectionProperties properties) {
+        long idleTimeout = properties.getIdleTimeout().toMillis();
+        return HttpClients
+                .custom()
+                .setConnectionManager(serverConnectionManager)
+                .setDefaultRequestConfig(RequestConfig
+                        .custom()
+                        .setConnectTimeout((int) properties.getConnectTimeout().toMillis())
+                        .setSocketTimeout((int) properties.getReadTimeout().toMillis())
+                        .setConnectionRequestTimeout((int) properties.getAcquireTimeout().toMillis())
+                        .build())
+                // Без заголовка Keep-Alive от сервера соединение живёт не дольше idleTimeout
+                .setKeepAliveStrategy((response, context) -> {
+                    long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return keepAlive > 0 ? Math.min(keepAlive, idleTimeout) : idleTimeout;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(idleTimeout, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    @Bean
+    public ClientHttpRequestFactory serverRequestFactory(CloseableHttpClient serverHttpClient) {
+        return new HttpComponentsClientHttpRequestFactory(serverHttpClient);
+    }
+
+    @Bean
+    public MeterBinder serverConnectionManagerMetrics(PoolingHttpClientConnectionManager serverConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(serverConnectionManager, POOL_NAME);
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider serverConnectionProvider(ServerConnectionProperties properties) {
+        return ConnectionProvider
+                .builder(POOL_NAME)
+                .maxConnections(properties.getMaxTotal())
+                .pendingAcquireTimeout(properties.getAcquireTimeout())
+                .maxIdleTime(properties.getIdleTimeout())
+                .maxLifeTime(properties.getMaxLifeTime())
+                .evictInBackground(properties.getIdleTimeout())
+                .metrics(true)
+                .build();
+    }
+
+    // WebClient.Builder подхватывает этот коннектор через автоконфигурацию Spring Boot
+    @Bean
+    public ReactorClientHttpConnector serverClientHttpConnector(
+            ConnectionProvider serverConnectionProvider,
+            ServerConnectionProperties properties) {
+        HttpClient httpClient = HttpClient
+                .create(serverConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .responseTimeout(properties.getReadTimeout())
+                .keepAlive(true);
+        // Event loop и DNS-резолвер создаются при старте, а не на первых запросах, которые иначе сочтутся медленными
+        httpClient.warmup().block();
+        return new ReactorClientHttpConnector(httpClient);
+    }
+}
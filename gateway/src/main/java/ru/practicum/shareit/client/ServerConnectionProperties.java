@@ -0,0 +1,21 @@
+package ru.practicum.shareit.client;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// Общий пул соединений шлюза с сервером ShareIt
+@Data
+@ConfigurationProperties(prefix = "shareit-server.pool")
+public class ServerConnectionProperties {
+    private int maxTotal = 200;
+    private int maxPerRoute = 200;
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    private Duration readTimeout = Duration.ofSeconds(30);
+    // Ожидание свободного соединения, когда пул исчерпан
+    private Duration acquireTimeout = Duration.ofSeconds(5);
+    // Должно быть меньше keep-alive таймаута Tomcat на сервере (20 секунд по умолчанию)
+    private Duration idleTimeout = Duration.ofSeconds(15);
+    private Duration maxLifeTime = Duration.ofMinutes(5);
+}
@@ -0,0 +1,157 @@
+package ru.practicum.shareit.client;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.exception.server.ServerOverloadedException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+// Запрос к серверу проходит размыкатель цепи группы, её изоляцию (bulkhead) и общий адаптивный лимит.
+// Ни один из них не ставит запрос в очередь: отказ сразу превращается в 503.
+@Slf4j
+@Component
+@EnableConfigurationProperties(ServerProtectionProperties.class)
+public class ServerProtection {
+
+    private final ServerProtectionProperties properties;
+    private final CircuitBreakerRegistry circuitBreakers;
+    private final BulkheadRegistry bulkheads;
+    private final AimdLimiter limiter;
+    private final MeterRegistry meterRegistry;
+
+    public ServerProtection(ServerProtectionProperties properties, MeterRegistry meterRegistry) {
+        ServerProtectionProperties.Limiter limiterProperties = properties.getLimiter();
+        ServerProtectionProperties.CircuitBreaker circuitBreakerProperties = properties.getCircuitBreaker();
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.limiter = new AimdLimiter(
+                limiterProperties.getInitialLimit(),
+                limiterProperties.getMinLimit(),
+                limiterProperties.getMaxLimit(),
+                limiterProperties.getBackoffRatio(),
+                limiterProperties.getLatencyThreshold().toNanos()
+        );
+        this.circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig
+                .custom()
+                .slidingWindowSize(circuitBreakerProperties.getSlidingWindowSize())
+                .minimumNumberOfCalls(circuitBreakerProperties.getMinimumNumberOfCalls())
+                .failureRateThreshold(circuitBreakerProperties.getFailureRateThreshold())
+                .slowCallRateThreshold(circuitBreakerProperties.getSlowCallRateThreshold())
+                .slowCallDurationThreshold(circuitBreakerProperties.getSlowCallDuration())
+                .waitDurationInOpenState(circuitBreakerProperties.getWaitInOpenState())
+                .permittedNumberOfCallsInHalfOpenState(circuitBreakerProperties.getPermittedCallsInHalfOpenState())
+                .recordResult(result -> result instanceof ResponseEntity && isServerError((ResponseEntity<?>) result))
+                // Отказ из-за собственных ограничений шлюза не говорит о неисправности сервера
+                .ignoreExceptions(BulkheadFullException.class, ServerOverloadedException.class)
+                .build());
+        this.bulkheads = BulkheadRegistry.ofDefaults();
+        circuitBreakers.getEventPublisher().onEntryAdded(event -> event
+                .getAddedEntry()
+                .getEventPublisher()
+                .onStateTransition(transition -> log.warn("Размыкатель цепи {}: {}.",
+                        transition.getCircuitBreakerName(), transition.getStateTransition())));
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(meterRegistry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(meterRegistry);
+        Gauge.builder("shareit.server.concurrency.limit", limiter, AimdLimiter::getLimit)
+                .description("Адаптивный лимит одновременных запросов к серверу")
+                .register(meterRegistry);
+        Gauge.builder("shareit.server.concurrency.active", limiter, AimdLimiter::getInFlight)
+                .description("Запросы к серверу в обработке")
+                .register(meterRegistry);
+    }
+
+    // items-search выделяется в отдельную группу, только если для неё задан свой bulkhead
+    public String group(String apiPrefix, String path) {
+        String group = apiPrefix.startsWith("/") ? apiPrefix.substring(1) : apiPrefix;
+        String segment = path.replaceFirst("^/", "").split("[/?]", 2)[0];
+        String candidate = group + "-" + segment;
+        return !segment.isEmpty() && properties.getBulkheads().containsKey(candidate) ? candidate : group;
+    }
+
+    public Mono<ResponseEntity<Object>> protect(String group, Supplier<Mono<ResponseEntity<Object>>> call) {
+        return Mono
+                .defer(() -> limit(call))
+                .transformDeferred(BulkheadOperator.of(bulkhead(group)))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreakers.circuitBreaker(group)))
+                .doOnError(throwable -> countRejection(group, throwable));
+    }
+
+    private Mono<ResponseEntity<Object>> limit(Supplier<Mono<ResponseEntity<Object>>> call) {
+        if (!limiter.tryAcquire()) {
+            return Mono.error(new ServerOverloadedException(
+                    String.format("Сервер перегружен: достигнут лимит в %d одновременных запросов.", limiter.getLimit())));
+        }
+        long started = System.nanoTime();
+        AtomicBoolean released = new AtomicBoolean();
+        return call.get()
+                .doOnSuccess(response -> {
+                    if (released.compareAndSet(false, true)) {
+                        if (response != null && isServerError(response)) {
+                            limiter.onDropped(started);
+                        } else {
+                            limiter.onSuccess(started);
+                        }
+                    }
+                })
+                .doOnError(throwable -> {
+                    if (released.compareAndSet(false, true)) {
+                        limiter.onDropped(started);
+                    }
+                })
+                .doOnCancel(() -> {
+                    if (released.compareAndSet(false, true)) {
+                        limiter.onIgnored();
+                    }
+                });
+    }
+
+    private Bulkhead bulkhead(String group) {
+        return bulkheads.bulkhead(group, () -> BulkheadConfig
+                .custom()
+                .maxConcurrentCalls(properties.getBulkheads().getOrDefault(group, properties.getDefaultBulkhead()))
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+    }
+
+    private void countRejection(String group, Throwable throwable) {
+        String reason;
+        if (throwable instanceof CallNotPermittedException) {
+            reason = "circuit-breaker";
+        } else if (throwable instanceof BulkheadFullException) {
+            reason = "bulkhead";
+        } else if (throwable instanceof ServerOverloadedException) {
+            reason = "limiter";
+        } else {
+            return;
+        }
+        Counter.builder("shareit.server.rejected")
+                .description("Запросы, отклонённые шлюзом без обращения к серверу")
+                .tag("group", group)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static boolean isServerError(ResponseEntity<?> response) {
+        return response.getStatusCodeValue() >= 500;
+    }
+}
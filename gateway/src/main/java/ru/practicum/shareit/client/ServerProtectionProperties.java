@@ -0,0 +1,41 @@
+package ru.practicum.shareit.client;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+// Защита сервера ShareIt от перегрузки: изоляция групп эндпоинтов, адаптивный лимит и размыкатель цепи
+@Data
+@ConfigurationProperties(prefix = "shareit-server.protection")
+public class ServerProtectionProperties {
+    // Группа — префикс API без слэша (items) либо префикс с первым сегментом пути (items-search)
+    private Map<String, Integer> bulkheads = new HashMap<>();
+    private int defaultBulkhead = 100;
+    private final Limiter limiter = new Limiter();
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    @Data
+    public static class Limiter {
+        private int initialLimit = 50;
+        private int minLimit = 5;
+        // Больше размера пула соединений смысла нет
+        private int maxLimit = 200;
+        private double backoffRatio = 0.9;
+        // Ответ дольше порога считается признаком перегрузки сервера
+        private Duration latencyThreshold = Duration.ofSeconds(1);
+    }
+
+    @Data
+    public static class CircuitBreaker {
+        private int slidingWindowSize = 50;
+        private int minimumNumberOfCalls = 20;
+        private float failureRateThreshold = 50;
+        private float slowCallRateThreshold = 80;
+        private Duration slowCallDuration = Duration.ofSeconds(2);
+        private Duration waitInOpenState = Duration.ofSeconds(10);
+        private int permittedCallsInHalfOpenState = 5;
+    }
+}
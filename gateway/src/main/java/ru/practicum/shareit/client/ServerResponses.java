@@ -0,0 +1,59 @@
+package ru.practicum.shareit.client;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+// Ответ сервера отдаётся клиенту как есть: байты тела без разбора JSON и заголовки без hop-by-hop
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+class ServerResponses {
+
+    private static final Set<String> HOP_BY_HOP_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        HOP_BY_HOP_HEADERS.addAll(Set.of(
+                HttpHeaders.CONNECTION,
+                "Keep-Alive",
+                HttpHeaders.TRANSFER_ENCODING,
+                HttpHeaders.TE,
+                HttpHeaders.TRAILER,
+                HttpHeaders.UPGRADE,
+                HttpHeaders.PROXY_AUTHENTICATE,
+                HttpHeaders.PROXY_AUTHORIZATION,
+                // Длину тела выставит Tomcat
+                HttpHeaders.CONTENT_LENGTH
+        ));
+    }
+
+    static ResponseEntity<Object> passThrough(int status, @Nullable HttpHeaders serverHeaders, @Nullable byte[] body) {
+        HttpHeaders headers = new HttpHeaders();
+        if (serverHeaders != null) {
+            serverHeaders.forEach((name, values) -> {
+                if (!HOP_BY_HOP_HEADERS.contains(name)) {
+                    headers.addAll(name, values);
+                }
+            });
+        }
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(status).headers(headers);
+        if (body != null && body.length > 0) {
+            return responseBuilder.body(body);
+        }
+        return responseBuilder.build();
+    }
+
+    // Служебный заголовок сервера нужен только шлюзу, клиенту он не передаётся
+    static ResponseEntity<Object> withoutHeader(ResponseEntity<Object> response, String name) {
+        if (!response.getHeaders().containsKey(name)) {
+            return response;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(response.getHeaders());
+        headers.remove(name);
+        return new ResponseEntity<>(response.getBody(), headers, response.getStatusCodeValue());
+    }
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+// Способ доставки запроса на сервер ShareIt: блокирующий RestTemplate или неблокирующий WebClient
+public interface ServerTransport {
+
+    Mono<ResponseEntity<Object>> exchange(
+            HttpMethod method,
+            String path,
+            @Nullable Long userId,
+            @Nullable Map<String, Object> parameters,
+            @Nullable Object body
+    );
+}
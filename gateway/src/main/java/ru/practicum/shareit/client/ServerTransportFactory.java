@@ -0,0 +1,72 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+@Component
+public class ServerTransportFactory {
+
+    public static final String BLOCKING = "blocking";
+    public static final String REACTIVE = "reactive";
+
+    private final String serverUrl;
+    private final String mode;
+    private final RestTemplateBuilder restTemplateBuilder;
+    private final ClientHttpRequestFactory requestFactory;
+    private final WebClient.Builder webClientBuilder;
+    private final ResponseCache responseCache;
+    private final ServerProtection protection;
+    private final InFlightRequests inFlightRequests;
+
+    public ServerTransportFactory(
+            @Value("${shareit-server.url}") String serverUrl,
+            @Value("${shareit-server.transport:" + REACTIVE + "}") String mode,
+            RestTemplateBuilder restTemplateBuilder,
+            ClientHttpRequestFactory requestFactory,
+            WebClient.Builder webClientBuilder,
+            ResponseCache responseCache,
+            ServerProtection protection,
+            InFlightRequests inFlightRequests) {
+        if (!BLOCKING.equals(mode) && !REACTIVE.equals(mode)) {
+            throw new IllegalArgumentException(String.format("Неизвестный способ доставки запросов %s.", mode));
+        }
+        this.serverUrl = serverUrl;
+        this.mode = mode;
+        this.restTemplateBuilder = restTemplateBuilder;
+        this.requestFactory = requestFactory;
+        this.webClientBuilder = webClientBuilder;
+        this.responseCache = responseCache;
+        this.protection = protection;
+        this.inFlightRequests = inFlightRequests;
+    }
+
+    // Ответ из кэша не расходует лимиты защиты сервера, а объединённые GET занимают одно место в них
+    public ServerTransport create(String apiPrefix) {
+        return new CachingTransport(
+                apiPrefix,
+                new CoalescingTransport(
+                        apiPrefix,
+                        new ProtectingTransport(apiPrefix, createDirect(apiPrefix), protection),
+                        inFlightRequests
+                ),
+                responseCache
+        );
+    }
+
+    private ServerTransport createDirect(String apiPrefix) {
+        DefaultUriBuilderFactory uriBuilderFactory = new DefaultUriBuilderFactory(serverUrl + apiPrefix);
+        if (BLOCKING.equals(mode)) {
+            return new RestTemplateTransport(
+                    restTemplateBuilder
+                            .uriTemplateHandler(uriBuilderFactory)
+                            .requestFactory(() -> requestFactory)
+                            .build()
+            );
+        }
+        return new WebClientTransport(webClientBuilder.clone().uriBuilderFactory(uriBuilderFactory).build());
+    }
+}
@@ -0,0 +1,45 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+// Ожидание ответа сервера не занимает поток: запрос Tomcat переходит в асинхронный режим
+public class WebClientTransport implements ServerTransport {
+
+    private final WebClient webClient;
+
+    public WebClientTransport(WebClient webClient) {
+        this.webClient = webClient;
+    }
+
+    @Override
+    public Mono<ResponseEntity<Object>> exchange(
+            HttpMethod method,
+            String path,
+            @Nullable Long userId,
+            @Nullable Map<String, Object> parameters,
+            @Nullable Object body) {
+        WebClient.RequestBodySpec request = webClient
+                .method(method)
+                .uri(path, parameters != null ? parameters : Map.of())
+                .headers(headers -> headers.addAll(ServerHeaders.of(userId)));
+        if (body != null) {
+            request.bodyValue(body);
+        }
+        return request.exchangeToMono(WebClientTransport::prepareGatewayResponse);
+    }
+
+    // Тело собирается целиком: его кэширует ResponseCache и раздаёт всем ожидающим InFlightRequests, а поток байтов
+    // можно прочитать только один раз. Размер тела ограничен лимитом кодеков WebClient по умолчанию (256 КБ).
+    private static Mono<ResponseEntity<Object>> prepareGatewayResponse(ClientResponse response) {
+        return response
+                .toEntity(byte[].class)
+                .map(entity -> ServerResponses.passThrough(entity.getStatusCodeValue(), entity.getHeaders(), entity.getBody()));
+    }
+}
@@ -0,0 +1,55 @@
+package ru.practicum.shareit.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+
+// Поток событий идёт мимо кэша, объединения запросов и защиты сервера: он живёт долго и не должен занимать
+// места в их лимитах. Всегда использует WebClient, независимо от способа доставки остальных запросов.
+// Сервер присылает heartbeat чаще, чем истекает таймаут чтения пула соединений.
+@Slf4j
+@Service
+public class EventClient {
+
+    private static final String API_PREFIX = "/events";
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> EVENT_TYPE = new ParameterizedTypeReference<>() {
+    };
+
+    private final WebClient webClient;
+    private final int bufferSize;
+
+    public EventClient(
+            @Value("${shareit-server.url}") String serverUrl,
+            @Value("${shareit-server.events.buffer-size:256}") int bufferSize,
+            WebClient.Builder webClientBuilder) {
+        this.webClient = webClientBuilder.clone().baseUrl(serverUrl + API_PREFIX).build();
+        this.bufferSize = bufferSize;
+    }
+
+    // Ошибка сервера, например неизвестный пользователь, приходит событием error с телом ответа сервера.
+    // Клиент, не успевающий читать поток, отключается при переполнении буфера и переподключается сам.
+    public Flux<ServerSentEvent<String>> subscribe(long userId) {
+        return webClient
+                .get()
+                .header("X-Sharer-User-Id", String.valueOf(userId))
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchangeToFlux(response -> response.statusCode().is2xxSuccessful()
+                        ? response.bodyToFlux(EVENT_TYPE)
+                        : response
+                        .bodyToMono(String.class)
+                        .defaultIfEmpty(response.statusCode().getReasonPhrase())
+                        .map(body -> ServerSentEvent.builder(body).event("error").build())
+                        .flux())
+                .onBackpressureBuffer(
+                        bufferSize,
+                        event -> log.warn("Поток событий пользователя {} не успевает получать события и закрыт.", userId),
+                        BufferOverflowStrategy.ERROR
+                );
+    }
+}
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.event;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+// Потоковый ответ Spring MVC не ограничен таймаутом асинхронного запроса и запрашивает события по мере записи клиенту
+@Slf4j
+@RestController
+@RequestMapping("/events")
+@RequiredArgsConstructor
+public class EventController {
+
+    private final EventClient client;
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> subscribe(@RequestHeader("X-Sharer-User-Id") long userId) {
+        log.info("Выполнен запрос GET /events.");
+        return client.subscribe(userId);
+    }
+}
@@ -1,12 +1,17 @@
 package ru.practicum.shareit.exception.handler;
 
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import ru.practicum.shareit.booking.BookingController;
+import ru.practicum.shareit.event.EventController;
+import ru.practicum.shareit.exception.server.ServerOverloadedException;
 import ru.practicum.shareit.item.ItemController;
 import ru.practicum.shareit.request.ItemRequestController;
 import ru.practicum.shareit.user.UserController;
@@ -14,7 +19,7 @@ import ru.practicum.shareit.user.UserController;
 import javax.validation.ConstraintViolationException;
 
 @Slf4j
-@RestControllerAdvice(assignableTypes = {UserController.class, ItemController.class, BookingController.class, ItemRequestController.class})
+@RestControllerAdvice(assignableTypes = {UserController.class, ItemController.class, BookingController.class, ItemRequestController.class, EventController.class})
 public class ErrorHandler {
 
     @ExceptionHandler
@@ -29,6 +34,15 @@ public class ErrorHandler {
         return new ResponseEntity<>(exception.getMessage(), HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler({ServerOverloadedException.class, BulkheadFullException.class, CallNotPermittedException.class})
+    public ResponseEntity<String> handleServerUnavailable(RuntimeException exception) {
+        log.warn(exception.getMessage());
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(exception.getMessage());
+    }
+
     @ExceptionHandler
     public ResponseEntity<String> handleThrowable(Throwable throwable) {
         log.info(throwable.getMessage());
@@ -1,13 +1,11 @@
 package ru.practicum.shareit.item;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ServerTransportFactory;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.StandardItemDto;
 
@@ -19,37 +17,49 @@ public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public ItemClient(ServerTransportFactory transports) {
+        super(transports.create(API_PREFIX));
     }
 
-    public ResponseEntity<Object> create(long userId, StandardItemDto itemDto) {
+    public Mono<ResponseEntity<Object>> create(long userId, StandardItemDto itemDto) {
         return post("", userId, itemDto);
     }
 
-    public ResponseEntity<Object> update(long itemId, long userId, StandardItemDto itemDto) {
+    public Mono<ResponseEntity<Object>> update(long itemId, long userId, StandardItemDto itemDto) {
         return patch(String.format("/%d", itemId), userId, itemDto);
     }
 
-    public ResponseEntity<Object> get(long itemId, long ownerId) {
+    public Mono<ResponseEntity<Object>> get(long itemId, long ownerId) {
         return get(String.format("/%d", itemId), ownerId);
     }
 
-    public ResponseEntity<Object> get(long userId) {
-        return get("", userId);
+    public Mono<ResponseEntity<Object>> get(long userId, int from, int size) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "size", size
+        );
+        return get("?from={from}&size={size}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<Object>> search(String text, int from, int size) {
+        Map<String, Object> parameters = Map.of(
+                "text", text,
+                "from", from,
+                "size", size
+        );
+        return get("/search?text={text}&from={from}&size={size}", null, parameters);
     }
 
-    public ResponseEntity<Object> search(String text) {
-        Map<String, Object> parameters = Map.of("text", text);
-        return get("/search?text={text}", null, parameters);
+    // Пустой курсор - первая страница
+    public Mono<ResponseEntity<Object>> getComments(long itemId, long userId, String cursor, int size) {
+        Map<String, Object> parameters = Map.of(
+                "cursor", cursor != null ? cursor : "",
+                "size", size
+        );
+        return get(String.format("/%d/comments?cursor={cursor}&size={size}", itemId), userId, parameters);
     }
 
-    public ResponseEntity<Object> addComment(long itemId, long userId, CommentRequestDto commentRequestDto) {
+    public Mono<ResponseEntity<Object>> addComment(long itemId, long userId, CommentRequestDto commentRequestDto) {
         return post(String.format("/%d/comment", itemId), userId, commentRequestDto);
     }
 }
\ No newline at end of file
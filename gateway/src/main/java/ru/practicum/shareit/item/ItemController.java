@@ -6,14 +6,18 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.constraint_group.Create;
 import ru.practicum.shareit.constraint_group.Update;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.StandardItemDto;
 
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
 import java.util.Collections;
 
 @Slf4j
+@Validated
 @Controller
 @RequestMapping("/items")
 @RequiredArgsConstructor
@@ -22,7 +26,7 @@ public class ItemController {
     private final ItemClient client;
 
     @PostMapping
-    public ResponseEntity<Object> create(
+    public Mono<ResponseEntity<Object>> create(
             @RequestHeader("X-Sharer-User-Id") long userId,
             @Validated(Create.class) @RequestBody StandardItemDto itemDto) {
         log.info("Выполнен запрос POST /items.");
@@ -30,7 +34,7 @@ public class ItemController {
     }
 
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> update(
+    public Mono<ResponseEntity<Object>> update(
             @PathVariable long itemId,
             @RequestHeader("X-Sharer-User-Id") long userId,
             @Validated(Update.class) @RequestBody StandardItemDto itemDto) {
@@ -39,28 +43,44 @@ public class ItemController {
     }
 
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> get(@PathVariable long itemId, @RequestHeader("X-Sharer-User-Id") long ownerId) {
+    public Mono<ResponseEntity<Object>> get(@PathVariable long itemId, @RequestHeader("X-Sharer-User-Id") long ownerId) {
         log.info("Выполнен запрос GET /items/{}.", itemId);
         return client.get(itemId, ownerId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> get(@RequestHeader("X-Sharer-User-Id") long userId) {
-        log.info("Выполнен запрос GET /items.");
-        return client.get(userId);
+    public Mono<ResponseEntity<Object>> get(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @PositiveOrZero @RequestParam(name = "from", required = false, defaultValue = "0") int from,
+            @Positive @RequestParam(name = "size", required = false, defaultValue = "10") int size) {
+        log.info("Выполнен запрос GET /items?from={}&size={}.", from, size);
+        return client.get(userId, from, size);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> search(@RequestParam(required = false, name = "text", defaultValue = "") String text) {
-        log.info("Выполнен запрос GET /items/search?text={}.", text);
+    public Mono<ResponseEntity<Object>> search(
+            @RequestParam(required = false, name = "text", defaultValue = "") String text,
+            @PositiveOrZero @RequestParam(name = "from", required = false, defaultValue = "0") int from,
+            @Positive @RequestParam(name = "size", required = false, defaultValue = "10") int size) {
+        log.info("Выполнен запрос GET /items/search?text={}&from={}&size={}.", text, from, size);
         if (text.isBlank()) {
-            return ResponseEntity.ok(Collections.emptyList());
+            return Mono.just(ResponseEntity.ok(Collections.emptyList()));
         }
-        return client.search(text);
+        return client.search(text, from, size);
+    }
+
+    @GetMapping("/{itemId}/comments")
+    public Mono<ResponseEntity<Object>> getComments(
+            @PathVariable long itemId,
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @Positive @RequestParam(name = "size", required = false, defaultValue = "10") int size) {
+        log.info("Выполнен запрос GET /items/{}/comments?cursor={}&size={}.", itemId, cursor, size);
+        return client.getComments(itemId, userId, cursor, size);
     }
 
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> addComment(
+    public Mono<ResponseEntity<Object>> addComment(
             @PathVariable long itemId,
             @RequestHeader("X-Sharer-User-Id") long userId,
             @Validated(Create.class) @RequestBody CommentRequestDto commentRequestDto) {
@@ -1,13 +1,11 @@
 package ru.practicum.shareit.request;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ServerTransportFactory;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
 import java.util.Map;
@@ -18,29 +16,29 @@ public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
     @Autowired
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public ItemRequestClient(ServerTransportFactory transports) {
+        super(transports.create(API_PREFIX));
     }
 
-    public ResponseEntity<Object> create(long userId, ItemRequestDto itemRequestDto) {
+    public Mono<ResponseEntity<Object>> create(long userId, ItemRequestDto itemRequestDto) {
         return post("", userId, itemRequestDto);
     }
 
-    public ResponseEntity<Object> getByRequesterId(long requesterId) {
+    public Mono<ResponseEntity<Object>> getByRequesterId(long requesterId) {
         return get("", requesterId);
     }
 
-    public ResponseEntity<Object> getAll(long userId, int from, int size) {
+    public Mono<ResponseEntity<Object>> getAll(long userId, int from, int size) {
         Map<String, Object> parameters = Map.of("from", from, "size", size);
         return get("/all?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> get(long userId, long requestId) {
+    public Mono<ResponseEntity<Object>> getPage(long userId, String cursor, int size) {
+        Map<String, Object> parameters = Map.of("cursor", cursor, "size", size);
+        return get("/all?cursor={cursor}&size={size}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<Object>> get(long userId, long requestId) {
         return get(String.format("/%d", requestId), userId);
     }
 }
\ No newline at end of file
@@ -6,6 +6,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.constraint_group.Create;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
@@ -22,7 +23,7 @@ public class ItemRequestController {
     private final ItemRequestClient client;
 
     @PostMapping
-    public ResponseEntity<Object> create(
+    public Mono<ResponseEntity<Object>> create(
             @RequestHeader("X-Sharer-User-Id") long userId,
             @Validated(Create.class) @RequestBody ItemRequestDto itemRequestDto) {
         log.info("Выполнен запрос POST /requests.");
@@ -30,22 +31,27 @@ public class ItemRequestController {
     }
 
     @GetMapping
-    public ResponseEntity<Object> getByRequesterId(@RequestHeader("X-Sharer-User-Id") long requesterId) {
+    public Mono<ResponseEntity<Object>> getByRequesterId(@RequestHeader("X-Sharer-User-Id") long requesterId) {
         log.info("Выполнен запрос GET /requests.");
         return client.getByRequesterId(requesterId);
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> getAll(
+    public Mono<ResponseEntity<Object>> getAll(
             @RequestHeader("X-Sharer-User-Id") long userId,
             @PositiveOrZero @RequestParam(name = "from", required = false, defaultValue = "0") int from,
-            @Positive @RequestParam(name = "size", required = false, defaultValue = "5") int size) {
+            @Positive @RequestParam(name = "size", required = false, defaultValue = "5") int size,
+            @RequestParam(name = "cursor", required = false) String cursor) {
+        if (cursor != null) {
+            log.info("Выполнен запрос GET /requests/all?cursor={}&size={}", cursor, size);
+            return client.getPage(userId, cursor, size);
+        }
         log.info("Выполнен запрос GET /requests/all?from={}&size={}", from, size);
         return client.getAll(userId, from, size);
     }
 
     @GetMapping("/{requestId}")
-    public ResponseEntity<Object> get(@RequestHeader("X-Sharer-User-Id") long userId, @PathVariable long requestId) {
+    public Mono<ResponseEntity<Object>> get(@RequestHeader("X-Sharer-User-Id") long userId, @PathVariable long requestId) {
         log.info("Выполнен запрос GET /requests/{}.", requestId);
         return client.get(userId, requestId);
     }
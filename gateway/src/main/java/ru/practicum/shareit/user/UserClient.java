@@ -1,13 +1,11 @@
 package ru.practicum.shareit.user;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ServerTransportFactory;
 import ru.practicum.shareit.user.dto.UserDto;
 
 @Service
@@ -16,32 +14,27 @@ public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
 
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public UserClient(ServerTransportFactory transports) {
+        super(transports.create(API_PREFIX));
     }
 
-    public ResponseEntity<Object> create(UserDto user) {
+    public Mono<ResponseEntity<Object>> create(UserDto user) {
         return post("", user);
     }
 
-    public ResponseEntity<Object> update(long userId, UserDto userDto) {
+    public Mono<ResponseEntity<Object>> update(long userId, UserDto userDto) {
         return patch(String.format("/%d", userId), userDto);
     }
 
-    public ResponseEntity<Object> get(long userId) {
+    public Mono<ResponseEntity<Object>> get(long userId) {
         return get(String.format("/%d", userId));
     }
 
-    public ResponseEntity<Object> delete(long userId) {
+    public Mono<ResponseEntity<Object>> delete(long userId) {
         return delete("/" + userId);
     }
 
-    public ResponseEntity<Object> get() {
+    public Mono<ResponseEntity<Object>> get() {
         return get("");
     }
 }
\ No newline at end of file
@@ -6,6 +6,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.constraint_group.Create;
 import ru.practicum.shareit.constraint_group.Update;
 import ru.practicum.shareit.user.dto.UserDto;
@@ -19,31 +20,31 @@ public class UserController {
     private final UserClient client;
 
     @PostMapping
-    public ResponseEntity<Object> create(@Validated(Create.class) @RequestBody UserDto user) {
+    public Mono<ResponseEntity<Object>> create(@Validated(Create.class) @RequestBody UserDto user) {
         log.info("Выполнен запрос POST /users.");
         return client.create(user);
     }
 
     @PatchMapping("/{userId}")
-    public ResponseEntity<Object> update(@PathVariable long userId, @Validated(Update.class) @RequestBody UserDto user) {
+    public Mono<ResponseEntity<Object>> update(@PathVariable long userId, @Validated(Update.class) @RequestBody UserDto user) {
         log.info("Выполнен запрос PATCH /users/{}.", userId);
         return client.update(userId, user);
     }
 
     @GetMapping("/{userId}")
-    public ResponseEntity<Object> get(@PathVariable long userId) {
+    public Mono<ResponseEntity<Object>> get(@PathVariable long userId) {
         log.info("Выполнен запрос GET /users/{}.", userId);
         return client.get(userId);
     }
 
     @DeleteMapping("/{userId}")
-    public ResponseEntity<Object> delete(@PathVariable long userId) {
+    public Mono<ResponseEntity<Object>> delete(@PathVariable long userId) {
         log.info("Выполнен запрос DELETE /users/{}.", userId);
         return client.delete(userId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> get() {
+    public Mono<ResponseEntity<Object>> get() {
         log.info("Выполнен запрос GET /users.");
         return client.get();
     }
@@ -0,0 +1,88 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+class AimdLimiterTest {
+
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long NEVER_SLOW = TimeUnit.HOURS.toNanos(1);
+
+    @Test
+    void testRejectsAboveLimit() {
+        AimdLimiter limiter = new AimdLimiter(2, 1, 10, 0.5, NEVER_SLOW);
+
+        Assertions.assertTrue(limiter.tryAcquire());
+        Assertions.assertTrue(limiter.tryAcquire());
+        Assertions.assertFalse(limiter.tryAcquire());
+        Assertions.assertEquals(2, limiter.getInFlight());
+
+        limiter.onIgnored();
+        Assertions.assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void testIncreasesOnlyWhileLimitIsUsed() {
+        AimdLimiter limiter = new AimdLimiter(4, 1, 5, 0.5, NEVER_SLOW);
+
+        // Занята четверть лимита: быстрый ответ лимит не поднимает
+        limiter.tryAcquire();
+        limiter.onSuccess(System.nanoTime());
+        Assertions.assertEquals(4, limiter.getLimit());
+
+        // Занята половина лимита: каждый быстрый ответ поднимает его на единицу, но не выше максимума
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire();
+            limiter.tryAcquire();
+            limiter.tryAcquire();
+            long started = System.nanoTime();
+            limiter.onSuccess(started);
+            limiter.onIgnored();
+            limiter.onIgnored();
+        }
+        Assertions.assertEquals(5, limiter.getLimit());
+        Assertions.assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void testDecreasesOnceOnWaveOfFailures() {
+        AimdLimiter limiter = new AimdLimiter(16, 2, 20, 0.5, NEVER_SLOW);
+        limiter.tryAcquire();
+        limiter.tryAcquire();
+        long started = System.nanoTime();
+
+        limiter.onDropped(started);
+        Assertions.assertEquals(8, limiter.getLimit());
+        // Запрос, отправленный до снижения, лимит повторно не снижает
+        limiter.onDropped(started);
+        Assertions.assertEquals(8, limiter.getLimit());
+
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire();
+            limiter.onDropped(System.nanoTime());
+        }
+        Assertions.assertEquals(2, limiter.getLimit());
+        Assertions.assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void testDecreasesOnSlowResponse() throws InterruptedException {
+        AimdLimiter limiter = new AimdLimiter(10, 1, 20, 0.5, SLOW);
+        limiter.tryAcquire();
+        long started = System.nanoTime();
+        Thread.sleep(5);
+
+        limiter.onSuccess(started);
+
+        Assertions.assertEquals(5, limiter.getLimit());
+    }
+
+    @Test
+    void testRejectsInvalidParameters() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new AimdLimiter(5, 0, 10, 0.5, SLOW));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new AimdLimiter(20, 1, 10, 0.5, SLOW));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new AimdLimiter(5, 1, 10, 1, SLOW));
+    }
+}
@@ -0,0 +1,61 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class CachingTransportTest {
+
+    private static final byte[] BODY = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+
+    private final AtomicInteger gets = new AtomicInteger();
+    private final ResponseCache responseCache = new ResponseCache(100);
+    private final CachingTransport transport = new CachingTransport("/items", this::exchange, responseCache);
+
+    @Test
+    void testGetIsServedFromCacheUntilWriteInvalidatesIt() {
+        Assertions.assertEquals(HttpStatus.OK, get("/1", 1L).getStatusCode());
+        Assertions.assertEquals(HttpStatus.OK, get("/1", 1L).getStatusCode());
+        Assertions.assertEquals(1, gets.get());
+
+        ResponseEntity<Object> patched = transport.exchange(HttpMethod.PATCH, "/1", 1L, null, Map.of()).block();
+
+        // Сброс кэша - внутренний сигнал сервера для шлюза, клиент его не получает
+        Assertions.assertFalse(patched.getHeaders().containsKey(ResponseCache.INVALIDATE_HEADER));
+        Assertions.assertEquals("\"v1\"", patched.getHeaders().getETag());
+        get("/1", 1L);
+        Assertions.assertEquals(2, gets.get());
+    }
+
+    @Test
+    void testGetWithParametersIsNotCached() {
+        transport.exchange(HttpMethod.GET, "/search?text={text}", 1L, Map.of("text", "дрель"), null).block();
+        transport.exchange(HttpMethod.GET, "/search?text={text}", 1L, Map.of("text", "дрель"), null).block();
+
+        Assertions.assertEquals(2, gets.get());
+    }
+
+    private ResponseEntity<Object> get(String path, long userId) {
+        return transport.exchange(HttpMethod.GET, path, userId, null, null).block();
+    }
+
+    private Mono<ResponseEntity<Object>> exchange(HttpMethod method, String path, Long userId, Map<String, Object> parameters, Object body) {
+        if (method == HttpMethod.GET) {
+            gets.incrementAndGet();
+            return Mono.just(ResponseEntity.ok().eTag("\"v1\"").header(HttpHeaders.CACHE_CONTROL, "max-age=30").body((Object) BODY));
+        }
+        return Mono.just(ResponseEntity
+                .ok()
+                .eTag("\"v1\"")
+                .header(ResponseCache.INVALIDATE_HEADER, "/items" + path)
+                .build());
+    }
+}
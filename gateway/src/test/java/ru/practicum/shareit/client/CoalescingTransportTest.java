@@ -0,0 +1,126 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+class CoalescingTransportTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Sinks.One<ResponseEntity<Object>>> calls = new ArrayList<>();
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private final CoalescingTransport transport = new CoalescingTransport("/items", this::exchange, new InFlightRequests(meterRegistry));
+
+    @Test
+    void testConcurrentIdenticalGetsReachServerOnce() {
+        AtomicReference<ResponseEntity<Object>> first = new AtomicReference<>();
+        AtomicReference<ResponseEntity<Object>> second = new AtomicReference<>();
+        get("/1", 1L).subscribe(first::set);
+        get("/1", 1L).subscribe(second::set);
+
+        Assertions.assertEquals(1, calls.size());
+        Assertions.assertEquals(1.0, meterRegistry.get("shareit.server.coalesced").counter().count());
+        calls.get(0).tryEmitValue(ResponseEntity.ok().body("item"));
+
+        Assertions.assertEquals("item", first.get().getBody());
+        Assertions.assertSame(first.get(), second.get());
+        Assertions.assertEquals(0.0, active());
+    }
+
+    @Test
+    void testDifferentUsersAndParametersAreNotShared() {
+        get("/1", 1L).subscribe();
+        get("/1", 2L).subscribe();
+        get("/1", null).subscribe();
+        transport.exchange(HttpMethod.GET, "/search?text={text}", 1L, Map.of("text", "дрель"), null).subscribe();
+        transport.exchange(HttpMethod.GET, "/search?text={text}", 1L, Map.of("text", "пила"), null).subscribe();
+
+        Assertions.assertEquals(5, calls.size());
+        Assertions.assertEquals(5.0, active());
+    }
+
+    @Test
+    void testWritesAreNotCoalesced() {
+        transport.exchange(HttpMethod.PATCH, "/1", 1L, null, Map.of()).subscribe();
+        transport.exchange(HttpMethod.PATCH, "/1", 1L, null, Map.of()).subscribe();
+
+        Assertions.assertEquals(2, calls.size());
+        Assertions.assertEquals(0.0, active());
+    }
+
+    @Test
+    void testCancelledWaiterDoesNotCancelOthers() {
+        AtomicReference<ResponseEntity<Object>> remaining = new AtomicReference<>();
+        Disposable leaving = get("/1", 1L).subscribe();
+        get("/1", 1L).subscribe(remaining::set);
+
+        leaving.dispose();
+        Assertions.assertFalse(cancelled.get());
+        calls.get(0).tryEmitValue(ResponseEntity.ok().body("item"));
+
+        Assertions.assertEquals("item", remaining.get().getBody());
+        Assertions.assertEquals(1, calls.size());
+    }
+
+    @Test
+    void testErrorReachesEveryWaiterAndRemovesFlight() {
+        List<Throwable> errors = new ArrayList<>();
+        get("/1", 1L).subscribe(response -> Assertions.fail(), errors::add);
+        get("/1", 1L).subscribe(response -> Assertions.fail(), errors::add);
+
+        IllegalStateException failure = new IllegalStateException("Сервер недоступен.");
+        calls.get(0).tryEmitError(failure);
+
+        Assertions.assertEquals(List.of(failure, failure), errors);
+        Assertions.assertEquals(0.0, active());
+        // Следующий запрос после ошибки уходит на сервер заново
+        get("/1", 1L).subscribe();
+        Assertions.assertEquals(2, calls.size());
+    }
+
+    @Test
+    void testAllWaitersCancellingCancelsServerRequest() {
+        Disposable first = get("/1", 1L).subscribe();
+        Disposable second = get("/1", 1L).subscribe();
+
+        first.dispose();
+        second.dispose();
+
+        Assertions.assertTrue(cancelled.get());
+        Assertions.assertEquals(0.0, active());
+        Assertions.assertEquals(HttpStatus.OK, respondNext(get("/1", 1L)).getStatusCode());
+    }
+
+    private ResponseEntity<Object> respondNext(Mono<ResponseEntity<Object>> response) {
+        AtomicReference<ResponseEntity<Object>> result = new AtomicReference<>();
+        response.subscribe(result::set);
+        calls.get(calls.size() - 1).tryEmitValue(ResponseEntity.ok().build());
+        return result.get();
+    }
+
+    private Mono<ResponseEntity<Object>> get(String path, Long userId) {
+        return transport.exchange(HttpMethod.GET, path, userId, null, null);
+    }
+
+    private double active() {
+        return meterRegistry.get("shareit.server.coalescing.active").gauge().value();
+    }
+
+    private Mono<ResponseEntity<Object>> exchange(HttpMethod method, String path, Long userId, Map<String, Object> parameters, Object body) {
+        Sinks.One<ResponseEntity<Object>> sink = Sinks.one();
+        calls.add(sink);
+        return sink.asMono().doOnCancel(() -> cancelled.set(true));
+    }
+}
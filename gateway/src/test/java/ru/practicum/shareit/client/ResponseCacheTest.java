@@ -0,0 +1,119 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+class ResponseCacheTest {
+
+    private static final String RESOURCE = "/items/1";
+    private static final byte[] BODY = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+
+    private final ResponseCache cache = new ResponseCache(100);
+
+    @Test
+    void testCachesFreshResponseUntilMaxAgeExpires() throws InterruptedException {
+        put(RESOURCE, 1L, response("max-age=1"));
+
+        ResponseEntity<Object> cached = cache.get(RESOURCE, 1L, List.of()).orElseThrow();
+        Assertions.assertEquals(HttpStatus.OK, cached.getStatusCode());
+        Assertions.assertArrayEquals(BODY, (byte[]) cached.getBody());
+        Assertions.assertEquals("\"v1\"", cached.getHeaders().getETag());
+        // Ответ другого пользователя кэшируется отдельно
+        Assertions.assertEquals(Optional.empty(), cache.get(RESOURCE, 2L, List.of()));
+
+        Thread.sleep(1_100);
+        Assertions.assertEquals(Optional.empty(), cache.get(RESOURCE, 1L, List.of()));
+    }
+
+    @Test
+    void testDoesNotCacheResponsesWithoutFreshness() {
+        put(RESOURCE, 1L, response("no-cache"));
+        put("/items/2", 1L, ResponseEntity.ok().header(HttpHeaders.CACHE_CONTROL, "max-age=30").body((Object) BODY));
+
+        Assertions.assertEquals(Optional.empty(), cache.get(RESOURCE, 1L, List.of()));
+        Assertions.assertEquals(Optional.empty(), cache.get("/items/2", 1L, List.of()));
+    }
+
+    @Test
+    void testIfNoneMatchReturnsNotModified() {
+        ResponseEntity<Object> stored = put(RESOURCE, 1L, response("max-age=30"), List.of("W/\"v1\""));
+        Assertions.assertEquals(HttpStatus.NOT_MODIFIED, stored.getStatusCode());
+
+        ResponseEntity<Object> cached = cache.get(RESOURCE, 1L, List.of("\"v0\"", "W/\"v1\"")).orElseThrow();
+        Assertions.assertEquals(HttpStatus.NOT_MODIFIED, cached.getStatusCode());
+        Assertions.assertEquals("\"v1\"", cached.getHeaders().getETag());
+        Assertions.assertNull(cached.getBody());
+
+        Assertions.assertEquals(HttpStatus.OK, cache.get(RESOURCE, 1L, List.of("\"v0\"")).orElseThrow().getStatusCode());
+    }
+
+    @Test
+    void testInvalidateRemovesResourceForAllUsers() {
+        put(RESOURCE, 1L, response("max-age=30"));
+        put(RESOURCE, 2L, response("max-age=30"));
+        put("/items/2", 1L, response("max-age=30"));
+
+        cache.invalidate(invalidate(RESOURCE));
+
+        Assertions.assertEquals(Optional.empty(), cache.get(RESOURCE, 1L, List.of()));
+        Assertions.assertEquals(Optional.empty(), cache.get(RESOURCE, 2L, List.of()));
+        Assertions.assertTrue(cache.get("/items/2", 1L, List.of()).isPresent());
+    }
+
+    @Test
+    void testResponseLoadedBeforeInvalidationIsNotCached() {
+        long version = cache.startLoading(RESOURCE);
+        // Изменение зафиксировано, пока запрос к серверу ещё выполнялся
+        cache.invalidate(invalidate(RESOURCE));
+        ResponseEntity<Object> response = cache.put(RESOURCE, 1L, response("max-age=30"), List.of(), version);
+        cache.finishLoading(RESOURCE);
+
+        // Ответ отдаётся ожидающему клиенту, но в кэш не попадает
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Assertions.assertEquals(Optional.empty(), cache.get(RESOURCE, 1L, List.of()));
+
+        // Загрузка после сброса кэшируется как обычно
+        put(RESOURCE, 1L, response("max-age=30"));
+        Assertions.assertTrue(cache.get(RESOURCE, 1L, List.of()).isPresent());
+    }
+
+    @Test
+    void testInvalidationOfOtherResourceDoesNotAffectLoading() {
+        long version = cache.startLoading(RESOURCE);
+        cache.invalidate(invalidate("/items/2"));
+        cache.put(RESOURCE, 1L, response("max-age=30"), List.of(), version);
+        cache.finishLoading(RESOURCE);
+
+        Assertions.assertTrue(cache.get(RESOURCE, 1L, List.of()).isPresent());
+    }
+
+    private ResponseEntity<Object> put(String resource, long userId, ResponseEntity<Object> response) {
+        return put(resource, userId, response, List.of());
+    }
+
+    private ResponseEntity<Object> put(String resource, long userId, ResponseEntity<Object> response, List<String> ifNoneMatch) {
+        long version = cache.startLoading(resource);
+        try {
+            return cache.put(resource, userId, response, ifNoneMatch, version);
+        } finally {
+            cache.finishLoading(resource);
+        }
+    }
+
+    private static ResponseEntity<Object> response(String cacheControl) {
+        return ResponseEntity.ok().eTag("\"v1\"").header(HttpHeaders.CACHE_CONTROL, cacheControl).body((Object) BODY);
+    }
+
+    private static HttpHeaders invalidate(String resource) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(ResponseCache.INVALIDATE_HEADER, resource);
+        return headers;
+    }
+}
@@ -0,0 +1,118 @@
+package ru.practicum.shareit.client;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.exception.handler.ErrorHandler;
+import ru.practicum.shareit.exception.server.ServerOverloadedException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class ServerProtectionTest {
+
+    private final ServerProtectionProperties properties = new ServerProtectionProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ErrorHandler errorHandler = new ErrorHandler();
+
+    @Test
+    void testGroupUsesPathSegmentOnlyWithOwnBulkhead() {
+        properties.getBulkheads().put("items-search", 20);
+        ServerProtection protection = new ServerProtection(properties, meterRegistry);
+
+        Assertions.assertEquals("items-search", protection.group("/items", "/search?text={text}"));
+        Assertions.assertEquals("items", protection.group("/items", "/1"));
+        Assertions.assertEquals("items", protection.group("/items", ""));
+    }
+
+    @Test
+    void testFullBulkheadRejectsWithServiceUnavailable() {
+        properties.getBulkheads().put("items-search", 1);
+        ServerProtection protection = new ServerProtection(properties, meterRegistry);
+        Disposable running = protection.protect("items-search", Mono::never).subscribe();
+
+        BulkheadFullException exception = Assertions.assertThrows(
+                BulkheadFullException.class,
+                () -> protection.protect("items-search", () -> Mono.just(ResponseEntity.ok().build())).block()
+        );
+        assertServiceUnavailable(errorHandler.handleServerUnavailable(exception));
+        Assertions.assertEquals(1, rejected("items-search", "bulkhead"));
+        // Другая группа изолирована от заполненной
+        Assertions.assertEquals(HttpStatus.OK, protection.protect("items", () -> Mono.just(ResponseEntity.ok().build())).block().getStatusCode());
+
+        // Отменённый запрос освобождает место
+        running.dispose();
+        Assertions.assertEquals(HttpStatus.OK, protection.protect("items-search", () -> Mono.just(ResponseEntity.ok().build())).block().getStatusCode());
+    }
+
+    @Test
+    void testLimiterRejectsWithServiceUnavailable() {
+        properties.getLimiter().setInitialLimit(1);
+        properties.getLimiter().setMinLimit(1);
+        ServerProtection protection = new ServerProtection(properties, meterRegistry);
+        Disposable running = protection.protect("items", Mono::never).subscribe();
+
+        ServerOverloadedException exception = Assertions.assertThrows(
+                ServerOverloadedException.class,
+                () -> protection.protect("users", () -> Mono.just(ResponseEntity.ok().build())).block()
+        );
+        assertServiceUnavailable(errorHandler.handleServerUnavailable(exception));
+        Assertions.assertEquals(1, rejected("users", "limiter"));
+        running.dispose();
+    }
+
+    @Test
+    void testOpenCircuitBreakerRejectsCallsOfItsGroupOnly() {
+        properties.getCircuitBreaker().setSlidingWindowSize(4);
+        properties.getCircuitBreaker().setMinimumNumberOfCalls(4);
+        properties.getCircuitBreaker().setWaitInOpenState(Duration.ofMinutes(1));
+        ServerProtection protection = new ServerProtection(properties, meterRegistry);
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 4; i++) {
+            ResponseEntity<Object> response = protection.protect("bookings", () -> {
+                calls.incrementAndGet();
+                return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
+            }).block();
+            Assertions.assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        }
+
+        CallNotPermittedException exception = Assertions.assertThrows(
+                CallNotPermittedException.class,
+                () -> protection.protect("bookings", () -> {
+                    calls.incrementAndGet();
+                    return Mono.just(ResponseEntity.ok().build());
+                }).block()
+        );
+        Assertions.assertEquals(4, calls.get());
+        assertServiceUnavailable(errorHandler.handleServerUnavailable(exception));
+        Assertions.assertEquals(1, rejected("bookings", "circuit-breaker"));
+        Assertions.assertEquals(HttpStatus.OK, protection.protect("items", () -> Mono.just(ResponseEntity.ok().build())).block().getStatusCode());
+    }
+
+    @Test
+    void testServerErrorsLowerLimit() {
+        ServerProtection protection = new ServerProtection(properties, meterRegistry);
+
+        protection.protect("items", () -> Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build())).block();
+
+        Assertions.assertEquals(45.0, meterRegistry.get("shareit.server.concurrency.limit").gauge().value());
+        Assertions.assertEquals(0.0, meterRegistry.get("shareit.server.concurrency.active").gauge().value());
+    }
+
+    private double rejected(String group, String reason) {
+        return meterRegistry.get("shareit.server.rejected").tag("group", group).tag("reason", reason).counter().count();
+    }
+
+    private static void assertServiceUnavailable(ResponseEntity<String> response) {
+        Assertions.assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        Assertions.assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+}
@@ -0,0 +1,136 @@
+package ru.practicum.shareit.load;
+
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItGatewayApp;
+import ru.practicum.shareit.client.ServerTransportFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Сравнение блокирующего и неблокирующего проксирования под одинаковой нагрузкой.
+// Запуск: mvn -pl gateway test-compile, затем main() этого класса с тестовым classpath.
+// Аргументы: число запросов, число одновременных запросов, задержка сервера в мс, число потоков Tomcat.
+public class GatewayLoadHarness {
+
+    private static final byte[] USER = "{\"id\":1,\"name\":\"Stub\",\"email\":\"stub@mail.ru\"}".getBytes(StandardCharsets.UTF_8);
+
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        int delayMillis = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+        int tomcatThreads = args.length > 3 ? Integer.parseInt(args[3]) : 50;
+
+        HttpServer server = startStubServer(delayMillis);
+        try {
+            for (String mode : new String[]{ServerTransportFactory.BLOCKING, ServerTransportFactory.REACTIVE}) {
+                run(mode, server.getAddress().getPort(), requests, concurrency, tomcatThreads);
+            }
+        } finally {
+            server.stop(0);
+            ((ExecutorService) server.getExecutor()).shutdownNow();
+        }
+    }
+
+    // Заглушка сервера ShareIt отвечает на любой запрос после фиксированной задержки
+    private static HttpServer startStubServer(int delayMillis) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 4096);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", exchange -> {
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, USER.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(USER);
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private static void run(String mode, int serverPort, int requests, int concurrency, int tomcatThreads) throws Exception {
+        // Аргументы командной строки перекрывают application.properties, в отличие от properties() билдера
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(ShareItGatewayApp.class).run(
+                "--server.port=0",
+                "--shareit-server.url=http://localhost:" + serverPort,
+                "--shareit-server.transport=" + mode,
+                "--server.tomcat.threads.max=" + tomcatThreads,
+                "--server.tomcat.max-connections=" + (concurrency * 2),
+                "--logging.level.ru.practicum.shareit=WARN",
+                "--logging.level.org.springframework.web.client.RestTemplate=WARN"
+        );
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(4);
+        try {
+            URI uri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/users/1");
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(clientExecutor)
+                    .build();
+            load(client, uri, Math.min(requests, 1_000), concurrency);
+            long[] latencies = new long[requests];
+            long started = System.nanoTime();
+            int errors = load(client, uri, latencies, concurrency);
+            long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            Arrays.sort(latencies);
+            System.out.printf(
+                    "%s: %d запросов за %d мс, %d запросов/с, p50 %.1f мс, p99 %.1f мс, ошибок %d%n",
+                    mode,
+                    requests,
+                    elapsedMillis,
+                    requests * 1000L / elapsedMillis,
+                    percentile(latencies, 0.50),
+                    percentile(latencies, 0.99),
+                    errors
+            );
+        } finally {
+            clientExecutor.shutdownNow();
+            context.close();
+        }
+    }
+
+    private static int load(HttpClient client, URI uri, int requests, int concurrency) throws InterruptedException {
+        return load(client, uri, new long[requests], concurrency);
+    }
+
+    private static int load(HttpClient client, URI uri, long[] latencies, int concurrency) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(concurrency);
+        AtomicInteger errors = new AtomicInteger();
+        HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+        for (int i = 0; i < latencies.length; i++) {
+            inFlight.acquire();
+            int index = i;
+            long started = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, throwable) -> {
+                latencies[index] = System.nanoTime() - started;
+                if (throwable != null || response.statusCode() != 200) {
+                    errors.incrementAndGet();
+                }
+                inFlight.release();
+            });
+        }
+        inFlight.acquire(concurrency);
+        return errors.get();
+    }
+
+    private static double percentile(long[] sortedLatencies, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(0, index)] / 1_000_000.0;
+    }
+}
@@ -2,11 +2,17 @@ package ru.practicum.shareit.booking.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.dto.BookingBatchResult;
 import ru.practicum.shareit.booking.model.dto.BookingDto;
+import ru.practicum.shareit.booking.model.dto.BookingPage;
 import ru.practicum.shareit.booking.model.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.model.dto.StandardBookingDto;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.http.HttpCaching;
+import ru.practicum.shareit.http.HttpPaging;
 
 import java.util.List;
 
@@ -18,21 +24,45 @@ public class BookingController {
 
     private final BookingService service;
 
+    // Бронирования меняют последнее и следующее бронирование в карточке вещи
     @PostMapping
-    public BookingDto create(
+    public ResponseEntity<BookingDto> create(
             @RequestHeader("X-Sharer-User-Id") long userId,
             @RequestBody BookingRequestDto createBookingDto) {
         log.info("Выполнен запрос POST /bookings.");
-        return service.create(userId, createBookingDto);
+        BookingDto booking = service.create(userId, createBookingDto);
+        return ResponseEntity.ok().headers(HttpCaching.invalidate(HttpCaching.item(createBookingDto.getItemId()))).body(booking);
     }
 
     @PatchMapping("/{bookingId}")
-    public BookingDto update(
+    public ResponseEntity<BookingDto> update(
             @RequestHeader("X-Sharer-User-Id") long ownerId,
             @PathVariable long bookingId,
             @RequestParam(required = true, name = "approved") boolean approved) {
         log.info("Выполнен запрос PATCH /bookings/{}?approved={}.", bookingId, approved);
-        return service.update(ownerId, bookingId, approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
+        BookingDto booking = service.update(ownerId, bookingId, approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
+        if (booking instanceof StandardBookingDto && ((StandardBookingDto) booking).getItem() != null) {
+            long itemId = ((StandardBookingDto) booking).getItem().getId();
+            return ResponseEntity.ok().headers(HttpCaching.invalidate(HttpCaching.item(itemId))).body(booking);
+        }
+        return ResponseEntity.ok(booking);
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<BookingBatchResult>> createAll(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestBody List<BookingRequestDto> createBookingDtos) {
+        log.info("Выполнен запрос POST /bookings/batch на {} бронирований.", createBookingDtos.size());
+        return toBatchResponse(service.createAll(userId, createBookingDtos));
+    }
+
+    @PatchMapping("/batch")
+    public ResponseEntity<List<BookingBatchResult>> updateAll(
+            @RequestHeader("X-Sharer-User-Id") long ownerId,
+            @RequestParam(required = true, name = "approved") boolean approved,
+            @RequestBody List<Long> bookingIds) {
+        log.info("Выполнен запрос PATCH /bookings/batch?approved={} на {} бронирований.", approved, bookingIds.size());
+        return toBatchResponse(service.updateAll(ownerId, bookingIds, approved ? BookingStatus.APPROVED : BookingStatus.REJECTED));
     }
 
     @GetMapping("/{bookingId}")
@@ -42,22 +72,44 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<BookingDto> getAllByBooker(
+    public ResponseEntity<List<BookingDto>> getAllByBooker(
             @RequestHeader("X-Sharer-User-Id") long bookerId,
             @RequestParam(name = "state", required = false, defaultValue = "ALL") String status,
             @RequestParam(name = "from", required = false, defaultValue = "0") int from,
-            @RequestParam(name = "size", required = false, defaultValue = "5") int size) {
+            @RequestParam(name = "size", required = false, defaultValue = "5") int size,
+            @RequestParam(name = "cursor", required = false) String cursor) {
+        if (cursor != null) {
+            log.info("Выполнен запрос GET /bookings?state={}&cursor={}&size={}.", status, cursor, size);
+            BookingPage page = service.getPageByBooker(bookerId, status, cursor, size);
+            return HttpPaging.page(page.getBookings(), page.getNextCursor());
+        }
         log.info("Выполнен запрос GET /bookings?state={}&from={}&size={}.", status, from, size);
-        return service.getAllByBooker(bookerId, status, from, size);
+        return ResponseEntity.ok(service.getAllByBooker(bookerId, status, from, size));
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> getAllByOwner(
+    public ResponseEntity<List<BookingDto>> getAllByOwner(
             @RequestHeader("X-Sharer-User-Id") long ownerId,
             @RequestParam(required = false, name = "state", defaultValue = "ALL") String status,
             @RequestParam(name = "from", required = false, defaultValue = "0") int from,
-            @RequestParam(name = "size", required = false, defaultValue = "5") int size) {
+            @RequestParam(name = "size", required = false, defaultValue = "5") int size,
+            @RequestParam(name = "cursor", required = false) String cursor) {
+        if (cursor != null) {
+            log.info("Выполнен запрос GET /bookings/owner?state={}&cursor={}&size={}.", status, cursor, size);
+            BookingPage page = service.getPageByOwner(ownerId, status, cursor, size);
+            return HttpPaging.page(page.getBookings(), page.getNextCursor());
+        }
         log.info("Выполнен запрос GET /bookings/owner?state={}&from={}&size={}.", status, from, size);
-        return service.getAllByOwner(ownerId, status, from, size);
+        return ResponseEntity.ok(service.getAllByOwner(ownerId, status, from, size));
     }
-}
\ No newline at end of file
+
+    // Сбрасываются карточки вещей, у которых изменились бронирования
+    private static ResponseEntity<List<BookingBatchResult>> toBatchResponse(List<BookingBatchResult> results) {
+        String[] items = results
+                .stream()
+                .filter(result -> result.getBooking() != null && result.getBooking().getItem() != null)
+                .map(result -> HttpCaching.item(result.getBooking().getItem().getId()))
+                .distinct()
+                .toArray(String[]::new);
+        return ResponseEntity.ok().headers(HttpCaching.invalidate(items)).body(results);
+    }}
@@ -0,0 +1,128 @@
+package ru.practicum.shareit.booking.index;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.dto.ShortBookingDto;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.datasource.PrimaryReads;
+import ru.practicum.shareit.outbox.ChangeEventListener;
+import ru.practicum.shareit.outbox.data.AggregateType;
+import ru.practicum.shareit.outbox.data.ChangeEvent;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Component
+public class BookingIntervalIndex implements ChangeEventListener {
+
+    private final BookingRepository bookingRepository;
+    private final PrimaryReads primaryReads;
+    private final Map<Long, ItemIntervals> intervals;
+    // Загрузки вещей, которые выполняются сейчас. Сброс вещи меняет версию её загрузки, и снимок, прочитанный
+    // до фиксации изменений, в кэш не попадает. Сбросы других вещей загрузку не затрагивают.
+    private final Map<Long, Loading> loadings = new HashMap<>();
+
+    public BookingIntervalIndex(
+            BookingRepository bookingRepository,
+            PrimaryReads primaryReads,
+            @Value("${shareit.booking.interval-index.max-items:10000}") int maxItems) {
+        this.bookingRepository = bookingRepository;
+        this.primaryReads = primaryReads;
+        this.intervals = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ItemIntervals> eldest) {
+                return size() > maxItems;
+            }
+        };
+    }
+
+    public Optional<ShortBookingDto> findLast(long itemId, LocalDateTime now) {
+        return Optional.ofNullable(get(itemId).last(now));
+    }
+
+    public Optional<ShortBookingDto> findNext(long itemId, LocalDateTime now) {
+        return Optional.ofNullable(get(itemId).next(now));
+    }
+
+    // Проверка только по уже загруженному снимку, без запроса к БД: без снимка период занятым не считается
+    public boolean isTaken(long itemId, LocalDateTime start, LocalDateTime end) {
+        ItemIntervals cached;
+        synchronized (intervals) {
+            cached = intervals.get(itemId);
+        }
+        return cached != null && !cached.isFree(start, end);
+    }
+
+    public void invalidate(long itemId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(itemId);
+                }
+            });
+        } else {
+            evict(itemId);
+        }
+    }
+
+    // Изменения бронирований из outbox сбрасывают кэш и на тех экземплярах сервера, где бронирование не менялось
+    @Override
+    public void onChanges(List<ChangeEvent> events) {
+        events
+                .stream()
+                .filter(event -> event.getAggregateType() == AggregateType.BOOKING)
+                .map(event -> event.getPayload().path("item").path("id").asLong())
+                .distinct()
+                .forEach(this::evict);
+    }
+
+    private ItemIntervals get(long itemId) {
+        Loading loading;
+        long version;
+        synchronized (intervals) {
+            ItemIntervals cached = intervals.get(itemId);
+            if (cached != null) {
+                return cached;
+            }
+            loading = loadings.computeIfAbsent(itemId, id -> new Loading());
+            loading.loaders++;
+            version = loading.version;
+        }
+        ItemIntervals loaded = null;
+        try {
+            loaded = primaryReads.call(() -> ItemIntervals.of(bookingRepository.findAllIntervalsByItemId(itemId)));
+            return loaded;
+        } finally {
+            synchronized (intervals) {
+                if (loaded != null && loading.version == version) {
+                    intervals.put(itemId, loaded);
+                }
+                if (--loading.loaders == 0) {
+                    loadings.remove(itemId);
+                }
+            }
+        }
+    }
+
+    private void evict(long itemId) {
+        synchronized (intervals) {
+            intervals.remove(itemId);
+            Loading loading = loadings.get(itemId);
+            if (loading != null) {
+                loading.version++;
+            }
+        }
+    }
+
+    private static class Loading {
+        private long version;
+        private int loaders;
+    }
+}
@@ -0,0 +1,111 @@
+package ru.practicum.shareit.booking.index;
+
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.dto.ShortBookingDto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+// Неизменяемый снимок бронирований одной вещи, упорядоченных по началу
+final class ItemIntervals {
+
+    private final long[] starts;
+    private final long[] ids;
+    private final long[] bookerIds;
+    // Начала активных бронирований и максимум их окончаний на префиксе
+    private final long[] activeStarts;
+    private final long[] activeMaxEnds;
+
+    private ItemIntervals(long[] starts, long[] ids, long[] bookerIds, long[] activeStarts, long[] activeMaxEnds) {
+        this.starts = starts;
+        this.ids = ids;
+        this.bookerIds = bookerIds;
+        this.activeStarts = activeStarts;
+        this.activeMaxEnds = activeMaxEnds;
+    }
+
+    static ItemIntervals of(List<Booking> bookings) {
+        int size = bookings.size();
+        long[] starts = new long[size];
+        long[] ids = new long[size];
+        long[] bookerIds = new long[size];
+        long[] activeStarts = new long[size];
+        long[] activeMaxEnds = new long[size];
+        int active = 0;
+        long maxEnd = Long.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            Booking booking = bookings.get(i);
+            starts[i] = toMicros(booking.getStart());
+            ids[i] = booking.getId();
+            bookerIds[i] = booking.getBooker().getId();
+            if (booking.getStatus() == BookingStatus.WAITING || booking.getStatus() == BookingStatus.APPROVED) {
+                maxEnd = Math.max(maxEnd, toMicros(booking.getEnd()));
+                activeStarts[active] = starts[i];
+                activeMaxEnds[active] = maxEnd;
+                active++;
+            }
+        }
+        return new ItemIntervals(
+                starts,
+                ids,
+                bookerIds,
+                Arrays.copyOf(activeStarts, active),
+                Arrays.copyOf(activeMaxEnds, active)
+        );
+    }
+
+    ShortBookingDto last(LocalDateTime now) {
+        int index = upperBound(starts, toMicros(now)) - 1;
+        return index >= 0 ? new ShortBookingDto(ids[index], bookerIds[index]) : null;
+    }
+
+    ShortBookingDto next(LocalDateTime now) {
+        int index = upperBound(starts, toMicros(now));
+        return index < starts.length ? new ShortBookingDto(ids[index], bookerIds[index]) : null;
+    }
+
+    // Период [start, end) свободен, если ни одно активное бронирование, начавшееся раньше end, не заканчивается позже start
+    boolean isFree(LocalDateTime start, LocalDateTime end) {
+        int index = lowerBound(activeStarts, toMicros(end)) - 1;
+        return index < 0 || activeMaxEnds[index] <= toMicros(start);
+    }
+
+    int size() {
+        return starts.length;
+    }
+
+    private static int upperBound(long[] values, long key) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] <= key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int lowerBound(long[] values, long key) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static long toMicros(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + dateTime.getNano() / 1_000;
+    }
+}
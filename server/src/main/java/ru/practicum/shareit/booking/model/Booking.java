@@ -5,6 +5,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import org.hibernate.Hibernate;
 import ru.practicum.shareit.item.data.Item;
+import ru.practicum.shareit.persistence.IdSequences;
 import ru.practicum.shareit.user.data.User;
 
 import javax.persistence.*;
@@ -20,7 +21,8 @@ import java.util.Objects;
 public class Booking implements Serializable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = IdSequences.ALLOCATION_SIZE)
     private Long id;
 
     @Column(name = "start_date", nullable = false)
@@ -29,7 +31,7 @@ public class Booking implements Serializable {
     @Column(name = "end_date", nullable = false)
     private LocalDateTime end;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "item_id", nullable = false)
     private Item item;
 
@@ -37,7 +39,7 @@ public class Booking implements Serializable {
     @Enumerated(EnumType.STRING)
     private BookingStatus status;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "booker_id")
     private User booker;
 
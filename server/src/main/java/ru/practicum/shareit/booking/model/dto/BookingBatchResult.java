@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Итог одной записи пакетного запроса: статус как у одиночного запроса и бронирование либо текст ошибки
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingBatchResult {
+    private int status;
+    private StandardBookingDto booking;
+    private String error;
+}
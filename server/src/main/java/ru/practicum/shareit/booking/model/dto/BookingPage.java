@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingPage {
+    private List<BookingDto> bookings;
+    private String nextCursor;
+}
@@ -0,0 +1,8 @@
+package ru.practicum.shareit.booking.model.dto;
+
+public interface CommentEligibility {
+
+    boolean getBooked();
+
+    boolean getStarted();
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking.model.dto;
+
+public interface ItemBookingSummary {
+
+    String LAST = "LAST";
+    String NEXT = "NEXT";
+
+    Long getId();
+
+    Long getBookerId();
+
+    Long getItemId();
+
+    String getKind();
+}
@@ -2,59 +2,116 @@ package ru.practicum.shareit.booking.repository;
 
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.dto.CommentEligibility;
+import ru.practicum.shareit.booking.model.dto.ItemBookingSummary;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
-    @Query("SELECT b FROM Booking AS b WHERE b.booker.id = ?1")
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item WHERE b.id = ?1")
+    Optional<Booking> findWithItemById(long bookingId);
+
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item WHERE b.id IN ?1")
+    List<Booking> findAllWithItemByIdIn(Collection<Long> bookingIds);
+
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item JOIN FETCH b.booker WHERE b.booker.id = ?1")
     List<Booking> findAllByBooker(long bookerId, PageRequest sort);
 
-    @Query("SELECT b FROM Booking AS b WHERE b.booker.id = ?1 AND b.status = :#{#status}")
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item JOIN FETCH b.booker WHERE b.booker.id = ?1 AND b.status = :#{#status}")
     List<Booking> findAllByBookerAndStatus(long bookerId, @Param("status") BookingStatus status, PageRequest sort);
 
-    @Query("SELECT b FROM Booking AS b WHERE b.booker.id = ?1 AND b.end < CURRENT_TIMESTAMP")
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item JOIN FETCH b.booker WHERE b.booker.id = ?1 AND b.end < CURRENT_TIMESTAMP")
     List<Booking> findAllPastByBooker(long bookerId, PageRequest sort);
 
-    @Query("SELECT b FROM Booking AS b WHERE b.booker.id = ?1 AND CURRENT_TIMESTAMP BETWEEN b.start AND b.end")
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item JOIN FETCH b.booker WHERE b.booker.id = ?1 AND CURRENT_TIMESTAMP BETWEEN b.start AND b.end")
     List<Booking> findAllCurrentByBooker(long bookerId, PageRequest sort);
 
-    @Query("SELECT b FROM Booking AS b WHERE b.booker.id = ?1 AND b.start > CURRENT_TIMESTAMP")
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item JOIN FETCH b.booker WHERE b.booker.id = ?1 AND b.start > CURRENT_TIMESTAMP")
     List<Booking> findAllFutureByBooker(long bookerId, PageRequest sort);
 
-    @Query("SELECT b FROM Booking AS b INNER JOIN Item AS i ON b.item.id = i.id WHERE i.ownerId = ?1")
-    List<Booking> findAllByOwner(long ownerId, Sort sort);
-
-    @Query("SELECT b FROM Booking AS b INNER JOIN Item AS i ON b.item.id = i.id WHERE i.ownerId = ?1")
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item AS i JOIN FETCH b.booker WHERE i.ownerId = ?1")
     List<Booking> findAllByOwner(long ownerId, Pageable pageable);
 
-    @Query("SELECT b FROM Booking AS b INNER JOIN Item AS i ON b.item.id = i.id WHERE i.ownerId = ?1 AND b.status = :#{#status}")
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item AS i JOIN FETCH b.booker WHERE i.ownerId = ?1 AND b.status = :#{#status}")
     List<Booking> findAllByOwnerAndStatus(long ownerId, @Param("status") BookingStatus status, PageRequest sort);
 
-    @Query("SELECT b FROM Booking AS b INNER JOIN Item AS i ON b.item.id = i.id WHERE i.ownerId = ?1 AND b.end < CURRENT_TIMESTAMP")
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item AS i JOIN FETCH b.booker WHERE i.ownerId = ?1 AND b.end < CURRENT_TIMESTAMP")
     List<Booking> findAllPastByOwner(long ownerId, PageRequest sort);
 
-    @Query("SELECT b FROM Booking AS b INNER JOIN Item AS i ON b.item.id = i.id WHERE i.ownerId = ?1 AND CURRENT_TIMESTAMP BETWEEN b.start AND b.end")
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item AS i JOIN FETCH b.booker WHERE i.ownerId = ?1 AND CURRENT_TIMESTAMP BETWEEN b.start AND b.end")
     List<Booking> findAllCurrentByOwner(long ownerId, PageRequest sort);
 
-    @Query("SELECT b FROM Booking AS b INNER JOIN Item AS i ON b.item.id = i.id WHERE i.ownerId = ?1 AND b.start > CURRENT_TIMESTAMP")
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item AS i JOIN FETCH b.booker WHERE i.ownerId = ?1 AND b.start > CURRENT_TIMESTAMP")
     List<Booking> findAllFutureByOwner(long ownerId, PageRequest sort);
 
-    @Query("SELECT b FROM Booking AS b INNER JOIN Item AS i ON b.item.id = i.id WHERE b.item.id = ?1 AND b.start <= CURRENT_TIMESTAMP AND i.ownerId = ?2")
-    List<Booking> getLastByItemId(long itemId, long ownerId, Sort sort);
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item JOIN FETCH b.booker WHERE b.booker.id = ?1 AND (b.start < ?2 OR (b.start = ?2 AND b.id < ?3)) ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllByBookerBefore(long bookerId, LocalDateTime start, long id, Pageable pageable);
+
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item JOIN FETCH b.booker WHERE b.booker.id = ?1 AND b.status = ?2 AND (b.start < ?3 OR (b.start = ?3 AND b.id < ?4)) ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllByBookerAndStatusBefore(long bookerId, BookingStatus status, LocalDateTime start, long id, Pageable pageable);
+
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item JOIN FETCH b.booker WHERE b.booker.id = ?1 AND b.end < CURRENT_TIMESTAMP AND (b.start < ?2 OR (b.start = ?2 AND b.id < ?3)) ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllPastByBookerBefore(long bookerId, LocalDateTime start, long id, Pageable pageable);
+
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item JOIN FETCH b.booker WHERE b.booker.id = ?1 AND CURRENT_TIMESTAMP BETWEEN b.start AND b.end AND (b.start < ?2 OR (b.start = ?2 AND b.id < ?3)) ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllCurrentByBookerBefore(long bookerId, LocalDateTime start, long id, Pageable pageable);
+
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item JOIN FETCH b.booker WHERE b.booker.id = ?1 AND b.start > CURRENT_TIMESTAMP AND (b.start < ?2 OR (b.start = ?2 AND b.id < ?3)) ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllFutureByBookerBefore(long bookerId, LocalDateTime start, long id, Pageable pageable);
+
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item AS i JOIN FETCH b.booker WHERE i.ownerId = ?1 AND (b.start < ?2 OR (b.start = ?2 AND b.id < ?3)) ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllByOwnerBefore(long ownerId, LocalDateTime start, long id, Pageable pageable);
+
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item AS i JOIN FETCH b.booker WHERE i.ownerId = ?1 AND b.status = ?2 AND (b.start < ?3 OR (b.start = ?3 AND b.id < ?4)) ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllByOwnerAndStatusBefore(long ownerId, BookingStatus status, LocalDateTime start, long id, Pageable pageable);
+
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item AS i JOIN FETCH b.booker WHERE i.ownerId = ?1 AND b.end < CURRENT_TIMESTAMP AND (b.start < ?2 OR (b.start = ?2 AND b.id < ?3)) ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllPastByOwnerBefore(long ownerId, LocalDateTime start, long id, Pageable pageable);
+
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item AS i JOIN FETCH b.booker WHERE i.ownerId = ?1 AND CURRENT_TIMESTAMP BETWEEN b.start AND b.end AND (b.start < ?2 OR (b.start = ?2 AND b.id < ?3)) ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllCurrentByOwnerBefore(long ownerId, LocalDateTime start, long id, Pageable pageable);
+
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item AS i JOIN FETCH b.booker WHERE i.ownerId = ?1 AND b.start > CURRENT_TIMESTAMP AND (b.start < ?2 OR (b.start = ?2 AND b.id < ?3)) ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllFutureByOwnerBefore(long ownerId, LocalDateTime start, long id, Pageable pageable);
+
+    @Query("SELECT b FROM Booking AS b WHERE b.item.id = ?1 ORDER BY b.start, b.id")
+    List<Booking> findAllIntervalsByItemId(long itemId);
+
+    // Обе проверки - поиск первой подходящей строки по idx_bookings_item_start, а не загрузка списков бронирований
+    @Query(value = "SELECT "
+            + "EXISTS (SELECT 1 FROM bookings AS b WHERE b.item_id = :itemId AND b.status <> 'REJECTED') AS booked, "
+            + "EXISTS (SELECT 1 FROM bookings AS b WHERE b.item_id = :itemId AND b.start_date <= :now) AS started",
+            nativeQuery = true)
+    CommentEligibility findCommentEligibility(@Param("itemId") long itemId, @Param("now") LocalDateTime now);
+
+    @Query("SELECT CASE WHEN COUNT(b) > 0 THEN TRUE ELSE FALSE END FROM Booking AS b "
+            + "WHERE b.item.id = ?1 AND b.status IN ?2 AND b.start < ?4 AND b.end > ?3")
+    boolean existsOverlapping(long itemId, Collection<BookingStatus> statuses, LocalDateTime start, LocalDateTime end);
 
-    @Query("SELECT b FROM Booking AS b INNER JOIN Item AS i ON b.item.id = i.id WHERE b.item.id = ?1 AND b.end > CURRENT_TIMESTAMP AND i.ownerId = ?2")
-    List<Booking> getNextByItemId(long itemId, long ownerId, Sort sort);
+    @Query("SELECT CASE WHEN COUNT(b) > 0 THEN TRUE ELSE FALSE END FROM Booking AS b "
+            + "WHERE b.id <> ?1 AND b.item.id = ?2 AND b.status IN ?3 AND b.start < ?5 AND b.end > ?4")
+    boolean existsOtherOverlapping(long bookingId, long itemId, Collection<BookingStatus> statuses, LocalDateTime start, LocalDateTime end);
 
-    @Query("SELECT b FROM Booking AS b WHERE b.item.id = ?1 AND b.status != :#{#status}")
-    List<Booking> findAllByItemIdAndStatus(long itemId, @Param("status") BookingStatus status);
+    @Query("SELECT b FROM Booking AS b WHERE b.item.id IN ?1 AND b.status IN ?2 AND b.start < ?4 AND b.end > ?3")
+    List<Booking> findAllOverlapping(Collection<Long> itemIds, Collection<BookingStatus> statuses, LocalDateTime start, LocalDateTime end);
 
-    @Query("SELECT b FROM Booking AS b WHERE b.item.id = ?1 AND b.start <= CURRENT_TIMESTAMP")
-    List<Booking> findAllCurrentByItemId(long itemId);
-}
\ No newline at end of file
+    @Query(value = "SELECT r.id AS id, r.booker_id AS bookerId, r.item_id AS itemId, r.kind AS kind FROM ("
+            + "SELECT b.id, b.booker_id, b.item_id, 'LAST' AS kind, "
+            + "ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY b.start_date DESC, b.id DESC) AS rn "
+            + "FROM bookings AS b WHERE b.item_id IN (:itemIds) AND b.start_date <= :now "
+            + "UNION ALL "
+            + "SELECT b.id, b.booker_id, b.item_id, 'NEXT' AS kind, "
+            + "ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY b.start_date ASC, b.id ASC) AS rn "
+            + "FROM bookings AS b WHERE b.item_id IN (:itemIds) AND b.start_date > :now"
+            + ") AS r WHERE r.rn = 1", nativeQuery = true)
+    List<ItemBookingSummary> findLastAndNextByItemIds(@Param("itemIds") Collection<Long> itemIds, @Param("now") LocalDateTime now);
+}
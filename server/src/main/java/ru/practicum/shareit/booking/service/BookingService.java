@@ -1,7 +1,9 @@
 package ru.practicum.shareit.booking.service;
 
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.dto.BookingBatchResult;
 import ru.practicum.shareit.booking.model.dto.BookingDto;
+import ru.practicum.shareit.booking.model.dto.BookingPage;
 import ru.practicum.shareit.booking.model.dto.BookingRequestDto;
 
 import java.util.List;
@@ -12,9 +14,17 @@ public interface BookingService {
 
     BookingDto update(long ownerId, long bookingId, BookingStatus status);
 
+    List<BookingBatchResult> createAll(long userId, List<BookingRequestDto> createBookingDtos);
+
+    List<BookingBatchResult> updateAll(long ownerId, List<Long> bookingIds, BookingStatus status);
+
     BookingDto get(long userId, long bookingId);
 
     List<BookingDto> getAllByBooker(long userId, String state, int from, int size);
 
     List<BookingDto> getAllByOwner(long ownerId, String status, int from, int size);
+
+    BookingPage getPageByBooker(long bookerId, String status, String cursor, int size);
+
+    BookingPage getPageByOwner(long ownerId, String status, String cursor, int size);
 }
\ No newline at end of file
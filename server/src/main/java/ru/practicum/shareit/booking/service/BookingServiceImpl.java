@@ -2,30 +2,40 @@ package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang3.EnumUtils;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.dto.BookingBatchResult;
 import ru.practicum.shareit.booking.model.dto.BookingDto;
+import ru.practicum.shareit.booking.model.dto.BookingPage;
 import ru.practicum.shareit.booking.model.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.model.mapper.BookingMapper;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.event.data.UserEvent;
 import ru.practicum.shareit.exception.UnsupportedStateException;
 import ru.practicum.shareit.exception.booking.BookingBadRequestException;
+import ru.practicum.shareit.exception.booking.BookingConflictException;
 import ru.practicum.shareit.exception.booking.BookingNotFoundException;
+import ru.practicum.shareit.exception.handler.ErrorHandler;
 import ru.practicum.shareit.exception.item.ItemBadRequestException;
 import ru.practicum.shareit.exception.item.ItemNotFoundException;
-import ru.practicum.shareit.exception.user.UserNotFoundException;
 import ru.practicum.shareit.item.data.Item;
-import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.outbox.OutboxWriter;
+import ru.practicum.shareit.outbox.data.AggregateType;
+import ru.practicum.shareit.outbox.data.ChangeType;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.user.data.User;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.validation.EntityValidator;
 
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -34,24 +44,28 @@ import java.util.stream.Collectors;
 public class BookingServiceImpl implements BookingService {
 
     private static final String ALL = "ALL";
+    private static final Set<BookingStatus> ACTIVE_STATUSES = EnumSet.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+    private static final int MAX_BATCH_SIZE = 100;
+    private static final Sort KEYSET_SORT = Sort.by(Sort.Direction.DESC, "start").and(Sort.by(Sort.Direction.DESC, "id"));
 
     private final BookingRepository bookingRepository;
-    private final UserRepository userRepository;
-    private final ItemRepository itemRepository;
+    private final EntityValidator entityValidator;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxWriter outboxWriter;
 
     @Transactional
     @Override
     public BookingDto create(long userId, BookingRequestDto createBookingDto) {
         // Проверки
-        checkIfUserExists(userId);
-        checkIfItemExists(createBookingDto.getItemId());
-        checkIfItemAvailable(createBookingDto.getItemId());
+        User booker = entityValidator.getExistingUser(userId);
+        checkIfPeriodIsKnownTaken(createBookingDto.getItemId(), createBookingDto.getStart(), createBookingDto.getEnd());
+        // Блокировка строки вещи упорядочивает параллельные бронирования одной вещи до конца транзакции
+        Item item = entityValidator.getExistingItemForUpdate(createBookingDto.getItemId());
+        checkIfItemAvailable(item);
         checkCorrectDateTimePeriod(createBookingDto.getStart(), createBookingDto.getEnd());
-        // Получить пользователя
-        User booker = userRepository.getReferenceById(userId);
-        // Получить вещь для бронирования
-        Item item = itemRepository.getReferenceById(createBookingDto.getItemId());
         checkUserOwnItem(item.getOwnerId(), booker.getId());
+        checkIfPeriodIsFree(item.getId(), createBookingDto.getStart(), createBookingDto.getEnd());
         // Сформировать бронирование
         Booking booking = BookingMapper.fromBookingRequestDto(createBookingDto);
         booking.setItem(item);
@@ -59,31 +73,95 @@ public class BookingServiceImpl implements BookingService {
         booking.setBooker(booker);
         // Сохранить бронирование в БД
         Booking createdBooking = bookingRepository.save(booking);
-        return BookingMapper.toStandardBookingDto(createdBooking);
+        bookingIntervalIndex.invalidate(item.getId());
+        BookingDto bookingDto = BookingMapper.toStandardBookingDto(createdBooking);
+        outboxWriter.append(AggregateType.BOOKING, createdBooking.getId(), ChangeType.CREATED, bookingDto);
+        return bookingDto;
     }
 
     @Transactional
     @Override
     public BookingDto update(long ownerId, long bookingId, BookingStatus status) {
         // Проверки
-        checkIfUserExists(ownerId);
-        checkIfBookingExists(bookingId);
-        // Получить бронирование
-        Booking booking = bookingRepository.getReferenceById(bookingId);
+        entityValidator.checkIfUserExists(ownerId);
+        // Получить бронирование вместе с вещью
+        Booking booking = entityValidator.getExistingBookingWithItem(bookingId);
         // Проверить владельца вещи
         checkCorrectItemOwner(ownerId, booking.getItem().getOwnerId());
         // Изменить статус бронирования и сохранить
-        if (booking.getStatus().equals(BookingStatus.APPROVED)) {
-            throw new BookingBadRequestException(String.format("Статус бронирования %d уже подтверждён.", bookingId));
-        }
+        checkNotApproved(booking);
+        checkIfPeriodIsFreeForStatus(booking, status);
         booking.setStatus(status);
-        return BookingMapper.toStandardBookingDto(booking);
+        bookingIntervalIndex.invalidate(booking.getItem().getId());
+        eventPublisher.publishEvent(UserEvent.bookingStatusChanged(booking));
+        BookingDto bookingDto = BookingMapper.toStandardBookingDto(booking);
+        outboxWriter.append(AggregateType.BOOKING, booking.getId(), ChangeType.UPDATED, bookingDto);
+        return bookingDto;
+    }
+
+    // Записи пакета проверяются по отдельности на данных, выбранных для всего пакета сразу.
+    // Отклонённая запись не мешает остальным, а принятые вставляются в БД пакетами JDBC при фиксации транзакции.
+    @Transactional
+    @Override
+    public List<BookingBatchResult> createAll(long userId, List<BookingRequestDto> createBookingDtos) {
+        checkBatchSize(createBookingDtos.size());
+        User booker = entityValidator.getExistingUser(userId);
+        Set<Long> itemIds = createBookingDtos
+                .stream()
+                .map(BookingRequestDto::getItemId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Item> items = entityValidator.getExistingItemsForUpdate(itemIds);
+        Map<Long, List<Booking>> activeBookings = findAllActiveOverlapping(items.keySet(), createBookingDtos);
+        List<BookingBatchResult> results = new ArrayList<>(createBookingDtos.size());
+        for (BookingRequestDto createBookingDto : createBookingDtos) {
+            Booking booking;
+            try {
+                booking = prepareBooking(booker, createBookingDto, items, activeBookings);
+            } catch (RuntimeException exception) {
+                results.add(toFailedResult(exception));
+                continue;
+            }
+            // Следующие записи пакета не могут занять тот же период
+            activeBookings.computeIfAbsent(booking.getItem().getId(), itemId -> new ArrayList<>()).add(booking);
+            results.add(toResult(bookingRepository.save(booking), ChangeType.CREATED));
+        }
+        items.keySet().forEach(bookingIntervalIndex::invalidate);
+        return results;
+    }
+
+    @Transactional
+    @Override
+    public List<BookingBatchResult> updateAll(long ownerId, List<Long> bookingIds, BookingStatus status) {
+        checkBatchSize(bookingIds.size());
+        entityValidator.checkIfUserExists(ownerId);
+        Map<Long, Booking> bookings = bookingRepository
+                .findAllWithItemByIdIn(bookingIds.stream().filter(Objects::nonNull).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        List<BookingBatchResult> results = new ArrayList<>(bookingIds.size());
+        for (Long bookingId : bookingIds) {
+            try {
+                Booking booking = getBatchBooking(bookingId, bookings);
+                checkCorrectItemOwner(ownerId, booking.getItem().getOwnerId());
+                checkNotApproved(booking);
+                checkIfPeriodIsFreeForStatus(booking, status);
+                // Изменённые статусы уходят в БД пакетом UPDATE при фиксации транзакции
+                booking.setStatus(status);
+                bookingIntervalIndex.invalidate(booking.getItem().getId());
+                eventPublisher.publishEvent(UserEvent.bookingStatusChanged(booking));
+                results.add(toResult(booking, ChangeType.UPDATED));
+            } catch (RuntimeException exception) {
+                results.add(toFailedResult(exception));
+            }
+        }
+        return results;
     }
 
     @Override
     public BookingDto get(long userId, long bookingId) {
         // Проверки
-        checkIfUserExists(userId);
+        entityValidator.checkIfUserExists(userId);
         // Получить бронирование
         Optional<Booking> bookingOptional = bookingRepository.findById(bookingId);
         if (bookingOptional.isPresent()) {
@@ -98,10 +176,10 @@ public class BookingServiceImpl implements BookingService {
     @Override
     public List<BookingDto> getAllByBooker(long bookerId, String status, int from, int size) {
         // Проверка
-        checkIfUserExists(bookerId);
+        entityValidator.checkIfUserExists(bookerId);
         if (EnumUtils.isValidEnum(BookingStatus.class, status)) {
             BookingStatus bookingStatus = EnumUtils.getEnum(BookingStatus.class, status);
-            return findAllByBookerAndStatus(bookerId, bookingStatus, from, size);
+            return toBookingDtos(findAllByBookerAndStatus(bookerId, bookingStatus, page(from, size, Sort.by(Sort.Direction.DESC, "start"))));
         } else {
             throw new UnsupportedStateException("Unknown state: UNSUPPORTED_STATUS");
         }
@@ -110,30 +188,42 @@ public class BookingServiceImpl implements BookingService {
     @Override
     public List<BookingDto> getAllByOwner(long ownerId, String status, int from, int size) {
         // Проверка
-        checkIfUserExists(ownerId);
+        entityValidator.checkIfUserExists(ownerId);
         if (EnumUtils.isValidEnum(BookingStatus.class, status)) {
             BookingStatus bookingStatus = EnumUtils.getEnum(BookingStatus.class, status);
-            return findAllByOwnerAndStatus(ownerId, bookingStatus, from, size);
+            return toBookingDtos(findAllByOwnerAndStatus(ownerId, bookingStatus, page(from, size, Sort.by(Sort.Direction.DESC, "start"))));
         } else {
             throw new UnsupportedStateException("Unknown state: UNSUPPORTED_STATUS");
         }
     }
 
-    private void checkIfUserExists(long userId) {
-        if (!userRepository.existsById(userId)) {
-            throw new UserNotFoundException(String.format("Пользователь с идентификатором %d не найден.", userId));
-        }
+    @Override
+    public BookingPage getPageByBooker(long bookerId, String status, String cursor, int size) {
+        // Проверка
+        entityValidator.checkIfUserExists(bookerId);
+        BookingStatus bookingStatus = parseStatus(status);
+        KeysetCursor bookingCursor = KeysetCursor.decode(cursor, BookingBadRequestException::new);
+        List<Booking> bookings = bookingCursor == null
+                ? findAllByBookerAndStatus(bookerId, bookingStatus, PageRequest.of(0, size, KEYSET_SORT))
+                : findAllByBookerAndStatusBefore(bookerId, bookingStatus, bookingCursor, PageRequest.ofSize(size));
+        return toBookingPage(bookings, size);
     }
 
-    private void checkIfItemExists(long itemId) {
-        if (!itemRepository.existsById(itemId)) {
-            throw new ItemNotFoundException(String.format("Вещь с идентификатором %d не найдена.", itemId));
-        }
+    @Override
+    public BookingPage getPageByOwner(long ownerId, String status, String cursor, int size) {
+        // Проверка
+        entityValidator.checkIfUserExists(ownerId);
+        BookingStatus bookingStatus = parseStatus(status);
+        KeysetCursor bookingCursor = KeysetCursor.decode(cursor, BookingBadRequestException::new);
+        List<Booking> bookings = bookingCursor == null
+                ? findAllByOwnerAndStatus(ownerId, bookingStatus, PageRequest.of(0, size, KEYSET_SORT))
+                : findAllByOwnerAndStatusBefore(ownerId, bookingStatus, bookingCursor, PageRequest.ofSize(size));
+        return toBookingPage(bookings, size);
     }
 
-    private void checkIfItemAvailable(long itemId) {
-        if (!itemRepository.getReferenceById(itemId).getAvailable()) {
-            throw new ItemBadRequestException(String.format("Вещь с идентификатором %d не доступна.", itemId));
+    private void checkIfItemAvailable(Item item) {
+        if (!item.getAvailable()) {
+            throw new ItemBadRequestException(String.format("Вещь с идентификатором %d не доступна.", item.getId()));
         }
     }
 
@@ -146,10 +236,107 @@ public class BookingServiceImpl implements BookingService {
         }
     }
 
-    private void checkIfBookingExists(long bookingId) {
-        if (!bookingRepository.existsById(bookingId)) {
-            throw new BookingNotFoundException(String.format("Бронирование с идентификатором %d не найдено.", bookingId));
+    // Заведомо занятый период отклоняется по снимку интервалов, не вставая в очередь за блокировкой строки вещи.
+    // Свободный по снимку период всё равно проверяется в БД под блокировкой.
+    private void checkIfPeriodIsKnownTaken(long itemId, LocalDateTime start, LocalDateTime end) {
+        if (start.isBefore(end) && bookingIntervalIndex.isTaken(itemId, start, end)) {
+            throw periodIsTaken(itemId);
+        }
+    }
+
+    private void checkIfPeriodIsFree(long itemId, LocalDateTime start, LocalDateTime end) {
+        if (bookingRepository.existsOverlapping(itemId, ACTIVE_STATUSES, start, end)) {
+            throw periodIsTaken(itemId);
+        }
+    }
+
+    // Отклонённое бронирование не занимает период: пока оно было отклонено, период могли забронировать заново
+    private void checkIfPeriodIsFreeForStatus(Booking booking, BookingStatus status) {
+        if (!ACTIVE_STATUSES.contains(status) || ACTIVE_STATUSES.contains(booking.getStatus())) {
+            return;
+        }
+        long itemId = booking.getItem().getId();
+        entityValidator.getExistingItemForUpdate(itemId);
+        if (bookingRepository.existsOtherOverlapping(booking.getId(), itemId, ACTIVE_STATUSES, booking.getStart(), booking.getEnd())) {
+            throw periodIsTaken(itemId);
+        }
+    }
+
+    private void checkNotApproved(Booking booking) {
+        if (booking.getStatus().equals(BookingStatus.APPROVED)) {
+            throw new BookingBadRequestException(String.format("Статус бронирования %d уже подтверждён.", booking.getId()));
+        }
+    }
+
+    private void checkBatchSize(int size) {
+        if (size == 0 || size > MAX_BATCH_SIZE) {
+            throw new BookingBadRequestException(String.format("В пакете должно быть от 1 до %d записей.", MAX_BATCH_SIZE));
+        }
+    }
+
+    // Те же проверки, что и при создании одного бронирования, но без запросов к БД
+    private Booking prepareBooking(User booker, BookingRequestDto createBookingDto, Map<Long, Item> items, Map<Long, List<Booking>> activeBookings) {
+        if (createBookingDto.getItemId() == null || createBookingDto.getStart() == null || createBookingDto.getEnd() == null) {
+            throw new BookingBadRequestException("Не указаны вещь или период бронирования.");
+        }
+        Item item = items.get(createBookingDto.getItemId());
+        if (item == null) {
+            throw EntityValidator.itemNotFound(createBookingDto.getItemId());
+        }
+        checkIfItemAvailable(item);
+        checkCorrectDateTimePeriod(createBookingDto.getStart(), createBookingDto.getEnd());
+        checkUserOwnItem(item.getOwnerId(), booker.getId());
+        boolean overlaps = activeBookings
+                .getOrDefault(item.getId(), List.of())
+                .stream()
+                .anyMatch(booking -> booking.getStart().isBefore(createBookingDto.getEnd()) && booking.getEnd().isAfter(createBookingDto.getStart()));
+        if (overlaps) {
+            throw periodIsTaken(item.getId());
+        }
+        Booking booking = BookingMapper.fromBookingRequestDto(createBookingDto);
+        booking.setItem(item);
+        booking.setStatus(BookingStatus.WAITING);
+        booking.setBooker(booker);
+        return booking;
+    }
+
+    private Booking getBatchBooking(Long bookingId, Map<Long, Booking> bookings) {
+        if (bookingId == null) {
+            throw new BookingBadRequestException("Не указан идентификатор бронирования.");
+        }
+        Booking booking = bookings.get(bookingId);
+        if (booking == null) {
+            throw EntityValidator.bookingNotFound(bookingId);
         }
+        return booking;
+    }
+
+    // Действующие бронирования вещей пакета, пересекающие общий период всех его записей
+    private Map<Long, List<Booking>> findAllActiveOverlapping(Collection<Long> itemIds, List<BookingRequestDto> createBookingDtos) {
+        Map<Long, List<Booking>> bookings = new HashMap<>();
+        Optional<LocalDateTime> start = createBookingDtos.stream().map(BookingRequestDto::getStart).filter(Objects::nonNull).min(Comparator.naturalOrder());
+        Optional<LocalDateTime> end = createBookingDtos.stream().map(BookingRequestDto::getEnd).filter(Objects::nonNull).max(Comparator.naturalOrder());
+        if (itemIds.isEmpty() || start.isEmpty() || end.isEmpty()) {
+            return bookings;
+        }
+        bookingRepository
+                .findAllOverlapping(itemIds, ACTIVE_STATUSES, start.get(), end.get())
+                .forEach(booking -> bookings.computeIfAbsent(booking.getItem().getId(), itemId -> new ArrayList<>()).add(booking));
+        return bookings;
+    }
+
+    private static BookingConflictException periodIsTaken(long itemId) {
+        return new BookingConflictException(String.format("Вещь с идентификатором %d уже забронирована на указанный период.", itemId));
+    }
+
+    private BookingBatchResult toResult(Booking booking, ChangeType changeType) {
+        BookingBatchResult result = new BookingBatchResult(HttpStatus.OK.value(), BookingMapper.toStandardBookingDto(booking), null);
+        outboxWriter.append(AggregateType.BOOKING, booking.getId(), changeType, result.getBooking());
+        return result;
+    }
+
+    private static BookingBatchResult toFailedResult(RuntimeException exception) {
+        return new BookingBatchResult(ErrorHandler.statusOf(exception).value(), null, exception.getMessage());
     }
 
     private void checkCorrectItemOwner(long expectedOwnerId, long actualOwnerId) {
@@ -164,9 +351,8 @@ public class BookingServiceImpl implements BookingService {
         }
     }
 
-    private List<BookingDto> findAllByBookerAndStatus(long bookerId, BookingStatus status, int from, int size) {
+    private List<Booking> findAllByBookerAndStatus(long bookerId, BookingStatus status, PageRequest pageRequest) {
         List<Booking> bookings;
-        PageRequest pageRequest = page(from, size, Sort.by(Sort.Direction.DESC, "start"));
         switch (status) {
             case ALL:
                 bookings = bookingRepository.findAllByBooker(bookerId, pageRequest);
@@ -184,12 +370,11 @@ public class BookingServiceImpl implements BookingService {
                 bookings = bookingRepository.findAllByBookerAndStatus(bookerId, status, pageRequest);
                 break;
         }
-        return bookings.stream().map(BookingMapper::toStandardBookingDto).collect(Collectors.toList());
+        return bookings;
     }
 
-    private List<BookingDto> findAllByOwnerAndStatus(long ownerId, BookingStatus status, int from, int size) {
+    private List<Booking> findAllByOwnerAndStatus(long ownerId, BookingStatus status, PageRequest pageRequest) {
         List<Booking> bookings;
-        PageRequest pageRequest = page(from, size, Sort.by(Sort.Direction.DESC, "start"));
         switch (status) {
             case ALL:
                 bookings = bookingRepository.findAllByOwner(ownerId, pageRequest);
@@ -207,9 +392,64 @@ public class BookingServiceImpl implements BookingService {
                 bookings = bookingRepository.findAllByOwnerAndStatus(ownerId, status, pageRequest);
                 break;
         }
+        return bookings;
+    }
+
+    private List<Booking> findAllByBookerAndStatusBefore(long bookerId, BookingStatus status, KeysetCursor cursor, PageRequest pageRequest) {
+        LocalDateTime start = cursor.getTimestamp();
+        long id = cursor.getId();
+        switch (status) {
+            case ALL:
+                return bookingRepository.findAllByBookerBefore(bookerId, start, id, pageRequest);
+            case PAST:
+                return bookingRepository.findAllPastByBookerBefore(bookerId, start, id, pageRequest);
+            case CURRENT:
+                return bookingRepository.findAllCurrentByBookerBefore(bookerId, start, id, pageRequest);
+            case FUTURE:
+                return bookingRepository.findAllFutureByBookerBefore(bookerId, start, id, pageRequest);
+            default:
+                return bookingRepository.findAllByBookerAndStatusBefore(bookerId, status, start, id, pageRequest);
+        }
+    }
+
+    private List<Booking> findAllByOwnerAndStatusBefore(long ownerId, BookingStatus status, KeysetCursor cursor, PageRequest pageRequest) {
+        LocalDateTime start = cursor.getTimestamp();
+        long id = cursor.getId();
+        switch (status) {
+            case ALL:
+                return bookingRepository.findAllByOwnerBefore(ownerId, start, id, pageRequest);
+            case PAST:
+                return bookingRepository.findAllPastByOwnerBefore(ownerId, start, id, pageRequest);
+            case CURRENT:
+                return bookingRepository.findAllCurrentByOwnerBefore(ownerId, start, id, pageRequest);
+            case FUTURE:
+                return bookingRepository.findAllFutureByOwnerBefore(ownerId, start, id, pageRequest);
+            default:
+                return bookingRepository.findAllByOwnerAndStatusBefore(ownerId, status, start, id, pageRequest);
+        }
+    }
+
+    private static BookingStatus parseStatus(String status) {
+        if (EnumUtils.isValidEnum(BookingStatus.class, status)) {
+            return EnumUtils.getEnum(BookingStatus.class, status);
+        }
+        throw new UnsupportedStateException("Unknown state: UNSUPPORTED_STATUS");
+    }
+
+    private static List<BookingDto> toBookingDtos(List<Booking> bookings) {
         return bookings.stream().map(BookingMapper::toStandardBookingDto).collect(Collectors.toList());
     }
 
+    // Курсор следующей страницы выдаётся, только если текущая страница заполнена целиком
+    private static BookingPage toBookingPage(List<Booking> bookings, int size) {
+        String nextCursor = bookings.size() == size ? encodeCursor(bookings.get(size - 1)) : null;
+        return new BookingPage(toBookingDtos(bookings), nextCursor);
+    }
+
+    private static String encodeCursor(Booking booking) {
+        return new KeysetCursor(booking.getStart(), booking.getId()).encode();
+    }
+
     private static PageRequest page(int from, int size, Sort sort) {
         return PageRequest.of(from > 0 ? from / size : 0, size, sort);
     }
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String USERS = "users";
+    public static final String USER_EXISTS = "userExists";
+
+    // Сброс и запись в кэш выполняются только после фиксации транзакции
+    @Bean
+    public CacheManager cacheManager(@Value("${shareit.cache.users.spec}") String spec) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(USERS, USER_EXISTS);
+        cacheManager.setCacheSpecification(spec);
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+@Configuration
+public class HttpCacheConfig {
+
+    // ETag считается по телу ответа, на совпавший If-None-Match отдаётся 304 без тела
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> etagFilter() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration = new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        registration.addUrlPatterns("/users/*", "/items/*", "/requests/*");
+        return registration;
+    }
+}
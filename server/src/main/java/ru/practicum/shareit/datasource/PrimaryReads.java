@@ -0,0 +1,43 @@
+package ru.practicum.shareit.datasource;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+// Загрузки в кэши процесса читают из основной БД: ответ отстающей реплики пережил бы сброс кэша после изменения
+// и отдавался бы до вытеснения. Если соединение транзакции ещё не выбрано, вся транзакция уходит на основную БД,
+// если оно уже взято с реплики - загрузка выполняется в отдельной транзакции.
+@Component
+public class PrimaryReads {
+
+    private static final ThreadLocal<Boolean> REQUESTED = new ThreadLocal<>();
+
+    private final TransactionTemplate primaryTransaction;
+
+    public PrimaryReads(PlatformTransactionManager transactionManager) {
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.primaryTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public <T> T call(Supplier<T> loader) {
+        if (ReadWriteRoutingDataSource.isCurrentTransactionOnReplica()) {
+            return primaryTransaction.execute(status -> loader.get());
+        }
+        if (REQUESTED.get() != null) {
+            return loader.get();
+        }
+        REQUESTED.set(Boolean.TRUE);
+        try {
+            return loader.get();
+        } finally {
+            REQUESTED.remove();
+        }
+    }
+
+    static boolean isRequested() {
+        return REQUESTED.get() != null;
+    }
+}
@@ -0,0 +1,143 @@
+package ru.practicum.shareit.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Соединение транзакции readOnly берётся с реплики, все остальные - с основной БД, в том числе запросы вне транзакции
+// (nextval писателя комментариев, чтение outbox). Признак readOnly известен только после начала транзакции,
+// поэтому источник оборачивается в LazyConnectionDataSourceProxy и выбирается при первом запросе к БД.
+// Загрузки в кэши через PrimaryReads тоже идут в основную БД.
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements MeterBinder, AutoCloseable {
+
+    static final String PRIMARY = "primary";
+    // Ресурс транзакции, соединение которой взято с реплики
+    private static final Object REPLICA_TRANSACTION = new Object();
+
+    private final List<HikariDataSource> replicas;
+    private final ReplicaProperties.Balancing balancing;
+    private final ReadYourWritesGuard guard;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Map<Object, LongAdder> routed = new HashMap<>();
+
+    public ReadWriteRoutingDataSource(
+            DataSource primary,
+            List<HikariDataSource> replicas,
+            ReplicaProperties.Balancing balancing,
+            ReadYourWritesGuard guard) {
+        this.replicas = replicas;
+        this.balancing = balancing;
+        this.guard = guard;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicas.forEach(replica -> targets.put(replica.getPoolName(), replica));
+        targets.keySet().forEach(key -> routed.put(key, new LongAdder()));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    // Метрики подключаются после создания источника: реестр метрик сам зависит от всех источников данных
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        routed.forEach((key, count) -> FunctionCounter
+                .builder("shareit.datasource.routed", count, LongAdder::sum)
+                .tag("target", key.toString())
+                .register(registry));
+        MicrometerMetricsTrackerFactory metricsTrackerFactory = new MicrometerMetricsTrackerFactory(registry);
+        replicas
+                .stream()
+                .filter(replica -> replica.getHikariPoolMXBean() == null)
+                .forEach(replica -> replica.setMetricsTrackerFactory(metricsTrackerFactory));
+    }
+
+    // Пулы реплик создаются вместе с источником и закрываются вместе с ним
+    @Override
+    public void close() {
+        replicas.forEach(HikariDataSource::close);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Object key = lookupKey();
+        routed.get(key).increment();
+        if (!PRIMARY.equals(key)) {
+            markReplicaTransaction();
+        }
+        return key;
+    }
+
+    static boolean isCurrentTransactionOnReplica() {
+        return TransactionSynchronizationManager.hasResource(REPLICA_TRANSACTION);
+    }
+
+    private Object lookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || guard.isPinned()
+                || PrimaryReads.isRequested()) {
+            return PRIMARY;
+        }
+        return chooseReplica().getPoolName();
+    }
+
+    private static void markReplicaTransaction() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive() || isCurrentTransactionOnReplica()) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(REPLICA_TRANSACTION, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void suspend() {
+                TransactionSynchronizationManager.unbindResource(REPLICA_TRANSACTION);
+            }
+
+            @Override
+            public void resume() {
+                TransactionSynchronizationManager.bindResource(REPLICA_TRANSACTION, Boolean.TRUE);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(REPLICA_TRANSACTION);
+            }
+        });
+    }
+
+    private HikariDataSource chooseReplica() {
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        if (balancing == ReplicaProperties.Balancing.ROUND_ROBIN) {
+            return replicas.get(start);
+        }
+        // Обход начинается со следующей по кругу реплики, поэтому равнозагруженные реплики чередуются
+        HikariDataSource leastLoaded = null;
+        int leastActive = Integer.MAX_VALUE;
+        for (int i = 0; i < replicas.size(); i++) {
+            HikariDataSource replica = replicas.get((start + i) % replicas.size());
+            int active = activeConnections(replica);
+            if (active < leastActive) {
+                leastLoaded = replica;
+                leastActive = active;
+            }
+        }
+        return leastLoaded;
+    }
+
+    private static int activeConnections(HikariDataSource replica) {
+        HikariPoolMXBean pool = replica.getHikariPoolMXBean();
+        return pool == null ? 0 : pool.getActiveConnections();
+    }
+}
@@ -0,0 +1,73 @@
+package ru.practicum.shareit.datasource;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Пользователь запроса берётся из X-Sharer-User-Id. Изменяющий запрос закрепляет его чтения за основной БД
+// до выполнения запроса: ответ может уйти клиенту до выхода из фильтра, и следующий запрос клиента не должен
+// попасть на реплику раньше, чем появится закрепление. После запроса окно отсчитывается заново от его завершения.
+// Изменение /users/{id} закрепляет и пользователя из пути: шлюз передаёт такие запросы без заголовка.
+@RequiredArgsConstructor
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final Set<String> SAFE_METHODS = Set.of(HttpMethod.GET.name(), HttpMethod.HEAD.name(), HttpMethod.OPTIONS.name());
+    private static final Pattern USER_PATH = Pattern.compile("/users/(\\d+)/?");
+
+    private final ReadYourWritesGuard guard;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Long userId = parseUserId(request.getHeader(USER_HEADER));
+        Long pathUserId = parsePathUserId(request.getRequestURI().substring(request.getContextPath().length()));
+        boolean write = !SAFE_METHODS.contains(request.getMethod());
+        if (write) {
+            recordWrite(userId, pathUserId);
+        }
+        guard.setCurrentUser(userId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            guard.setCurrentUser(null);
+            if (write) {
+                recordWrite(userId, pathUserId);
+            }
+        }
+    }
+
+    private void recordWrite(Long userId, Long pathUserId) {
+        if (userId != null) {
+            guard.recordWrite(userId);
+        }
+        if (pathUserId != null) {
+            guard.recordWrite(pathUserId);
+        }
+    }
+
+    private static Long parsePathUserId(String path) {
+        Matcher matcher = USER_PATH.matcher(path);
+        return matcher.matches() ? parseUserId(matcher.group(1)) : null;
+    }
+
+    private static Long parseUserId(String header) {
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
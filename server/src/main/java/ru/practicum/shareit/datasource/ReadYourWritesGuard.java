@@ -0,0 +1,39 @@
+package ru.practicum.shareit.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+// Пользователь, который только что что-то изменил, читает из основной БД в течение окна read-your-writes-window,
+// пока реплики не догонят его изменение. Остальные пользователи читают с реплик.
+// Закрепление хранится в памяти экземпляра сервера: чтение, которое попало на другой экземпляр, идёт на реплику.
+// Гарантия чтения своих изменений действует, только если запросы пользователя приходят на один экземпляр.
+public class ReadYourWritesGuard {
+
+    private static final int MAX_WRITERS = 100_000;
+
+    private final ThreadLocal<Long> currentUser = new ThreadLocal<>();
+    private final Cache<Long, Boolean> recentWriters;
+
+    public ReadYourWritesGuard(Duration window) {
+        this.recentWriters = Caffeine.newBuilder().expireAfterWrite(window).maximumSize(MAX_WRITERS).build();
+    }
+
+    public void setCurrentUser(Long userId) {
+        if (userId == null) {
+            currentUser.remove();
+        } else {
+            currentUser.set(userId);
+        }
+    }
+
+    public void recordWrite(long userId) {
+        recentWriters.put(userId, Boolean.TRUE);
+    }
+
+    public boolean isPinned() {
+        Long userId = currentUser.get();
+        return userId != null && recentWriters.getIfPresent(userId) != null;
+    }
+}
@@ -0,0 +1,74 @@
+package ru.practicum.shareit.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+// Включается, только если задана хотя бы одна реплика. Миграции Flyway выполняются на основной БД.
+@Configuration
+@ConditionalOnProperty(prefix = "shareit.datasource", name = "replicas[0].url")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(ReadWriteRoutingDataSource.PRIMARY);
+        return dataSource;
+    }
+
+    @Bean
+    public ReadYourWritesGuard readYourWritesGuard(ReplicaProperties replicaProperties) {
+        return new ReadYourWritesGuard(replicaProperties.getReadYourWritesWindow());
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            DataSourceProperties dataSourceProperties,
+            ReplicaProperties replicaProperties,
+            ReadYourWritesGuard readYourWritesGuard) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (ReplicaProperties.Replica replica : replicaProperties.getReplicas()) {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("replica-" + replicas.size());
+            dataSource.setJdbcUrl(replica.getUrl());
+            dataSource.setUsername(replica.getUsername() != null ? replica.getUsername() : dataSourceProperties.determineUsername());
+            dataSource.setPassword(replica.getPassword() != null ? replica.getPassword() : dataSourceProperties.determinePassword());
+            dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+            dataSource.setReadOnly(true);
+            replicas.add(dataSource);
+        }
+        return new ReadWriteRoutingDataSource(
+                primaryDataSource,
+                replicas,
+                replicaProperties.getBalancing(),
+                readYourWritesGuard
+        );
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readWriteRoutingDataSource);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(ReadYourWritesGuard readYourWritesGuard) {
+        return new FilterRegistrationBean<>(new ReadYourWritesFilter(readYourWritesGuard));
+    }
+}
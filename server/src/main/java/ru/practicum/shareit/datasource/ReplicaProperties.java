@@ -0,0 +1,32 @@
+package ru.practicum.shareit.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Реплики основной БД для чтения в транзакциях readOnly
+@Data
+@ConfigurationProperties(prefix = "shareit.datasource")
+public class ReplicaProperties {
+    private List<Replica> replicas = new ArrayList<>();
+    private Balancing balancing = Balancing.ROUND_ROBIN;
+    // Должно быть больше обычного отставания реплик от основной БД
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+    public enum Balancing {
+        ROUND_ROBIN,
+        LEAST_CONNECTIONS
+    }
+
+    @Data
+    public static class Replica {
+        private String url;
+        // Пользователь и пароль по умолчанию те же, что у основной БД
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
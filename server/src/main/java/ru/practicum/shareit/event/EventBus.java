@@ -0,0 +1,211 @@
+package ru.practicum.shareit.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.event.data.UserEvent;
+import ru.practicum.shareit.event.data.dto.EventDto;
+import ru.practicum.shareit.validation.EntityValidator;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// События пользователя рассылаются всем его открытым потокам SSE.
+// Гарантии:
+// - событие публикуется только после фиксации транзакции, в которой оно возникло;
+// - у каждого потока своя ограниченная очередь, отправка идёт из общего пула и не задерживает публикующий запрос;
+// - поток, очередь которого переполнилась, закрывается: клиент переподключается и перечитывает состояние через GET;
+// - у пользователя не больше max-subscriptions-per-user потоков, при превышении закрывается самый старый;
+// - пустые потоки получают комментарий heartbeat, чтобы шлюз и прокси не закрывали их по таймауту чтения.
+@Slf4j
+@Component
+public class EventBus {
+
+    private static final EventDto HEARTBEAT = new EventDto();
+
+    private final Map<Long, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final EntityValidator entityValidator;
+    private final int bufferSize;
+    private final int maxSubscriptionsPerUser;
+    private final Duration timeout;
+    private final ExecutorService sender;
+    private final ScheduledExecutorService heartbeats;
+    private final Counter dropped;
+
+    public EventBus(
+            EntityValidator entityValidator,
+            MeterRegistry meterRegistry,
+            @Value("${shareit.events.buffer-size:100}") int bufferSize,
+            @Value("${shareit.events.max-subscriptions-per-user:5}") int maxSubscriptionsPerUser,
+            @Value("${shareit.events.sender-threads:4}") int senderThreads,
+            @Value("${shareit.events.timeout:30m}") Duration timeout,
+            @Value("${shareit.events.heartbeat-interval:15s}") Duration heartbeatInterval) {
+        this.entityValidator = entityValidator;
+        this.bufferSize = bufferSize;
+        this.maxSubscriptionsPerUser = maxSubscriptionsPerUser;
+        this.timeout = timeout;
+        this.sender = Executors.newFixedThreadPool(senderThreads, daemon("event-sender"));
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(daemon("event-heartbeat"));
+        this.heartbeats.scheduleAtFixedRate(
+                this::heartbeat,
+                heartbeatInterval.toMillis(),
+                heartbeatInterval.toMillis(),
+                TimeUnit.MILLISECONDS
+        );
+        this.dropped = Counter.builder("shareit.events.dropped").register(meterRegistry);
+        Gauge.builder("shareit.events.subscribers", subscribers, map -> map.values().stream().mapToInt(List::size).sum())
+                .register(meterRegistry);
+    }
+
+    public SseEmitter subscribe(long userId) {
+        entityValidator.checkIfUserExists(userId);
+        return subscribe(userId, new SseEmitter(timeout.toMillis()));
+    }
+
+    SseEmitter subscribe(long userId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(userId, emitter, new ArrayBlockingQueue<>(bufferSize));
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+        List<Subscriber> evicted = new ArrayList<>();
+        subscribers.compute(userId, (id, list) -> {
+            List<Subscriber> userSubscribers = list != null ? list : new CopyOnWriteArrayList<>();
+            userSubscribers.add(subscriber);
+            if (userSubscribers.size() > maxSubscriptionsPerUser) {
+                evicted.add(userSubscribers.remove(0));
+            }
+            return userSubscribers;
+        });
+        evicted.forEach(Subscriber::close);
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserEvent(UserEvent event) {
+        publish(event.getUserId(), event.getEvent());
+    }
+
+    public void publish(long userId, EventDto event) {
+        List<Subscriber> userSubscribers = subscribers.get(userId);
+        if (userSubscribers != null) {
+            userSubscribers.forEach(subscriber -> subscriber.offer(event));
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        heartbeats.shutdownNow();
+        subscribers.values().forEach(list -> list.forEach(Subscriber::close));
+        sender.shutdown();
+    }
+
+    private void heartbeat() {
+        subscribers.values().forEach(list -> list.forEach(subscriber -> subscriber.offer(HEARTBEAT)));
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userId, (id, list) -> {
+            list.remove(subscriber);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger number = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + number.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // Очередь потока разбирает не больше одной задачи пула одновременно, поэтому задач в пуле не больше, чем потоков
+    private class Subscriber {
+
+        private final long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<EventDto> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscriber(long userId, SseEmitter emitter, BlockingQueue<EventDto> queue) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+
+        private void offer(EventDto event) {
+            if (closed.get()) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                // Пропущенный heartbeat не важен: в очереди и так есть что отправить
+                if (event != HEARTBEAT) {
+                    dropped.increment();
+                    log.warn("Поток событий пользователя {} не успевает получать события и закрыт.", userId);
+                    close();
+                }
+                return;
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    sender.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    close();
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                EventDto event;
+                while ((event = queue.poll()) != null) {
+                    send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Клиент отключился или поток уже завершён
+                log.debug("Поток событий пользователя {} закрыт: {}", userId, e.getMessage());
+                close();
+            } finally {
+                scheduled.set(false);
+            }
+            // Событие могло попасть в очередь после её опустошения, но до сброса флага
+            if (!closed.get() && !queue.isEmpty()) {
+                schedule();
+            }
+        }
+
+        private void send(EventDto event) throws IOException {
+            if (event == HEARTBEAT) {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            } else {
+                emitter.send(SseEmitter.event().name(event.getType().name()).data(event, MediaType.APPLICATION_JSON));
+            }
+        }
+
+        private void close() {
+            if (closed.compareAndSet(false, true)) {
+                remove(this);
+                queue.clear();
+                emitter.complete();
+            }
+        }
+    }
+}
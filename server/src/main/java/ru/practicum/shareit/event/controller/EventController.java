@@ -0,0 +1,26 @@
+package ru.practicum.shareit.event.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.event.EventBus;
+
+@RestController
+@Slf4j
+@RequiredArgsConstructor
+@RequestMapping(path = "/events")
+public class EventController {
+
+    private final EventBus eventBus;
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestHeader("X-Sharer-User-Id") long userId) {
+        log.info("Выполнен запрос GET /events.");
+        return eventBus.subscribe(userId);
+    }
+}
@@ -0,0 +1,8 @@
+package ru.practicum.shareit.event.data;
+
+public enum EventType {
+    // На запрос пользователя ответили вещью
+    REQUEST_ANSWERED,
+    // Владелец вещи подтвердил или отклонил бронирование пользователя
+    BOOKING_STATUS_CHANGED
+}
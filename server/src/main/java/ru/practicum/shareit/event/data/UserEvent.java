@@ -0,0 +1,39 @@
+package ru.practicum.shareit.event.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.event.data.dto.EventDto;
+import ru.practicum.shareit.item.data.Item;
+
+import java.time.LocalDateTime;
+
+// Событие для одного пользователя, публикуется сервисами через ApplicationEventPublisher
+@Getter
+@AllArgsConstructor
+public class UserEvent {
+
+    private final long userId;
+    private final EventDto event;
+
+    public static UserEvent requestAnswered(Item item) {
+        return new UserEvent(
+                item.getRequest().getRequester().getId(),
+                new EventDto(EventType.REQUEST_ANSWERED, item.getRequest().getId(), item.getId(), null, null, LocalDateTime.now())
+        );
+    }
+
+    public static UserEvent bookingStatusChanged(Booking booking) {
+        return new UserEvent(
+                booking.getBooker().getId(),
+                new EventDto(
+                        EventType.BOOKING_STATUS_CHANGED,
+                        null,
+                        booking.getItem().getId(),
+                        booking.getId(),
+                        booking.getStatus().name(),
+                        LocalDateTime.now()
+                )
+        );
+    }
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.event.data.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.event.data.EventType;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventDto {
+    private EventType type;
+    private Long requestId;
+    private Long itemId;
+    private Long bookingId;
+    private String status;
+    private LocalDateTime created;
+}
@@ -1,5 +1,9 @@
 package ru.practicum.shareit.exception;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
 public class UnsupportedStateException extends RuntimeException {
 
     public UnsupportedStateException(String message) {
@@ -1,5 +1,9 @@
 package ru.practicum.shareit.exception.booking;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
 public class BookingBadRequestException extends RuntimeException {
 
     public BookingBadRequestException(String message) {
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.exception.booking;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class BookingConflictException extends RuntimeException {
+
+    public BookingConflictException(String message) {
+        super(message);
+    }
+}
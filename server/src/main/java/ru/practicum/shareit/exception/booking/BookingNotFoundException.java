@@ -1,5 +1,9 @@
 package ru.practicum.shareit.exception.booking;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
 public class BookingNotFoundException extends RuntimeException {
 
     public BookingNotFoundException(String message) {
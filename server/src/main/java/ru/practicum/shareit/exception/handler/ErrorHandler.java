@@ -1,18 +1,25 @@
 package ru.practicum.shareit.exception.handler;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import ru.practicum.shareit.booking.controller.BookingController;
+import ru.practicum.shareit.event.controller.EventController;
 import ru.practicum.shareit.exception.UnsupportedStateException;
 import ru.practicum.shareit.exception.booking.BookingBadRequestException;
+import ru.practicum.shareit.exception.booking.BookingConflictException;
 import ru.practicum.shareit.exception.booking.BookingNotFoundException;
+import ru.practicum.shareit.exception.item.CommentWriterUnavailableException;
 import ru.practicum.shareit.exception.item.ItemBadRequestException;
 import ru.practicum.shareit.exception.item.ItemForbiddenException;
 import ru.practicum.shareit.exception.item.ItemNotFoundException;
+import ru.practicum.shareit.exception.request.ItemRequestBadRequestException;
 import ru.practicum.shareit.exception.request.ItemRequestNotFoundException;
 import ru.practicum.shareit.exception.user.CommentBadRequestException;
 import ru.practicum.shareit.exception.user.UserNotFoundException;
@@ -24,7 +31,7 @@ import javax.validation.ConstraintViolationException;
 import java.util.Map;
 
 @Slf4j
-@RestControllerAdvice(assignableTypes = {UserController.class, ItemController.class, BookingController.class, ItemRequestController.class})
+@RestControllerAdvice(assignableTypes = {UserController.class, ItemController.class, BookingController.class, ItemRequestController.class, EventController.class})
 public class ErrorHandler {
 
     @ExceptionHandler
@@ -39,58 +46,38 @@ public class ErrorHandler {
         return new ResponseEntity<>(exception.getMessage(), HttpStatus.BAD_REQUEST);
     }
 
-    @ExceptionHandler
-    private ResponseEntity<String> handleItemBadRequestException(ItemBadRequestException exception) {
-        log.info(exception.getMessage());
-        return new ResponseEntity<>(exception.getMessage(), HttpStatus.BAD_REQUEST);
-    }
-
-    @ExceptionHandler
-    private ResponseEntity<String> handleBookingBadRequestException(BookingBadRequestException exception) {
+    // Статус задан аннотацией @ResponseStatus на классе исключения
+    @ExceptionHandler({
+            ItemBadRequestException.class,
+            BookingBadRequestException.class,
+            CommentBadRequestException.class,
+            ItemRequestBadRequestException.class,
+            BookingConflictException.class,
+            ItemForbiddenException.class,
+            UserNotFoundException.class,
+            ItemNotFoundException.class,
+            BookingNotFoundException.class,
+            ItemRequestNotFoundException.class
+    })
+    private ResponseEntity<String> handleShareItException(RuntimeException exception) {
         log.info(exception.getMessage());
-        return new ResponseEntity<>(exception.getMessage(), HttpStatus.BAD_REQUEST);
+        return new ResponseEntity<>(exception.getMessage(), statusOf(exception));
     }
 
     @ExceptionHandler
     public ResponseEntity<Map<String, String>> handleUnsupportedStateException(UnsupportedStateException exception) {
         log.info(exception.getMessage());
-        return new ResponseEntity<>(Map.of("error", exception.getMessage()), HttpStatus.BAD_REQUEST);
-    }
-
-    @ExceptionHandler
-    public ResponseEntity<String> handleCommentBadRequestException(CommentBadRequestException exception) {
-        log.info(exception.getMessage());
-        return new ResponseEntity<>(exception.getMessage(), HttpStatus.BAD_REQUEST);
+        return new ResponseEntity<>(Map.of("error", exception.getMessage()), statusOf(exception));
     }
 
+    // Перегрузка временная: клиент может повторить запрос
     @ExceptionHandler
-    private ResponseEntity<String> handleItemForbiddenException(ItemForbiddenException exception) {
-        log.info(exception.getMessage());
-        return new ResponseEntity<>(exception.getMessage(), HttpStatus.FORBIDDEN);
-    }
-
-    @ExceptionHandler
-    public ResponseEntity<String> handleUserNotFoundException(UserNotFoundException exception) {
-        log.info(exception.getMessage());
-        return new ResponseEntity<>(exception.getMessage(), HttpStatus.NOT_FOUND);
-    }
-
-    @ExceptionHandler
-    private ResponseEntity<String> handleItemNotFoundException(ItemNotFoundException exception) {
-        log.info(exception.getMessage());
-        return new ResponseEntity<>(exception.getMessage(), HttpStatus.NOT_FOUND);
-    }
-
-    @ExceptionHandler
-    private ResponseEntity<String> handleBookingNotFoundException(BookingNotFoundException exception) {
-        log.info(exception.getMessage());
-        return new ResponseEntity<>(exception.getMessage(), HttpStatus.NOT_FOUND);
-    }
-
-    @ExceptionHandler
-    private ResponseEntity<String> handleItemRequestBadRequestException(ItemRequestNotFoundException exception) {
-        log.info(exception.getMessage());
-        return new ResponseEntity<>(exception.getMessage(), HttpStatus.NOT_FOUND);
+    private ResponseEntity<String> handleCommentWriterUnavailableException(CommentWriterUnavailableException exception) {
+        log.warn(exception.getMessage());
+        return ResponseEntity
+                .status(statusOf(exception))
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(exception.getMessage());
     }
 
     @ExceptionHandler
@@ -98,4 +85,11 @@ public class ErrorHandler {
         log.info(throwable.getMessage());
         return new ResponseEntity<>(throwable.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
     }
+
+    // Статус из @ResponseStatus класса исключения. По нему отвечают обработчики выше и заполняются записи пакетных
+    // запросов, поэтому статус записи пакета совпадает со статусом ответа на такой же одиночный запрос
+    public static HttpStatus statusOf(RuntimeException exception) {
+        ResponseStatus status = AnnotatedElementUtils.findMergedAnnotation(exception.getClass(), ResponseStatus.class);
+        return status != null ? status.code() : HttpStatus.INTERNAL_SERVER_ERROR;
+    }
 }
\ No newline at end of file
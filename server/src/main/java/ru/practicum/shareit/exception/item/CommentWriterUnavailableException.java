@@ -0,0 +1,12 @@
+package ru.practicum.shareit.exception.item;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class CommentWriterUnavailableException extends RuntimeException {
+
+    public CommentWriterUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -1,5 +1,9 @@
 package ru.practicum.shareit.exception.item;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.FORBIDDEN)
 public class ItemForbiddenException extends RuntimeException {
 
     public ItemForbiddenException(String message) {
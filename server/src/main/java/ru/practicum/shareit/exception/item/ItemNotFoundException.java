@@ -1,5 +1,9 @@
 package ru.practicum.shareit.exception.item;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
 public class ItemNotFoundException extends RuntimeException {
 
     public ItemNotFoundException(String message) {
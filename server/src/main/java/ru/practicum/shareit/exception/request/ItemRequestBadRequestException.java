@@ -0,0 +1,12 @@
+package ru.practicum.shareit.exception.request;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class ItemRequestBadRequestException extends RuntimeException {
+
+    public ItemRequestBadRequestException(String message) {
+        super(message);
+    }
+}
@@ -1,5 +1,9 @@
 package ru.practicum.shareit.exception.request;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
 public class ItemRequestNotFoundException extends RuntimeException {
 
     public ItemRequestNotFoundException(String message) {
@@ -1,5 +1,9 @@
 package ru.practicum.shareit.exception.user;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
 public class CommentBadRequestException extends RuntimeException {
 
     public CommentBadRequestException(String message) {
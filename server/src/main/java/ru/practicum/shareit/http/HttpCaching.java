@@ -0,0 +1,37 @@
+package ru.practicum.shareit.http;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+
+import java.time.Duration;
+
+// Заголовки для кэша ответов в шлюзе: сколько ответ свежий и какие ресурсы устарели после изменения
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class HttpCaching {
+
+    public static final String INVALIDATE_HEADER = "X-Cache-Invalidate";
+    // Ответ зависит от пользователя, а последнее и следующее бронирования вещи меняются со временем
+    public static final CacheControl CACHE_CONTROL = CacheControl.maxAge(Duration.ofSeconds(30)).cachePrivate();
+
+    public static HttpHeaders invalidate(String... resources) {
+        HttpHeaders headers = new HttpHeaders();
+        for (String resource : resources) {
+            headers.add(INVALIDATE_HEADER, resource);
+        }
+        return headers;
+    }
+
+    public static String user(long userId) {
+        return String.format("/users/%d", userId);
+    }
+
+    public static String item(long itemId) {
+        return String.format("/items/%d", itemId);
+    }
+
+    public static String request(long requestId) {
+        return String.format("/requests/%d", requestId);
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.http;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+// Страница списка по курсору: курсор следующей страницы передаётся в заголовке, на последней странице его нет
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class HttpPaging {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    public static <T> ResponseEntity<List<T>> page(List<T> items, String nextCursor) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (nextCursor != null) {
+            response.header(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return response.body(items);
+    }
+}
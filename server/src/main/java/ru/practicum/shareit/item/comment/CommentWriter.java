@@ -0,0 +1,244 @@
+package ru.practicum.shareit.item.comment;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exception.item.CommentWriterUnavailableException;
+import ru.practicum.shareit.item.data.Comment;
+import ru.practicum.shareit.persistence.IdSequences;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+// Комментарии из всех запросов попадают в ограниченную очередь, фоновый поток записывает их в БД пакетами.
+// Гарантии:
+// - ответ отправляется только после фиксации пакета с комментарием, подтверждённый комментарий не теряется;
+// - при переполнении очереди запрос сразу отклоняется с 503, а не ждёт освобождения места;
+// - если комментарий не дождался записи за ack-timeout и ещё лежит в очереди, он удаляется из неё и запрос
+//   отклоняется с 503, поэтому повтор запроса клиентом не создаёт дубликат;
+// - если писатель уже забрал комментарий, запрос ждёт записи пакета не дольше ещё одного ack-timeout,
+//   затем отклоняется с 503: комментарий при этом может оказаться записанным;
+// - при остановке сервера очередь дописывается, запросы после остановки отклоняются;
+// - агрегаты item_comment_stats меняются в одной транзакции с комментариями и всегда с ними согласованы.
+@Slf4j
+@Component
+public class CommentWriter {
+
+    private static final String INSERT = "INSERT INTO comments (id, text, item_id, author_id, created) VALUES (?, ?, ?, ?, ?)";
+    private static final String UPDATE_STATS = "UPDATE item_comment_stats "
+            + "SET comment_count = comment_count + ?, last_comment_at = GREATEST(last_comment_at, ?) WHERE item_id = ?";
+    private static final String INSERT_STATS = "INSERT INTO item_comment_stats (item_id, comment_count, last_comment_at) VALUES (?, ?, ?)";
+    private static final long POLL_MILLIS = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PendingComment> queue;
+    private final int batchSize;
+    private final Duration ackTimeout;
+    private final DistributionSummary batchSizes;
+    private final Thread writer = new Thread(this::run, "comment-writer");
+    private volatile boolean running;
+    // Идентификаторы выдаются блоками, как у Hibernate с pooled-lo: nextval резервирует блок целиком,
+    // поэтому блоки писателя и Hibernate не пересекаются. Используются только потоком писателя.
+    private long nextId;
+    private long lastId;
+
+    public CommentWriter(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${shareit.comments.writer.queue-capacity:10000}") int queueCapacity,
+            @Value("${shareit.comments.writer.batch-size:50}") int batchSize,
+            @Value("${shareit.comments.writer.ack-timeout:5s}") Duration ackTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.ackTimeout = ackTimeout;
+        this.batchSizes = DistributionSummary.builder("shareit.comments.batch.size").register(meterRegistry);
+        Gauge.builder("shareit.comments.queue.size", queue, Collection::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join(ackTimeout.toMillis());
+        PendingComment pending;
+        while ((pending = queue.poll()) != null) {
+            pending.written.completeExceptionally(unavailable());
+        }
+    }
+
+    // Возвращает комментарий с идентификатором после фиксации записи
+    public Comment write(Comment comment) {
+        if (!running) {
+            throw unavailable();
+        }
+        PendingComment pending = new PendingComment(comment);
+        if (!queue.offer(pending)) {
+            throw new CommentWriterUnavailableException("Очередь записи комментариев переполнена, повторите запрос позже.");
+        }
+        try {
+            await(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queue.remove(pending);
+            throw unavailable();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return comment;
+    }
+
+    private void await(PendingComment pending) throws InterruptedException, ExecutionException {
+        try {
+            pending.written.get(ackTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (queue.remove(pending)) {
+                throw new CommentWriterUnavailableException("Комментарий не записан за отведённое время, повторите запрос позже.");
+            }
+            // Писатель уже забрал комментарий, результат записи пакета известен после её завершения.
+            // Ожидание ещё одного ack-timeout ограничено, чтобы зависшая запись не держала поток запроса.
+            try {
+                pending.written.get(ackTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException exception) {
+                throw new CommentWriterUnavailableException("Результат записи комментария неизвестен, проверьте комментарии вещи перед повтором запроса.");
+            }
+        }
+    }
+
+    private void run() {
+        List<PendingComment> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingComment first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Ошибка записи пакета комментариев.", e);
+                batch.forEach(pending -> pending.written.completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingComment> batch) {
+        for (PendingComment pending : batch) {
+            pending.comment.setId(allocateId());
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INSERT, batch, batch.size(), CommentWriter::bind);
+                updateStats(batch);
+            });
+            batchSizes.record(batch.size());
+            batch.forEach(pending -> pending.written.complete(null));
+        } catch (RuntimeException e) {
+            // Ошибка одной записи, например удалённый после проверки автор, не должна отклонять весь пакет
+            log.warn("Пакет из {} комментариев не записан, запись по одному: {}", batch.size(), e.getMessage());
+            for (PendingComment pending : batch) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        jdbcTemplate.update(INSERT, statement -> bind(statement, pending));
+                        updateStats(List.of(pending));
+                    });
+                    pending.written.complete(null);
+                } catch (RuntimeException exception) {
+                    pending.written.completeExceptionally(exception);
+                }
+            }
+        }
+    }
+
+    // Агрегаты обновляются в той же транзакции, что и комментарии. Строка агрегата создаётся первым комментарием вещи;
+    // если её одновременно создал писатель другого экземпляра сервера, пакет повторяется по одному и находит строку.
+    private void updateStats(List<PendingComment> batch) {
+        Map<Long, List<Comment>> byItem = batch
+                .stream()
+                .map(pending -> pending.comment)
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(), LinkedHashMap::new, Collectors.toList()));
+        List<Object[]> stats = byItem
+                .entrySet()
+                .stream()
+                .map(entry -> new Object[]{
+                        entry.getValue().size(),
+                        Timestamp.valueOf(entry.getValue().stream().map(Comment::getCreated).max(Comparator.naturalOrder()).orElseThrow()),
+                        entry.getKey()
+                })
+                .collect(Collectors.toList());
+        int[] updated = jdbcTemplate.batchUpdate(UPDATE_STATS, stats);
+        List<Object[]> missing = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                Object[] row = stats.get(i);
+                missing.add(new Object[]{row[2], row[0], row[1]});
+            }
+        }
+        if (!missing.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_STATS, missing);
+        }
+    }
+
+    private long allocateId() {
+        if (nextId == lastId) {
+            Long value = jdbcTemplate.queryForObject("SELECT nextval('comments_seq')", Long.class);
+            nextId = value == null ? 0 : value;
+            lastId = nextId + IdSequences.ALLOCATION_SIZE;
+        }
+        return nextId++;
+    }
+
+    private static void bind(PreparedStatement statement, PendingComment pending) throws SQLException {
+        Comment comment = pending.comment;
+        statement.setLong(1, comment.getId());
+        statement.setString(2, comment.getText());
+        statement.setLong(3, comment.getItem().getId());
+        statement.setLong(4, comment.getAuthor().getId());
+        statement.setTimestamp(5, Timestamp.valueOf(comment.getCreated()));
+    }
+
+    private static CommentWriterUnavailableException unavailable() {
+        return new CommentWriterUnavailableException("Запись комментариев остановлена, повторите запрос позже.");
+    }
+
+    private static class PendingComment {
+
+        private final Comment comment;
+        private final CompletableFuture<Void> written = new CompletableFuture<>();
+
+        private PendingComment(Comment comment) {
+            this.comment = comment;
+        }
+    }
+}
@@ -2,14 +2,21 @@ package ru.practicum.shareit.item.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.http.HttpCaching;
+import ru.practicum.shareit.http.HttpPaging;
 import ru.practicum.shareit.item.data.dto.CommentDto;
+import ru.practicum.shareit.item.data.dto.CommentPage;
 import ru.practicum.shareit.item.data.dto.CommentRequestDto;
 import ru.practicum.shareit.item.data.dto.ItemDto;
+import ru.practicum.shareit.item.data.dto.ItemUpdateResult;
 import ru.practicum.shareit.item.data.dto.StandardItemDto;
 import ru.practicum.shareit.item.service.ItemService;
 
 import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
 
 @Slf4j
 @RestController
@@ -20,50 +27,79 @@ public class ItemController {
     private final ItemService service;
 
     @PostMapping
-    public ItemDto create(
+    public ResponseEntity<ItemDto> create(
             @RequestHeader("X-Sharer-User-Id") long userId,
             @RequestBody StandardItemDto itemDto) {
         log.info("Выполнен запрос POST /items.");
-        return service.create(userId, itemDto);
+        ItemDto createdItem = service.create(userId, itemDto);
+        // Новая вещь попадает в ответы на запрос, по которому создана
+        if (itemDto.getRequestId() != null) {
+            return ResponseEntity.ok().headers(HttpCaching.invalidate(HttpCaching.request(itemDto.getRequestId()))).body(createdItem);
+        }
+        return ResponseEntity.ok(createdItem);
     }
 
     @PatchMapping("/{itemId}")
-    public ItemDto update(
+    public ResponseEntity<ItemDto> update(
             @PathVariable long itemId,
             @RequestHeader("X-Sharer-User-Id") long userId,
             @RequestBody StandardItemDto itemDto) {
         log.info("Выполнен запрос PATCH /items/{}.", itemId);
-        return service.update(itemId, userId, itemDto);
+        ItemUpdateResult result = service.update(itemId, userId, itemDto);
+        // Карточки запросов показывают название и доступность вещи, а при смене запроса вещь переходит в другую карточку
+        Stream<String> requests = Stream.of(result.getPreviousRequestId(), result.getRequestId())
+                .filter(Objects::nonNull)
+                .distinct()
+                .map(HttpCaching::request);
+        String[] resources = Stream.concat(Stream.of(HttpCaching.item(itemId)), requests).toArray(String[]::new);
+        return ResponseEntity.ok().headers(HttpCaching.invalidate(resources)).body(result.getItem());
     }
 
     @GetMapping("/{itemId}")
-    public ItemDto get(@PathVariable long itemId, @RequestHeader("X-Sharer-User-Id") long ownerId) {
+    public ResponseEntity<ItemDto> get(@PathVariable long itemId, @RequestHeader("X-Sharer-User-Id") long ownerId) {
         log.info("Выполнен запрос GET /items/{}.", itemId);
-        return service.get(itemId, ownerId);
+        return ResponseEntity.ok().cacheControl(HttpCaching.CACHE_CONTROL).body(service.get(itemId, ownerId));
     }
 
     @GetMapping
-    public List<ItemDto> get(@RequestHeader("X-Sharer-User-Id") long userId) {
-        log.info("Выполнен запрос GET /items.");
-        return service.get(userId);
+    public List<ItemDto> get(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestParam(name = "from", required = false, defaultValue = "0") int from,
+            @RequestParam(name = "size", required = false, defaultValue = "10") int size) {
+        log.info("Выполнен запрос GET /items?from={}&size={}.", from, size);
+        return service.get(userId, from, size);
     }
 
     @GetMapping("/search")
-    public List<ItemDto> search(@RequestParam(required = false, name = "text", defaultValue = "") String text) {
-        log.info("Выполнен запрос GET /items/search?text={}.", text);
+    public List<ItemDto> search(
+            @RequestParam(required = false, name = "text", defaultValue = "") String text,
+            @RequestParam(name = "from", required = false, defaultValue = "0") int from,
+            @RequestParam(name = "size", required = false, defaultValue = "10") int size) {
+        log.info("Выполнен запрос GET /items/search?text={}&from={}&size={}.", text, from, size);
         if (text.isBlank()) {
             return List.of();
         } else {
-            return service.search(text);
+            return service.search(text, from, size);
         }
     }
 
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<List<CommentDto>> getComments(
+            @PathVariable long itemId,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", required = false, defaultValue = "10") int size) {
+        log.info("Выполнен запрос GET /items/{}/comments?cursor={}&size={}.", itemId, cursor, size);
+        CommentPage page = service.getComments(itemId, cursor, size);
+        return HttpPaging.page(page.getComments(), page.getNextCursor());
+    }
+
     @PostMapping("/{itemId}/comment")
-    public CommentDto addComment(
+    public ResponseEntity<CommentDto> addComment(
             @PathVariable long itemId,
             @RequestHeader("X-Sharer-User-Id") long userId,
             @RequestBody CommentRequestDto commentRequestDto) {
         log.info("Выполнен запрос POST /{}/comment.", itemId);
-        return service.addComment(itemId, userId, commentRequestDto);
+        CommentDto comment = service.addComment(itemId, userId, commentRequestDto);
+        return ResponseEntity.ok().headers(HttpCaching.invalidate(HttpCaching.item(itemId))).body(comment);
     }
 }
\ No newline at end of file
@@ -4,11 +4,14 @@ import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import org.hibernate.Hibernate;
+import ru.practicum.shareit.persistence.IdSequences;
 import ru.practicum.shareit.request.data.ItemRequest;
 
 import javax.persistence.*;
 import java.io.Serializable;
+import java.util.HashSet;
 import java.util.Objects;
+import java.util.Set;
 
 @Entity
 @Table(name = "items", schema = "public")
@@ -18,7 +21,8 @@ import java.util.Objects;
 public class Item implements Serializable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+    @SequenceGenerator(name = "items_seq", sequenceName = "items_seq", allocationSize = IdSequences.ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false)
@@ -33,10 +37,18 @@ public class Item implements Serializable {
     @Column(name = "owner_id")
     private Long ownerId;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "request_id")
     private ItemRequest request;
 
+    @ElementCollection
+    @CollectionTable(
+            name = "item_search_tokens",
+            joinColumns = @JoinColumn(name = "item_id"),
+            indexes = @Index(name = "idx_item_search_tokens_token", columnList = "token, item_id"))
+    @Column(name = "token", nullable = false, length = 100)
+    private Set<String> searchTokens = new HashSet<>();
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
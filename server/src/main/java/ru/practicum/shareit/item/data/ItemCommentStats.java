@@ -0,0 +1,45 @@
+package ru.practicum.shareit.item.data;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+// Строку пишет только CommentWriter вместе с пакетом комментариев
+@Entity
+@Immutable
+@Table(name = "item_comment_stats", schema = "public")
+@Getter
+@Setter
+@RequiredArgsConstructor
+public class ItemCommentStats implements Serializable {
+
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    @Column(name = "comment_count", nullable = false)
+    private long commentCount;
+
+    @Column(name = "last_comment_at", nullable = false)
+    private LocalDateTime lastCommentAt;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || Hibernate.getClass(this) != Hibernate.getClass(o)) return false;
+        ItemCommentStats stats = (ItemCommentStats) o;
+        return itemId != null && Objects.equals(itemId, stats.itemId);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.item.data.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Запросы, к которым вещь относилась до и после изменения: их карточки показывают вещь
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemUpdateResult {
+    private StandardItemDto item;
+    private Long previousRequestId;
+    private Long requestId;
+}
@@ -5,6 +5,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import ru.practicum.shareit.booking.model.dto.ShortBookingDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
@@ -19,4 +20,7 @@ public class StandardItemDto implements ItemDto {
     private ShortBookingDto nextBooking;
     private List<CommentDto> comments;
     private Long requestId;
+    private Long commentCount;
+    private LocalDateTime lastCommentAt;
+    private String nextCommentsCursor;
 }
\ No newline at end of file
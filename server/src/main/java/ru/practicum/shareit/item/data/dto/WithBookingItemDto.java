@@ -4,6 +4,7 @@ import lombok.Builder;
 import lombok.Data;
 import ru.practicum.shareit.booking.model.dto.ShortBookingDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
@@ -17,4 +18,7 @@ public class WithBookingItemDto implements ItemDto {
     private ShortBookingDto nextBooking;
     private List<CommentDto> comments;
     private Long requestId;
+    private Long commentCount;
+    private LocalDateTime lastCommentAt;
+    private String nextCommentsCursor;
 }
\ No newline at end of file
@@ -2,15 +2,14 @@ package ru.practicum.shareit.item.data.mapper;
 
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
-import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.dto.ShortBookingDto;
 import ru.practicum.shareit.item.data.Item;
+import ru.practicum.shareit.item.data.ItemCommentStats;
 import ru.practicum.shareit.item.data.dto.CommentDto;
 import ru.practicum.shareit.item.data.dto.StandardItemDto;
 import ru.practicum.shareit.item.data.dto.WithBookingItemDto;
 
 import java.util.List;
-import java.util.Optional;
 
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class ItemMapper {
@@ -26,21 +25,38 @@ public class ItemMapper {
         return itemDto;
     }
 
-    public static WithBookingItemDto toWithBookingItemDto(Item item, List<CommentDto> comments, Optional<Booking> lastBooking, Optional<Booking> nextBooking) {
+    // Число комментариев и время последнего берутся из агрегата: вещь без строки агрегата комментариев не имеет
+    public static StandardItemDto toStandardItemDto(Item item, List<CommentDto> comments, ItemCommentStats stats, String nextCommentsCursor) {
+        StandardItemDto itemDto = toStandardItemDto(item, comments);
+        itemDto.setCommentCount(stats != null ? stats.getCommentCount() : 0L);
+        itemDto.setLastCommentAt(stats != null ? stats.getLastCommentAt() : null);
+        itemDto.setNextCommentsCursor(nextCommentsCursor);
+        return itemDto;
+    }
+
+    public static WithBookingItemDto toWithBookingItemDto(
+            Item item,
+            List<CommentDto> comments,
+            ItemCommentStats stats,
+            String nextCommentsCursor,
+            ShortBookingDto lastBooking,
+            ShortBookingDto nextBooking) {
+        WithBookingItemDto itemDto = toWithBookingItemDto(item, comments, lastBooking, nextBooking);
+        itemDto.setCommentCount(stats != null ? stats.getCommentCount() : 0L);
+        itemDto.setLastCommentAt(stats != null ? stats.getLastCommentAt() : null);
+        itemDto.setNextCommentsCursor(nextCommentsCursor);
+        return itemDto;
+    }
+
+    public static WithBookingItemDto toWithBookingItemDto(Item item, List<CommentDto> comments, ShortBookingDto lastBooking, ShortBookingDto nextBooking) {
         return WithBookingItemDto
                 .builder()
                 .id(item.getId())
                 .name(item.getName())
                 .description(item.getDescription())
                 .available(item.getAvailable())
-                .lastBooking(lastBooking
-                        .map(booking -> new ShortBookingDto(booking.getId(), booking.getBooker().getId()))
-                        .orElse(null)
-                )
-                .nextBooking(nextBooking
-                        .map(booking -> new ShortBookingDto(booking.getId(), booking.getBooker().getId()))
-                        .orElse(null)
-                )
+                .lastBooking(lastBooking)
+                .nextBooking(nextBooking)
                 .comments(comments)
                 .requestId(item.getRequest() != null ? item.getRequest().getId() : null)
                 .build();
@@ -1,16 +1,20 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.item.data.Comment;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
-    @Query("SELECT c FROM Comment AS c WHERE c.item.id = ?1")
-    List<Comment> findAllByItemId(long itemId);
+    @Query("SELECT c FROM Comment AS c JOIN FETCH c.author WHERE c.item.id = ?1 ORDER BY c.created DESC, c.id DESC")
+    List<Comment> findLatestByItemId(long itemId, Pageable pageable);
 
-    @Query("SELECT c FROM Comment AS c INNER JOIN Item AS i ON c.item.id = i.id WHERE i.ownerId = ?1")
-    List<Comment> findAllByOwnerId(long ownerId);
-}
\ No newline at end of file
+    // Условие c.created <= ?2 отдельно, чтобы диапазон по индексу (item_id, created, id) начинался с курсора
+    @Query("SELECT c FROM Comment AS c JOIN FETCH c.author WHERE c.item.id = ?1 AND c.created <= ?2 AND (c.created < ?2 OR c.id < ?3) "
+            + "ORDER BY c.created DESC, c.id DESC")
+    List<Comment> findLatestByItemIdBefore(long itemId, LocalDateTime created, long id, Pageable pageable);
+}
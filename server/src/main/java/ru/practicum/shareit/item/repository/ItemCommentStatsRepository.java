@@ -0,0 +1,12 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import ru.practicum.shareit.item.data.ItemCommentStats;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ItemCommentStatsRepository extends JpaRepository<ItemCommentStats, Long> {
+
+    List<ItemCommentStats> findAllByItemIdIn(Collection<Long> itemIds);
+}
@@ -1,17 +1,33 @@
 package ru.practicum.shareit.item.repository;
 
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.item.data.Item;
 
+import javax.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface ItemRepository extends JpaRepository<Item, Long> {
+public interface ItemRepository extends JpaRepository<Item, Long>, ItemSearchRepository {
 
     @Query("SELECT i FROM Item i WHERE i.ownerId = ?1")
-    List<Item> findAllByOwnerId(long id, Sort by);
+    List<Item> findAllByOwnerId(long id, Pageable pageable);
 
-    @Query("SELECT i FROM Item AS i WHERE i.available = TRUE AND (LOWER(i.name) LIKE LOWER(CONCAT('%', ?1, '%')) OR LOWER(i.description) LIKE LOWER(CONCAT('%', ?1, '%')))")
-    List<Item> findAllByText(String text);
+    @Query("SELECT i FROM Item AS i WHERE i.available = TRUE AND i.id > ?1 ORDER BY i.id")
+    List<Item> findAllAvailableAfterId(long id, Pageable pageable);
+
+    @Query("SELECT i FROM Item AS i WHERE i.request.id IN ?1")
+    List<Item> findAllByRequestIdIn(Collection<Long> requestIds);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item AS i WHERE i.id = ?1")
+    Optional<Item> findForUpdateById(long id);
+
+    // Строки блокируются в порядке id, чтобы встречные пакетные бронирования не ждали друг друга по кругу
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item AS i WHERE i.id IN ?1 ORDER BY i.id")
+    List<Item> findAllForUpdateByIdIn(Collection<Long> ids);
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.item.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ItemSearchRepository {
+
+    List<Long> findRankedIdsByTokens(Collection<String> tokens, int from, int size);
+}
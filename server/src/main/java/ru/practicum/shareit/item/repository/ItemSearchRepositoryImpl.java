@@ -0,0 +1,51 @@
+package ru.practicum.shareit.item.repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public class ItemSearchRepositoryImpl implements ItemSearchRepository {
+
+    private static final char ESCAPE = '!';
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Long> findRankedIdsByTokens(Collection<String> tokens, int from, int size) {
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        // Каждое слово запроса ищется как префикс токена, релевантность - число совпавших токенов вещи
+        List<String> conditions = new ArrayList<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            conditions.add(String.format("t LIKE :token%d ESCAPE '%c'", i, ESCAPE));
+        }
+        String jpql = "SELECT i.id FROM Item AS i JOIN i.searchTokens AS t "
+                + "WHERE i.available = TRUE AND (" + String.join(" OR ", conditions) + ") "
+                + "GROUP BY i.id ORDER BY COUNT(t) DESC, i.id ASC";
+        TypedQuery<Long> query = entityManager.createQuery(jpql, Long.class);
+        int i = 0;
+        for (String token : tokens) {
+            query.setParameter("token" + i++, escape(token) + "%");
+        }
+        return query
+                .setFirstResult(from)
+                .setMaxResults(size)
+                .getResultList();
+    }
+
+    private static String escape(String token) {
+        StringBuilder builder = new StringBuilder(token.length());
+        for (char c : token.toCharArray()) {
+            if (c == ESCAPE || c == '%' || c == '_') {
+                builder.append(ESCAPE);
+            }
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,43 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.data.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.index", havingValue = "database", matchIfMissing = true)
+public class DatabaseItemSearchIndex implements ItemSearchIndex {
+
+    private final ItemRepository itemRepository;
+
+    @Override
+    public void index(Item item) {
+        // Токены хранятся в таблице item_search_tokens и сохраняются вместе с вещью
+    }
+
+    @Override
+    public List<Item> search(String text, int from, int size) {
+        List<Long> ids = itemRepository.findRankedIdsByTokens(ItemSearchTokenizer.tokenize(text), from, size);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Item> items = itemRepository
+                .findAllById(ids)
+                .stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return ids
+                .stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+}
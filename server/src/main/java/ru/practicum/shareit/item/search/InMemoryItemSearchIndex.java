@@ -0,0 +1,207 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.data.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.data.ItemRequest;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.index", havingValue = "memory")
+public class InMemoryItemSearchIndex implements ItemSearchIndex {
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    private static final long[] EMPTY = new long[0];
+    private static final Comparator<Map.Entry<Long, Integer>> BY_RANK = Map.Entry
+            .<Long, Integer>comparingByValue()
+            .reversed()
+            .thenComparing(Map.Entry.comparingByKey());
+
+    private final ItemRepository itemRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Item> documents = new HashMap<>();
+    private final Map<Long, Set<String>> documentTokens = new HashMap<>();
+    private final NavigableMap<String, long[]> postings = new TreeMap<>();
+    // Версия изменения берётся под блокировкой строки вещи и растёт в порядке фиксации изменений одной вещи.
+    // afterCommit параллельных транзакций может выполниться в обратном порядке, и устаревший снимок пропускается.
+    private final AtomicLong versions = new AtomicLong();
+    private final Map<Long, Long> appliedVersions = new HashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            documentTokens.clear();
+            postings.clear();
+            long lastId = 0;
+            List<Item> batch;
+            do {
+                batch = itemRepository.findAllAvailableAfterId(lastId, PageRequest.ofSize(REBUILD_BATCH_SIZE));
+                for (Item item : batch) {
+                    put(snapshot(item));
+                    lastId = item.getId();
+                }
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+            log.info("Поисковый индекс вещей построен, проиндексировано {} вещей.", documents.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void index(Item item) {
+        Item snapshot = snapshot(item);
+        long version = versions.incrementAndGet();
+        // Индекс меняется только после фиксации транзакции, чтобы откат не оставил в нём лишних вещей
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update(snapshot, version);
+                }
+            });
+        } else {
+            update(snapshot, version);
+        }
+    }
+
+    @Override
+    public List<Item> search(String text, int from, int size) {
+        Set<String> queryTokens = ItemSearchTokenizer.tokenize(text);
+        if (queryTokens.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Set<String> matchedTokens = new HashSet<>();
+            for (String queryToken : queryTokens) {
+                matchedTokens.addAll(postings.subMap(queryToken, true, queryToken + Character.MAX_VALUE, true).keySet());
+            }
+            Map<Long, Integer> ranks = new HashMap<>();
+            for (String token : matchedTokens) {
+                for (long id : postings.get(token)) {
+                    ranks.merge(id, 1, Integer::sum);
+                }
+            }
+            if (from >= ranks.size()) {
+                return List.of();
+            }
+            // Для страницы достаточно from + size лучших вещей, полная сортировка не нужна
+            int limit = (int) Math.min((long) from + size, ranks.size());
+            PriorityQueue<Map.Entry<Long, Integer>> top = new PriorityQueue<>(limit + 1, BY_RANK.reversed());
+            for (Map.Entry<Long, Integer> entry : ranks.entrySet()) {
+                top.offer(entry);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+            List<Map.Entry<Long, Integer>> page = new ArrayList<>(top);
+            page.sort(BY_RANK);
+            return page
+                    .stream()
+                    .skip(from)
+                    .map(entry -> documents.get(entry.getKey()))
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void update(Item item, long version) {
+        lock.writeLock().lock();
+        try {
+            Long applied = appliedVersions.get(item.getId());
+            if (applied != null && applied > version) {
+                return;
+            }
+            appliedVersions.put(item.getId(), version);
+            remove(item.getId());
+            if (Boolean.TRUE.equals(item.getAvailable())) {
+                put(item);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(Item item) {
+        Set<String> tokens = ItemSearchTokenizer.tokenize(item.getName(), item.getDescription());
+        documents.put(item.getId(), item);
+        documentTokens.put(item.getId(), tokens);
+        for (String token : tokens) {
+            postings.put(token, insert(postings.getOrDefault(token, EMPTY), item.getId()));
+        }
+    }
+
+    private void remove(long id) {
+        documents.remove(id);
+        Set<String> tokens = documentTokens.remove(id);
+        if (tokens == null) {
+            return;
+        }
+        for (String token : tokens) {
+            long[] ids = delete(postings.get(token), id);
+            if (ids.length == 0) {
+                postings.remove(token);
+            } else {
+                postings.put(token, ids);
+            }
+        }
+    }
+
+    private static long[] insert(long[] ids, long id) {
+        int position = Arrays.binarySearch(ids, id);
+        if (position >= 0) {
+            return ids;
+        }
+        position = -position - 1;
+        long[] result = new long[ids.length + 1];
+        System.arraycopy(ids, 0, result, 0, position);
+        result[position] = id;
+        System.arraycopy(ids, position, result, position + 1, ids.length - position);
+        return result;
+    }
+
+    private static long[] delete(long[] ids, long id) {
+        int position = Arrays.binarySearch(ids, id);
+        if (position < 0) {
+            return ids;
+        }
+        long[] result = new long[ids.length - 1];
+        System.arraycopy(ids, 0, result, 0, position);
+        System.arraycopy(ids, position + 1, result, position, ids.length - position - 1);
+        return result;
+    }
+
+    private static Item snapshot(Item item) {
+        Item snapshot = new Item();
+        snapshot.setId(item.getId());
+        snapshot.setName(item.getName());
+        snapshot.setDescription(item.getDescription());
+        snapshot.setAvailable(item.getAvailable());
+        snapshot.setOwnerId(item.getOwnerId());
+        if (item.getRequest() != null) {
+            ItemRequest request = new ItemRequest();
+            request.setId(item.getRequest().getId());
+            snapshot.setRequest(request);
+        }
+        return snapshot;
+    }
+}
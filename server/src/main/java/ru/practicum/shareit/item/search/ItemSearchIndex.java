@@ -0,0 +1,12 @@
+package ru.practicum.shareit.item.search;
+
+import ru.practicum.shareit.item.data.Item;
+
+import java.util.List;
+
+public interface ItemSearchIndex {
+
+    void index(Item item);
+
+    List<Item> search(String text, int from, int size);
+}
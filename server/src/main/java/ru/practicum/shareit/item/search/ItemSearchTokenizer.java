@@ -0,0 +1,29 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class ItemSearchTokenizer {
+
+    public static final int MAX_TOKEN_LENGTH = 100;
+
+    private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    public static Set<String> tokenize(String... texts) {
+        return Arrays
+                .stream(texts)
+                .filter(text -> text != null && !text.isBlank())
+                .flatMap(text -> SEPARATOR.splitAsStream(text.toLowerCase(Locale.ROOT)))
+                .filter(token -> !token.isEmpty())
+                .map(token -> token.length() > MAX_TOKEN_LENGTH ? token.substring(0, MAX_TOKEN_LENGTH) : token)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+}
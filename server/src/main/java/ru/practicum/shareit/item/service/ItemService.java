@@ -1,8 +1,10 @@
 package ru.practicum.shareit.item.service;
 
 import ru.practicum.shareit.item.data.dto.CommentDto;
+import ru.practicum.shareit.item.data.dto.CommentPage;
 import ru.practicum.shareit.item.data.dto.CommentRequestDto;
 import ru.practicum.shareit.item.data.dto.ItemDto;
+import ru.practicum.shareit.item.data.dto.ItemUpdateResult;
 import ru.practicum.shareit.item.data.dto.StandardItemDto;
 
 import java.util.List;
@@ -11,13 +13,15 @@ public interface ItemService {
 
     ItemDto create(long userId, StandardItemDto itemDto);
 
-    ItemDto update(long itemId, long userId, StandardItemDto itemDto);
+    ItemUpdateResult update(long itemId, long userId, StandardItemDto itemDto);
 
     ItemDto get(long itemId, long ownerId);
 
-    List<ItemDto> get(long userId);
+    List<ItemDto> get(long userId, int from, int size);
 
-    List<ItemDto> search(String text);
+    List<ItemDto> search(String text, int from, int size);
+
+    CommentPage getComments(long itemId, String cursor, int size);
 
     CommentDto addComment(long itemId, long userId, CommentRequestDto commentRequestDto);
 }
\ No newline at end of file
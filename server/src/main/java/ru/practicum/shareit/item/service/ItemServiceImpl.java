@@ -1,29 +1,44 @@
 package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.booking.model.dto.CommentEligibility;
+import ru.practicum.shareit.booking.model.dto.ItemBookingSummary;
+import ru.practicum.shareit.booking.model.dto.ShortBookingDto;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.event.data.UserEvent;
 import ru.practicum.shareit.exception.item.ItemForbiddenException;
-import ru.practicum.shareit.exception.item.ItemNotFoundException;
 import ru.practicum.shareit.exception.user.CommentBadRequestException;
-import ru.practicum.shareit.exception.user.UserNotFoundException;
+import ru.practicum.shareit.item.comment.CommentWriter;
 import ru.practicum.shareit.item.data.Comment;
 import ru.practicum.shareit.item.data.Item;
+import ru.practicum.shareit.item.data.ItemCommentStats;
 import ru.practicum.shareit.item.data.dto.CommentDto;
+import ru.practicum.shareit.item.data.dto.CommentPage;
 import ru.practicum.shareit.item.data.dto.CommentRequestDto;
 import ru.practicum.shareit.item.data.dto.ItemDto;
+import ru.practicum.shareit.item.data.dto.ItemUpdateResult;
 import ru.practicum.shareit.item.data.dto.StandardItemDto;
 import ru.practicum.shareit.item.data.mapper.CommentMapper;
 import ru.practicum.shareit.item.data.mapper.ItemMapper;
 import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemCommentStatsRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.ItemSearchTokenizer;
+import ru.practicum.shareit.outbox.OutboxWriter;
+import ru.practicum.shareit.outbox.data.AggregateType;
+import ru.practicum.shareit.outbox.data.ChangeType;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.data.User;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.validation.EntityValidator;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -35,28 +50,46 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class ItemServiceImpl implements ItemService {
 
+    // Сколько последних комментариев показывается в карточке вещи, остальные доступны по курсору
+    public static final int INLINE_COMMENTS = 10;
+
     private final ItemRepository itemRepository;
-    private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
+    private final ItemCommentStatsRepository itemCommentStatsRepository;
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final EntityValidator entityValidator;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final CommentWriter commentWriter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxWriter outboxWriter;
 
     @Transactional
     @Override
     public ItemDto create(long userId, StandardItemDto itemDto) {
-        checkIfUserExists(userId);
+        entityValidator.checkIfUserExists(userId);
         Item item = ItemMapper.fromStandardItemDto(itemDto);
         item.setOwnerId(userId);
-        setRequest(item, itemDto.getRequestId());
-        return ItemMapper.toStandardItemDto(itemRepository.save(item), null);
+        item.setSearchTokens(ItemSearchTokenizer.tokenize(item.getName(), item.getDescription()));
+        boolean answered = setRequest(item, itemDto.getRequestId());
+        Item createdItem = itemRepository.save(item);
+        if (answered) {
+            publishRequestAnswered(createdItem);
+        }
+        itemSearchIndex.index(createdItem);
+        StandardItemDto createdItemDto = ItemMapper.toStandardItemDto(createdItem, null);
+        outboxWriter.append(AggregateType.ITEM, createdItem.getId(), ChangeType.CREATED, createdItemDto);
+        return createdItemDto;
     }
 
     @Transactional
     @Override
-    public ItemDto update(long itemId, long userId, StandardItemDto itemDto) {
-        checkIfItemExists(itemId);
-        Item updatedItem = itemRepository.getReferenceById(itemId);
+    public ItemUpdateResult update(long itemId, long userId, StandardItemDto itemDto) {
+        // Блокировка строки упорядочивает изменения одной вещи, в том числе их применение к поисковому индексу
+        Item updatedItem = entityValidator.getExistingItemForUpdate(itemId);
         checkItemOwner(userId, updatedItem.getOwnerId());
+        Long previousRequestId = updatedItem.getRequest() != null ? updatedItem.getRequest().getId() : null;
         if (itemDto.getName() != null && !itemDto.getName().isBlank()) {
             updatedItem.setName(itemDto.getName());
         }
@@ -66,96 +99,98 @@ public class ItemServiceImpl implements ItemService {
         if (itemDto.getAvailable() != null) {
             updatedItem.setAvailable(itemDto.getAvailable());
         }
-        setRequest(updatedItem, itemDto.getRequestId());
-        List<CommentDto> comments = commentRepository
-                .findAllByItemId(itemId)
-                .stream()
-                .map(CommentMapper::toCommentDto)
-                .collect(Collectors.toList());
-        return ItemMapper.toStandardItemDto(updatedItem, comments);
+        updatedItem.setSearchTokens(ItemSearchTokenizer.tokenize(updatedItem.getName(), updatedItem.getDescription()));
+        if (setRequest(updatedItem, itemDto.getRequestId())) {
+            publishRequestAnswered(updatedItem);
+        }
+        itemSearchIndex.index(updatedItem);
+        outboxWriter.append(AggregateType.ITEM, itemId, ChangeType.UPDATED, ItemMapper.toStandardItemDto(updatedItem, null));
+        List<Comment> comments = getLatestComments(itemId);
+        ItemCommentStats stats = itemCommentStatsRepository.findById(itemId).orElse(null);
+        StandardItemDto updatedItemDto = ItemMapper.toStandardItemDto(updatedItem, toCommentDtos(comments), stats, nextCommentsCursor(comments, stats));
+        return new ItemUpdateResult(updatedItemDto, previousRequestId, updatedItemDto.getRequestId());
     }
 
     @Override
     public ItemDto get(long itemId, long ownerId) {
-        checkIfItemExists(itemId);
-        Item item = itemRepository.getReferenceById(itemId);
-        Optional<Booking> lastBooking = bookingRepository
-                .getLastByItemId(itemId, ownerId, Sort.by(Sort.Direction.DESC, "start"))
-                .stream()
-                .findFirst();
-        Optional<Booking> nextBooking = bookingRepository
-                .getNextByItemId(itemId, ownerId, Sort.by(Sort.Direction.ASC, "start"))
-                .stream()
-                .findFirst();
-        List<CommentDto> comments = commentRepository
-                .findAllByItemId(itemId)
-                .stream()
-                .map(CommentMapper::toCommentDto)
-                .collect(Collectors.toList());
+        Item item = entityValidator.getExistingItem(itemId);
+        List<Comment> latestComments = getLatestComments(itemId);
+        List<CommentDto> comments = toCommentDtos(latestComments);
+        ItemCommentStats stats = itemCommentStatsRepository.findById(itemId).orElse(null);
+        String nextCommentsCursor = nextCommentsCursor(latestComments, stats);
+        // Бронирования вещи видит только её владелец
+        if (item.getOwnerId() != ownerId) {
+            return ItemMapper.toStandardItemDto(item, comments, stats, nextCommentsCursor);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Optional<ShortBookingDto> lastBooking = bookingIntervalIndex.findLast(itemId, now);
+        Optional<ShortBookingDto> nextBooking = bookingIntervalIndex.findNext(itemId, now);
         if (lastBooking.isEmpty() && nextBooking.isEmpty()) {
-            return ItemMapper.toStandardItemDto(item, comments);
+            return ItemMapper.toStandardItemDto(item, comments, stats, nextCommentsCursor);
         } else {
-            return ItemMapper.toWithBookingItemDto(item, comments, lastBooking, nextBooking);
+            return ItemMapper.toWithBookingItemDto(item, comments, stats, nextCommentsCursor, lastBooking.orElse(null), nextBooking.orElse(null));
         }
     }
 
     @Override
-    public List<ItemDto> get(long ownerId) {
-        checkIfUserExists(ownerId);
-        List<Item> items = itemRepository.findAllByOwnerId(ownerId, Sort.by(Sort.Direction.ASC, "id"));
-        Map<Long, List<CommentDto>> commentsMap = getAllCommentsForItemIdByOwnerId(ownerId);
-        Map<Long, List<Booking>> bookingsMap = getAllBookingsForItemIdByOwnerId(ownerId);
+    public List<ItemDto> get(long ownerId, int from, int size) {
+        entityValidator.checkIfUserExists(ownerId);
+        List<Item> items = itemRepository.findAllByOwnerId(ownerId, page(from, size, Sort.by(Sort.Direction.ASC, "id")));
+        if (items.isEmpty()) {
+            return List.of();
+        }
+        List<Long> itemIds = items.stream().map(Item::getId).collect(Collectors.toList());
+        // В списке вещей только агрегаты комментариев, сами комментарии читаются постранично
+        Map<Long, ItemCommentStats> statsMap = getCommentStatsByItemIds(itemIds);
+        Map<Long, Map<String, ShortBookingDto>> bookingsMap = getLastAndNextBookingsByItemIds(itemIds);
         return items
                 .stream()
                 .map(item -> {
-                    long itemId = item.getId();
-                    if (bookingsMap.get(itemId) != null) {
-                        Optional<Booking> lastBooking = getLastBookingByItemId(bookingsMap.get(item.getId()));
-                        Optional<Booking> nextBooking = getNextBookingByItemId(bookingsMap.get(item.getId()));
-                        if (lastBooking.isPresent() && nextBooking.isPresent()) {
-                            return ItemMapper.toWithBookingItemDto(item, commentsMap.get(item.getId()), lastBooking, nextBooking);
-                        }
+                    Map<String, ShortBookingDto> bookings = bookingsMap.getOrDefault(item.getId(), Map.of());
+                    ShortBookingDto lastBooking = bookings.get(ItemBookingSummary.LAST);
+                    ShortBookingDto nextBooking = bookings.get(ItemBookingSummary.NEXT);
+                    ItemCommentStats stats = statsMap.get(item.getId());
+                    if (lastBooking != null && nextBooking != null) {
+                        return ItemMapper.toWithBookingItemDto(item, null, stats, null, lastBooking, nextBooking);
                     }
-                    return ItemMapper.toStandardItemDto(item, commentsMap.get(item.getId()));
+                    return ItemMapper.toStandardItemDto(item, null, stats, null);
                 })
                 .collect(Collectors.toList());
     }
 
     @Override
-    public List<ItemDto> search(String text) {
-        return itemRepository
-                .findAllByText(text)
+    public List<ItemDto> search(String text, int from, int size) {
+        return itemSearchIndex
+                .search(text, from, size)
                 .stream()
                 .map((Function<Item, ItemDto>) item -> ItemMapper.toStandardItemDto(item, null))
                 .collect(Collectors.toList());
     }
 
-    @Transactional
+    @Override
+    public CommentPage getComments(long itemId, String cursor, int size) {
+        entityValidator.checkIfItemExists(itemId);
+        KeysetCursor commentCursor = KeysetCursor.decode(cursor, CommentBadRequestException::new);
+        List<Comment> comments = commentCursor == null
+                ? commentRepository.findLatestByItemId(itemId, PageRequest.ofSize(size))
+                : commentRepository.findLatestByItemIdBefore(itemId, commentCursor.getTimestamp(), commentCursor.getId(), PageRequest.ofSize(size));
+        String nextCursor = comments.size() == size ? encodeCursor(comments.get(size - 1)) : null;
+        return new CommentPage(toCommentDtos(comments), nextCursor);
+    }
+
+    // Ожидание записи пакета комментариев не держит соединение с БД
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     @Override
     public CommentDto addComment(long itemId, long userId, CommentRequestDto commentRequestDto) {
-        checkIfUserExists(userId);
-        checkIfItemExists(itemId);
+        User user = entityValidator.getExistingUser(userId);
+        Item item = entityValidator.getExistingItem(itemId);
         checkIfBookingsWithItemExist(itemId);
-        User user = userRepository.getReferenceById(userId);
-        Item item = itemRepository.getReferenceById(itemId);
         Comment comment = new Comment();
         comment.setText(commentRequestDto.getText());
         comment.setItem(item);
         comment.setAuthor(user);
         comment.setCreated(LocalDateTime.now());
-        return CommentMapper.toCommentDto(commentRepository.save(comment));
-    }
-
-    private void checkIfUserExists(long userId) {
-        if (!userRepository.existsById(userId)) {
-            throw new UserNotFoundException(String.format("Пользователь с идентификатором %d не найден.", userId));
-        }
-    }
-
-    private void checkIfItemExists(long itemId) {
-        if (!itemRepository.existsById(itemId)) {
-            throw new ItemNotFoundException(String.format("Вещь с идентификатором %d не найдена.", itemId));
-        }
+        return CommentMapper.toCommentDto(commentWriter.write(comment));
     }
 
     private void checkItemOwner(long userId, long ownerId) {
@@ -165,66 +200,70 @@ public class ItemServiceImpl implements ItemService {
     }
 
     private void checkIfBookingsWithItemExist(long itemId) {
-        if (bookingRepository.findAllByItemIdAndStatus(itemId, BookingStatus.REJECTED).isEmpty()) {
+        CommentEligibility eligibility = bookingRepository.findCommentEligibility(itemId, LocalDateTime.now());
+        if (!eligibility.getBooked()) {
             throw new CommentBadRequestException(String.format("Нельзя добавить комментарий к вещи %d без бронирования.", itemId));
         }
-        if (bookingRepository.findAllCurrentByItemId(itemId).isEmpty()) {
+        if (!eligibility.getStarted()) {
             throw new CommentBadRequestException(String.format("Нельзя добавить комментарий к вещи %d с запланированными бронированиями.", itemId));
         }
     }
 
-    private Map<Long, List<CommentDto>> getAllCommentsForItemIdByOwnerId(long ownerId) {
-        Map<Long, List<CommentDto>> map = new LinkedHashMap<>();
-        commentRepository.findAllByOwnerId(ownerId).forEach(comment -> {
-            long itemId = comment.getItem().getId();
-            CommentDto commentDto = CommentMapper.toCommentDto(comment);
-            if (map.containsKey(itemId)) {
-                map.get(itemId).add(commentDto);
-            } else {
-                map.put(itemId, List.of(commentDto));
-            }
-        });
-        return map;
+    private List<Comment> getLatestComments(long itemId) {
+        return commentRepository.findLatestByItemId(itemId, PageRequest.ofSize(INLINE_COMMENTS));
+    }
+
+    // Курсор на следующую страницу есть, только если комментариев больше, чем показано в карточке вещи
+    private static String nextCommentsCursor(List<Comment> latestComments, ItemCommentStats stats) {
+        if (stats == null || stats.getCommentCount() <= latestComments.size() || latestComments.isEmpty()) {
+            return null;
+        }
+        return encodeCursor(latestComments.get(latestComments.size() - 1));
+    }
+
+    private static String encodeCursor(Comment comment) {
+        return new KeysetCursor(comment.getCreated(), comment.getId()).encode();
+    }
+
+    private static List<CommentDto> toCommentDtos(List<Comment> comments) {
+        return comments.stream().map(CommentMapper::toCommentDto).collect(Collectors.toList());
+    }
+
+    private Map<Long, ItemCommentStats> getCommentStatsByItemIds(Collection<Long> itemIds) {
+        return itemCommentStatsRepository
+                .findAllByItemIdIn(itemIds)
+                .stream()
+                .collect(Collectors.toMap(ItemCommentStats::getItemId, Function.identity()));
     }
 
-    private Map<Long, List<Booking>> getAllBookingsForItemIdByOwnerId(long ownerId) {
-        Map<Long, List<Booking>> bookings = new LinkedHashMap<>();
+    private Map<Long, Map<String, ShortBookingDto>> getLastAndNextBookingsByItemIds(Collection<Long> itemIds) {
+        // Последнее и следующее бронирование каждой вещи выбираются в БД одним запросом
+        Map<Long, Map<String, ShortBookingDto>> bookings = new HashMap<>();
         bookingRepository
-                .findAllByOwner(ownerId, Sort.by(Sort.Direction.ASC, "start"))
-                .forEach(booking -> {
-                    long itemId = booking.getItem().getId();
-                    if (bookings.containsKey(itemId)) {
-                        bookings.get(itemId).add(booking);
-                    } else {
-                        List<Booking> list = new LinkedList<>();
-                        list.add(booking);
-                        bookings.put(itemId, list);
-                    }
-                });
+                .findLastAndNextByItemIds(itemIds, LocalDateTime.now())
+                .forEach(summary -> bookings
+                        .computeIfAbsent(summary.getItemId(), itemId -> new HashMap<>())
+                        .put(summary.getKind(), new ShortBookingDto(summary.getId(), summary.getBookerId())));
         return bookings;
     }
 
-    private Optional<Booking> getLastBookingByItemId(List<Booking> bookings) {
-        for (int i = 0; i < bookings.size(); i++) {
-            if (bookings.get(i).getStart().isAfter(LocalDateTime.now()) && i != 0) {
-                return Optional.of(bookings.get(i - 1));
-            }
+    // Возвращает true, если вещь стала ответом на другой запрос
+    private boolean setRequest(Item item, Long requestId) {
+        if (requestId == null || item.getRequest() != null && requestId.equals(item.getRequest().getId())) {
+            return false;
         }
-        return Optional.empty();
+        itemRequestRepository.findById(requestId).ifPresent(item::setRequest);
+        return item.getRequest() != null && requestId.equals(item.getRequest().getId());
     }
 
-    private Optional<Booking> getNextBookingByItemId(List<Booking> bookings) {
-        for (Booking booking : bookings) {
-            if (booking.getStart().isAfter(LocalDateTime.now())) {
-                return Optional.of(booking);
-            }
+    // Автор запроса получит событие после фиксации транзакции, ответ самому себе не рассылается
+    private void publishRequestAnswered(Item item) {
+        if (!item.getOwnerId().equals(item.getRequest().getRequester().getId())) {
+            eventPublisher.publishEvent(UserEvent.requestAnswered(item));
         }
-        return Optional.empty();
     }
 
-    private void setRequest(Item item, Long requestId) {
-        if (requestId != null && itemRequestRepository.existsById(requestId)) {
-            item.setRequest(itemRequestRepository.getReferenceById(requestId));
-        }
+    private static PageRequest page(int from, int size, Sort sort) {
+        return PageRequest.of(from > 0 ? from / size : 0, size, sort);
     }
-}
\ No newline at end of file
+}
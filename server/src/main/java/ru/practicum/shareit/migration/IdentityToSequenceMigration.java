@@ -0,0 +1,43 @@
+package ru.practicum.shareit.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+// Идентификаторы таблицы выдаёт последовательность <таблица>_seq блоками по INCREMENT_BY вместо IDENTITY,
+// иначе Hibernate не может объединять INSERT в пакеты. Начальное значение зависит от данных, поэтому миграция на Java.
+// Шаг задан здесь, а не берётся из IdSequences: применённая миграция не должна меняться вместе с кодом.
+public abstract class IdentityToSequenceMigration extends BaseJavaMigration {
+
+    static final int INCREMENT_BY = 50;
+
+    private final List<String> tables;
+
+    protected IdentityToSequenceMigration(String... tables) {
+        this.tables = List.of(tables);
+    }
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        try (Statement statement = context.getConnection().createStatement()) {
+            for (String table : tables) {
+                statement.execute(String.format("ALTER TABLE %s ALTER COLUMN id DROP IDENTITY", table));
+                long start;
+                try (ResultSet resultSet = statement.executeQuery(String.format("SELECT COALESCE(MAX(id), 0) + 1 FROM %s", table))) {
+                    resultSet.next();
+                    start = resultSet.getLong(1);
+                }
+                statement.execute(String.format(
+                        "CREATE SEQUENCE %s_seq START WITH %d INCREMENT BY %d",
+                        table,
+                        start,
+                        INCREMENT_BY
+                ));
+            }
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package ru.practicum.shareit.migration;
+
+public class V2__BookingsSequence extends IdentityToSequenceMigration {
+
+    public V2__BookingsSequence() {
+        super("bookings");
+    }
+}
@@ -0,0 +1,8 @@
+package ru.practicum.shareit.migration;
+
+public class V3__RemainingSequences extends IdentityToSequenceMigration {
+
+    public V3__RemainingSequences() {
+        super("users", "requests", "items", "comments");
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.outbox;
+
+import ru.practicum.shareit.outbox.data.ChangeEvent;
+
+import java.util.List;
+
+// Подписчик на изменения из outbox. События приходят пакетами в порядке фиксации изменений одной записи, кроме событий
+// транзакций, зафиксированных позже gap-timeout: они приходят после более поздних событий.
+// Доставка не реже одного раза в пределах окон OutboxRelay: после ошибки подписчика и после перезапуска сервера
+// события повторяются, поэтому обработка должна быть идемпотентной и не зависеть от порядка, например сбрасывать кэш.
+public interface ChangeEventListener {
+
+    void onChanges(List<ChangeEvent> events);
+}
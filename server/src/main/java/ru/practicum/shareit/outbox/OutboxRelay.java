@@ -0,0 +1,301 @@
+package ru.practicum.shareit.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.outbox.data.AggregateType;
+import ru.practicum.shareit.outbox.data.ChangeEvent;
+import ru.practicum.shareit.outbox.data.ChangeType;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Фоновый поток читает outbox по возрастанию идентификатора и передаёт пакеты событий подписчикам этого экземпляра.
+// Гарантии:
+// - события одной записи доставляются в порядке фиксации изменений;
+// - пропуск в идентификаторах означает транзакцию, которая ещё не зафиксирована: чтение останавливается перед ним
+//   и ждёт не дольше gap-timeout. Идентификатор выдаётся перед самой фиксацией, поэтому ожидание почти всегда короткое;
+// - пропущенные после gap-timeout идентификаторы перечитываются ещё skipped-retry: событие транзакции, зафиксированной
+//   позже gap-timeout, доставляется после более поздних событий, в том числе той же записи. Не появившийся за это время
+//   идентификатор считается откатом и больше не проверяется;
+// - доставка не реже одного раза для транзакций, зафиксированных в пределах gap-timeout + skipped-retry: пакет,
+//   на котором подписчик упал, повторяется ему с растущей до max-backoff паузой, пока подписчик его не примет.
+//   Следующие пакеты ждут, в том числе у остальных подписчиков. После запуска сервера повторяются события
+//   за последний gap-timeout, пропуски, которые перечитывал остановленный экземпляр, не восстанавливаются;
+// - фиксация в этом экземпляре будит поток сразу, изменения других экземпляров замечаются за poll-interval;
+// - события старше retention удаляются.
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private static final String SELECT = "SELECT id, aggregate_type, aggregate_id, type, payload, created FROM outbox "
+            + "WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String SELECT_SKIPPED = "SELECT id, aggregate_type, aggregate_id, type, payload, created FROM outbox "
+            + "WHERE id BETWEEN ? AND ? ORDER BY id";
+    private static final String SELECT_START = "SELECT MAX(id) FROM outbox WHERE created < ?";
+    private static final String DELETE = "DELETE FROM outbox WHERE id <= ? AND created < ?";
+    private static final Duration CLEANUP_INTERVAL = Duration.ofMinutes(1);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final List<ChangeEventListener> listeners;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Duration gapTimeout;
+    private final Duration retention;
+    private final Duration maxBackoff;
+    private final Duration skippedRetry;
+    private final Counter delivered;
+    private final Counter failed;
+    private final Counter expiredGaps;
+    private final DistributionSummary batchSizes;
+    private final Semaphore wakeUps = new Semaphore(0);
+    private final CountDownLatch stopping = new CountDownLatch(1);
+    private final Thread relay = new Thread(this::run, "outbox-relay");
+    private volatile boolean running;
+    // Используются только потоком рассылки
+    private boolean positioned;
+    private Long lastId;
+    private long gapId;
+    private long gapSince;
+    // Пропущенный идентификатор -> момент, после которого он больше не перечитывается
+    private final NavigableMap<Long, Long> skipped = new TreeMap<>();
+    private long lastCleanup;
+
+    public OutboxRelay(
+            JdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper,
+            List<ChangeEventListener> listeners,
+            MeterRegistry meterRegistry,
+            @Value("${shareit.outbox.batch-size:100}") int batchSize,
+            @Value("${shareit.outbox.poll-interval:500ms}") Duration pollInterval,
+            @Value("${shareit.outbox.gap-timeout:5s}") Duration gapTimeout,
+            @Value("${shareit.outbox.retention:1d}") Duration retention,
+            @Value("${shareit.outbox.max-backoff:30s}") Duration maxBackoff,
+            @Value("${shareit.outbox.skipped-retry:1m}") Duration skippedRetry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.listeners = listeners;
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.gapTimeout = gapTimeout;
+        this.retention = retention;
+        this.maxBackoff = maxBackoff;
+        this.skippedRetry = skippedRetry;
+        this.delivered = Counter.builder("shareit.outbox.delivered").register(meterRegistry);
+        this.failed = Counter.builder("shareit.outbox.failed").register(meterRegistry);
+        this.expiredGaps = Counter.builder("shareit.outbox.gap.expired").register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("shareit.outbox.batch.size").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        relay.setDaemon(true);
+        relay.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        stopping.countDown();
+        wakeUps.release();
+        relay.join(pollInterval.toMillis() * 2);
+    }
+
+    public void wakeUp() {
+        wakeUps.release();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                if (!positioned) {
+                    lastId = jdbcTemplate.queryForObject(SELECT_START, Long.class, Timestamp.valueOf(LocalDateTime.now().minus(gapTimeout)));
+                    positioned = true;
+                }
+                relaySkipped();
+                if (relayBatch() < batchSize) {
+                    wakeUps.tryAcquire(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+                    wakeUps.drainPermits();
+                }
+                cleanUp();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Ошибка рассылки событий outbox.", e);
+                pause();
+            }
+        }
+    }
+
+    // Возвращает число прочитанных строк: если прочитан полный пакет, следующий читается без ожидания
+    private int relayBatch() throws InterruptedException {
+        List<ChangeEvent> rows = jdbcTemplate.query(SELECT, this::toChangeEvent, lastId == null ? 0 : lastId, batchSize);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        if (lastId == null) {
+            // При запуске в outbox не было строк старше gap-timeout: рассылка начинается с первой прочитанной строки
+            lastId = rows.get(0).getId() - 1;
+        }
+        List<ChangeEvent> batch = new ArrayList<>(rows.size());
+        long expectedId = lastId + 1;
+        for (ChangeEvent row : rows) {
+            if (row.getId() != expectedId && !isGapExpired(expectedId, row.getId())) {
+                break;
+            }
+            batch.add(row);
+            expectedId = row.getId() + 1;
+        }
+        if (!batch.isEmpty()) {
+            if (!deliver(batch)) {
+                return 0;
+            }
+            lastId = batch.get(batch.size() - 1).getId();
+        }
+        return batch.size() < rows.size() ? 0 : rows.size();
+    }
+
+    private boolean isGapExpired(long expectedId, long nextId) {
+        long now = System.currentTimeMillis();
+        if (gapId != expectedId) {
+            gapId = expectedId;
+            gapSince = now;
+            return false;
+        }
+        if (now - gapSince < gapTimeout.toMillis()) {
+            return false;
+        }
+        log.warn("Идентификаторы outbox с {} по {} не появились за {}, они будут перечитываться ещё {}.", expectedId, nextId - 1, gapTimeout, skippedRetry);
+        for (long id = expectedId; id < nextId; id++) {
+            skipped.put(id, now + skippedRetry.toMillis());
+        }
+        return true;
+    }
+
+    // Доставляет появившиеся события пропущенных идентификаторов и забывает пропуски старше skipped-retry
+    private void relaySkipped() throws InterruptedException {
+        if (skipped.isEmpty()) {
+            return;
+        }
+        List<ChangeEvent> batch = jdbcTemplate
+                .query(SELECT_SKIPPED, this::toChangeEvent, skipped.firstKey(), skipped.lastKey())
+                .stream()
+                .filter(row -> skipped.containsKey(row.getId()))
+                .collect(Collectors.toList());
+        if (!batch.isEmpty()) {
+            log.warn("Доставляются {} событий outbox, зафиксированных позже gap-timeout.", batch.size());
+            if (!deliver(batch)) {
+                return;
+            }
+            batch.forEach(row -> skipped.remove(row.getId()));
+        }
+        long now = System.currentTimeMillis();
+        int expired = 0;
+        for (Iterator<Long> deadlines = skipped.values().iterator(); deadlines.hasNext(); ) {
+            if (deadlines.next() <= now) {
+                deadlines.remove();
+                expired++;
+            }
+        }
+        if (expired > 0) {
+            expiredGaps.increment(expired);
+            log.warn("{} пропущенных идентификаторов outbox не появились за {}, они считаются откатом.", expired, skippedRetry);
+        }
+    }
+
+    // Возвращает false, если рассылка остановлена до того, как пакет приняли все подписчики
+    private boolean deliver(List<ChangeEvent> batch) throws InterruptedException {
+        for (ChangeEventListener listener : listeners) {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    listener.onChanges(batch);
+                    break;
+                } catch (RuntimeException e) {
+                    failed.increment(batch.size());
+                    Duration backoff = backoff(attempt);
+                    log.error("Подписчик {} не принял {} событий outbox (попытка {}), повтор через {}.", listener.getClass().getSimpleName(), batch.size(), attempt, backoff, e);
+                    if (stopping.await(backoff.toMillis(), TimeUnit.MILLISECONDS)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        delivered.increment(batch.size());
+        batchSizes.record(batch.size());
+        return true;
+    }
+
+    // Пауза удваивается с каждой попыткой, начиная с poll-interval
+    private Duration backoff(int attempt) {
+        Duration backoff = pollInterval.multipliedBy(1L << Math.min(attempt - 1, 20));
+        return backoff.compareTo(maxBackoff) < 0 ? backoff : maxBackoff;
+    }
+
+    // Удаляются только разосланные этим экземпляром строки, другие экземпляры отстают не больше чем на retention
+    private void cleanUp() {
+        long now = System.currentTimeMillis();
+        if (lastId == null || now - lastCleanup < CLEANUP_INTERVAL.toMillis()) {
+            return;
+        }
+        lastCleanup = now;
+        int deleted = jdbcTemplate.update(DELETE, lastId, Timestamp.valueOf(LocalDateTime.now().minus(retention)));
+        if (deleted > 0) {
+            log.debug("Удалено {} событий outbox старше {}.", deleted, retention);
+        }
+    }
+
+    private void pause() {
+        try {
+            stopping.await(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private ChangeEvent toChangeEvent(ResultSet resultSet, int rowNum) throws SQLException {
+        return new ChangeEvent(
+                resultSet.getLong("id"),
+                AggregateType.valueOf(resultSet.getString("aggregate_type")),
+                resultSet.getLong("aggregate_id"),
+                ChangeType.valueOf(resultSet.getString("type")),
+                toPayload(resultSet.getString("payload")),
+                resultSet.getTimestamp("created").toLocalDateTime()
+        );
+    }
+
+    private JsonNode toPayload(String payload) throws SQLException {
+        if (payload == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readTree(payload);
+        } catch (JsonProcessingException e) {
+            throw new SQLException(e);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package ru.practicum.shareit.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.outbox.data.AggregateType;
+import ru.practicum.shareit.outbox.data.ChangeType;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Изменения записываются в outbox в той же транзакции, что и сами записи: откат транзакции отменяет и событие.
+// Строки outbox вставляются одним пакетом перед фиксацией, после сброса изменений Hibernate. К этому моменту
+// транзакция держит блокировки изменённых строк, поэтому у следующего изменения той же записи идентификатор больше.
+@Component
+public class OutboxWriter {
+
+    private static final HibernateJpaDialect JPA_DIALECT = new HibernateJpaDialect();
+    private static final String INSERT = "INSERT INTO outbox (aggregate_type, aggregate_id, type, payload, created) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final OutboxRelay outboxRelay;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public OutboxWriter(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, OutboxRelay outboxRelay) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.outboxRelay = outboxRelay;
+    }
+
+    // payload - состояние записи после изменения, сериализуется сразу
+    public void append(AggregateType aggregateType, long aggregateId, ChangeType type, Object payload) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Изменение записывается в outbox только внутри транзакции.");
+        }
+        Object[] row = {aggregateType.name(), aggregateId, type.name(), toJson(payload), Timestamp.valueOf(LocalDateTime.now())};
+        pendingRows().add(row);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> pendingRows() {
+        List<Object[]> rows = (List<Object[]>) TransactionSynchronizationManager.getResource(this);
+        if (rows != null) {
+            return rows;
+        }
+        List<Object[]> newRows = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, newRows);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                try {
+                    entityManager.flush();
+                } catch (RuntimeException e) {
+                    // Ошибки сброса приводятся к тем же исключениям, что и при сбросе во время фиксации
+                    DataAccessException translated = JPA_DIALECT.translateExceptionIfPossible(e);
+                    throw translated != null ? translated : e;
+                }
+                jdbcTemplate.batchUpdate(INSERT, newRows);
+            }
+
+            @Override
+            public void afterCommit() {
+                outboxRelay.wakeUp();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(OutboxWriter.this);
+            }
+        });
+        return newRows;
+    }
+
+    private String toJson(Object payload) {
+        if (payload == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.outbox.data;
+
+public enum AggregateType {
+    BOOKING,
+    ITEM,
+    USER
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.outbox.data;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+// Изменение записи из таблицы outbox. payload - состояние записи после изменения в виде DTO API, для удаления пусто
+@Getter
+@ToString
+@AllArgsConstructor
+public class ChangeEvent {
+
+    private final long id;
+    private final AggregateType aggregateType;
+    private final long aggregateId;
+    private final ChangeType type;
+    private final JsonNode payload;
+    private final LocalDateTime created;
+}
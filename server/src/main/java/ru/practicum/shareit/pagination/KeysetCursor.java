@@ -0,0 +1,43 @@
+package ru.practicum.shareit.pagination;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.function.Function;
+
+// Позиция в списке, упорядоченном по времени и идентификатору по убыванию: последняя запись выданной страницы
+@Data
+@AllArgsConstructor
+public class KeysetCursor {
+
+    private static final String SEPARATOR = "_";
+
+    private LocalDateTime timestamp;
+    private long id;
+
+    public String encode() {
+        String value = timestamp + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Пустой курсор означает первую страницу, некорректный отклоняется исключением badRequest
+    public static KeysetCursor decode(String cursor, Function<String, ? extends RuntimeException> badRequest) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf(SEPARATOR);
+            return new KeysetCursor(
+                    LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1))
+            );
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw badRequest.apply(String.format("Некорректный курсор %s.", cursor));
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.persistence;
+
+// Шаг последовательностей <таблица>_seq: Hibernate и CommentWriter берут идентификаторы блоками такого размера.
+// Должен совпадать с INCREMENT BY, с которым последовательности созданы миграциями V2 и V3.
+public final class IdSequences {
+
+    public static final int ALLOCATION_SIZE = 50;
+
+    private IdSequences() {
+    }
+}
@@ -2,8 +2,12 @@ package ru.practicum.shareit.request.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.http.HttpCaching;
+import ru.practicum.shareit.http.HttpPaging;
 import ru.practicum.shareit.request.data.dto.ItemRequestDto;
+import ru.practicum.shareit.request.data.dto.ItemRequestPage;
 import ru.practicum.shareit.request.service.ItemRequestService;
 
 import java.util.List;
@@ -31,17 +35,22 @@ public class ItemRequestController {
     }
 
     @GetMapping("/all")
-    public List<ItemRequestDto> getAll(
+    public ResponseEntity<List<ItemRequestDto>> getAll(
             @RequestHeader("X-Sharer-User-Id") long userId,
             @RequestParam(name = "from", required = false, defaultValue = "0") int from,
-            @RequestParam(name = "size", required = false, defaultValue = "5") int size) {
+            @RequestParam(name = "size", required = false, defaultValue = "5") int size,
+            @RequestParam(name = "cursor", required = false) String cursor) {
+        if (cursor != null) {
+            log.info("Выполнен запрос GET /requests/all?cursor={}&size={}", cursor, size);
+            ItemRequestPage page = service.getPage(userId, cursor, size);
+            return HttpPaging.page(page.getRequests(), page.getNextCursor());
+        }
         log.info("Выполнен запрос GET /requests/all?from={}&size={}", from, size);
-        return service.getAll(userId, from, size);
+        return ResponseEntity.ok(service.getAll(userId, from, size));
     }
 
     @GetMapping("/{requestId}")
-    public ItemRequestDto get(@RequestHeader("X-Sharer-User-Id") long userId, @PathVariable long requestId) {
+    public ResponseEntity<ItemRequestDto> get(@RequestHeader("X-Sharer-User-Id") long userId, @PathVariable long requestId) {
         log.info("Выполнен запрос GET /requests/{}.", requestId);
-        return service.get(userId, requestId);
-    }
-}
\ No newline at end of file
+        return ResponseEntity.ok().cacheControl(HttpCaching.CACHE_CONTROL).body(service.get(userId, requestId));
+    }}
@@ -2,11 +2,13 @@ package ru.practicum.shareit.request.data.mapper;
 
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
+import ru.practicum.shareit.item.data.Item;
 import ru.practicum.shareit.item.data.mapper.ItemMapper;
 import ru.practicum.shareit.request.data.ItemRequest;
 import ru.practicum.shareit.request.data.dto.ItemRequestDto;
 import ru.practicum.shareit.user.data.User;
 
+import java.util.Collection;
 import java.util.stream.Collectors;
 
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
@@ -29,4 +31,13 @@ public class ItemRequestMapper {
                 itemRequest.getCreated(),
                 itemRequest.getItems() != null ? itemRequest.getItems().stream().map(item -> ItemMapper.toStandardItemDto(item, null)).collect(Collectors.toSet()) : null);
     }
+
+    // Ответы на запрос загружены заранее одним запросом на всю страницу, ленивая коллекция items не читается
+    public static ItemRequestDto toItemRequestDto(ItemRequest itemRequest, Collection<Item> items) {
+        return new ItemRequestDto(
+                itemRequest.getId(),
+                itemRequest.getDescription(),
+                itemRequest.getCreated(),
+                items.stream().map(item -> ItemMapper.toStandardItemDto(item, null)).collect(Collectors.toSet()));
+    }
 }
\ No newline at end of file
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.request.data.ItemRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
@@ -13,9 +14,11 @@ public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long>
     @Query("SELECT ir FROM ItemRequest AS ir WHERE ir.requester.id = ?1")
     List<ItemRequest> getByRequesterId(long requesterId, Sort sort);
 
-    @Query("SELECT ir FROM ItemRequest AS ir INNER JOIN Item AS i ON ir.id = i.request.id WHERE i.ownerId = ?1")
-    List<ItemRequest> findAllByUserId(long userId, Sort sort);
+    @Query("SELECT ir FROM ItemRequest AS ir WHERE ir.requester.id <> ?1 ORDER BY ir.created DESC, ir.id DESC")
+    List<ItemRequest> findFeed(long userId, Pageable pageable);
 
-    @Query("SELECT ir FROM ItemRequest AS ir INNER JOIN Item AS i ON ir.id = i.request.id WHERE i.ownerId = ?1")
-    List<ItemRequest> findAllByUserId(long userId, Pageable pageable);
-}
\ No newline at end of file
+    // Условие записано так, чтобы граница по created ограничивала проход по idx_requests_created_id
+    @Query("SELECT ir FROM ItemRequest AS ir WHERE ir.requester.id <> ?1 AND ir.created <= ?2 AND (ir.created < ?2 OR ir.id < ?3) "
+            + "ORDER BY ir.created DESC, ir.id DESC")
+    List<ItemRequest> findFeedBefore(long userId, LocalDateTime created, long id, Pageable pageable);
+}
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.request.service;
 
 import ru.practicum.shareit.request.data.dto.ItemRequestDto;
+import ru.practicum.shareit.request.data.dto.ItemRequestPage;
 
 import java.util.List;
 
@@ -12,5 +13,7 @@ public interface ItemRequestService {
 
     List<ItemRequestDto> getAll(long userId, int from, int size);
 
+    ItemRequestPage getPage(long userId, String cursor, int size);
+
     ItemRequestDto get(long userId, long requestId);
 }
\ No newline at end of file
@@ -5,17 +5,21 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.shareit.exception.request.ItemRequestNotFoundException;
-import ru.practicum.shareit.exception.user.UserNotFoundException;
+import ru.practicum.shareit.exception.request.ItemRequestBadRequestException;
+import ru.practicum.shareit.item.data.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.request.data.ItemRequest;
 import ru.practicum.shareit.request.data.dto.ItemRequestDto;
+import ru.practicum.shareit.request.data.dto.ItemRequestPage;
 import ru.practicum.shareit.request.data.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.data.User;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.validation.EntityValidator;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,13 +28,13 @@ import java.util.stream.Collectors;
 public class ItemRequestServiceImpl implements ItemRequestService {
 
     private final ItemRequestRepository itemRequestRepository;
-    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final EntityValidator entityValidator;
 
     @Transactional
     @Override
     public ItemRequestDto create(long userId, ItemRequestDto itemRequestDto) {
-        checkIfUserExists(userId);
-        User requester = userRepository.getReferenceById(userId);
+        User requester = entityValidator.getExistingUser(userId);
         itemRequestDto.setCreated(LocalDateTime.now());
         ItemRequest itemRequest = ItemRequestMapper.fromItemRequestDto(itemRequestDto, requester);
         return ItemRequestMapper.toItemRequestDto(itemRequestRepository.save(itemRequest));
@@ -38,44 +42,54 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     @Override
     public List<ItemRequestDto> getByRequesterId(long requesterId) {
-        checkIfUserExists(requesterId);
-        return itemRequestRepository
-                .getByRequesterId(requesterId, Sort.by(Sort.Direction.DESC, "created"))
-                .stream()
-                .map(ItemRequestMapper::toItemRequestDto)
-                .collect(Collectors.toList());
+        entityValidator.checkIfUserExists(requesterId);
+        return toItemRequestDtos(itemRequestRepository.getByRequesterId(requesterId, Sort.by(Sort.Direction.DESC, "created")));
     }
 
     @Override
     public List<ItemRequestDto> getAll(long userId, int from, int size) {
-        checkIfUserExists(userId);
-        return itemRequestRepository
-                .findAllByUserId(userId, page(from, size, Sort.by(Sort.Direction.DESC, "created")))
-                .stream()
-                .map(ItemRequestMapper::toItemRequestDto)
-                .collect(Collectors.toList());
+        entityValidator.checkIfUserExists(userId);
+        return toItemRequestDtos(itemRequestRepository.findFeed(userId, page(from, size)));
+    }
+
+    @Override
+    public ItemRequestPage getPage(long userId, String cursor, int size) {
+        entityValidator.checkIfUserExists(userId);
+        KeysetCursor requestCursor = KeysetCursor.decode(cursor, ItemRequestBadRequestException::new);
+        List<ItemRequest> itemRequests = requestCursor == null
+                ? itemRequestRepository.findFeed(userId, PageRequest.ofSize(size))
+                : itemRequestRepository.findFeedBefore(userId, requestCursor.getTimestamp(), requestCursor.getId(), PageRequest.ofSize(size));
+        // Курсор следующей страницы выдаётся, только если текущая страница заполнена целиком
+        String nextCursor = itemRequests.size() == size ? encodeCursor(itemRequests.get(size - 1)) : null;
+        return new ItemRequestPage(toItemRequestDtos(itemRequests), nextCursor);
     }
 
     @Override
     public ItemRequestDto get(long userId, long requestId) {
-        checkIfUserExists(userId);
-        checkIfItemRequestExists(requestId);
-        return ItemRequestMapper.toItemRequestDto(itemRequestRepository.getReferenceById(requestId));
+        entityValidator.checkIfUserExists(userId);
+        return ItemRequestMapper.toItemRequestDto(entityValidator.getExistingItemRequest(requestId));
     }
 
-    private void checkIfUserExists(long userId) {
-        if (!userRepository.existsById(userId)) {
-            throw new UserNotFoundException(String.format("Пользователь с идентификатором %d не найден.", userId));
+    // Ответы на все запросы страницы загружаются одним запросом вместо ленивой коллекции у каждого запроса
+    private List<ItemRequestDto> toItemRequestDtos(List<ItemRequest> itemRequests) {
+        if (itemRequests.isEmpty()) {
+            return List.of();
         }
+        Map<Long, List<Item>> itemsByRequestId = itemRepository
+                .findAllByRequestIdIn(itemRequests.stream().map(ItemRequest::getId).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.groupingBy(item -> item.getRequest().getId()));
+        return itemRequests
+                .stream()
+                .map(itemRequest -> ItemRequestMapper.toItemRequestDto(itemRequest, itemsByRequestId.getOrDefault(itemRequest.getId(), List.of())))
+                .collect(Collectors.toList());
     }
 
-    private void checkIfItemRequestExists(long requestId) {
-        if (!itemRequestRepository.existsById(requestId)) {
-            throw new ItemRequestNotFoundException(String.format("Запроса с идентификатором %d не существует.", requestId));
-        }
+    private static String encodeCursor(ItemRequest itemRequest) {
+        return new KeysetCursor(itemRequest.getCreated(), itemRequest.getId()).encode();
     }
 
-    private static PageRequest page(int from, int size, Sort sort) {
-        return PageRequest.of(from > 0 ? from / size : 0, size, sort);
+    private static PageRequest page(int from, int size) {
+        return PageRequest.of(from > 0 ? from / size : 0, size);
     }
 }
\ No newline at end of file
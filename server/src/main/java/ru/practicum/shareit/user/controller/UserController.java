@@ -2,7 +2,9 @@ package ru.practicum.shareit.user.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.http.HttpCaching;
 import ru.practicum.shareit.user.data.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
@@ -23,21 +25,23 @@ public class UserController {
     }
 
     @PatchMapping("/{userId}")
-    public UserDto update(@PathVariable long userId, @RequestBody UserDto user) {
+    public ResponseEntity<UserDto> update(@PathVariable long userId, @RequestBody UserDto user) {
         log.info("Выполнен запрос PATCH /users/{}.", userId);
-        return service.update(userId, user);
+        UserDto updatedUser = service.update(userId, user);
+        return ResponseEntity.ok().headers(HttpCaching.invalidate(HttpCaching.user(userId))).body(updatedUser);
     }
 
     @GetMapping("/{userId}")
-    public UserDto get(@PathVariable long userId) {
+    public ResponseEntity<UserDto> get(@PathVariable long userId) {
         log.info("Выполнен запрос GET /users/{}.", userId);
-        return service.get(userId);
+        return ResponseEntity.ok().cacheControl(HttpCaching.CACHE_CONTROL).body(service.get(userId));
     }
 
     @DeleteMapping("/{userId}")
-    public void delete(@PathVariable long userId) {
+    public ResponseEntity<Void> delete(@PathVariable long userId) {
         log.info("Выполнен запрос DELETE /users/{}.", userId);
         service.delete(userId);
+        return ResponseEntity.ok().headers(HttpCaching.invalidate(HttpCaching.user(userId))).build();
     }
 
     @GetMapping
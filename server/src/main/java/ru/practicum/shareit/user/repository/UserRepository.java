@@ -1,7 +1,14 @@
 package ru.practicum.shareit.user.repository;
 
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import ru.practicum.shareit.config.CacheConfig;
 import ru.practicum.shareit.user.data.User;
 
 public interface UserRepository extends JpaRepository<User, Long> {
-}
\ No newline at end of file
+
+    // Кэшируется только существование: новый пользователь не должен упираться в закэшированный отказ
+    @Cacheable(cacheNames = CacheConfig.USER_EXISTS, unless = "!#result")
+    @Override
+    boolean existsById(Long id);
+}
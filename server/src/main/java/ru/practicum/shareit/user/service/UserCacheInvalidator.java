@@ -0,0 +1,38 @@
+package ru.practicum.shareit.user.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.config.CacheConfig;
+import ru.practicum.shareit.outbox.ChangeEventListener;
+import ru.practicum.shareit.outbox.data.AggregateType;
+import ru.practicum.shareit.outbox.data.ChangeEvent;
+import ru.practicum.shareit.outbox.data.ChangeType;
+
+import java.util.List;
+import java.util.Objects;
+
+// Изменения пользователей из outbox сбрасывают кэши и на тех экземплярах сервера, где пользователь не менялся.
+// На изменившем экземпляре кэш уже сброшен @CacheEvict после фиксации, повторный сброс ничего не меняет.
+@Component
+@RequiredArgsConstructor
+public class UserCacheInvalidator implements ChangeEventListener {
+
+    private final CacheManager cacheManager;
+
+    @Override
+    public void onChanges(List<ChangeEvent> events) {
+        Cache users = Objects.requireNonNull(cacheManager.getCache(CacheConfig.USERS));
+        Cache userExists = Objects.requireNonNull(cacheManager.getCache(CacheConfig.USER_EXISTS));
+        for (ChangeEvent event : events) {
+            if (event.getAggregateType() != AggregateType.USER || event.getType() == ChangeType.CREATED) {
+                continue;
+            }
+            users.evict(event.getAggregateId());
+            if (event.getType() == ChangeType.DELETED) {
+                userExists.evict(event.getAggregateId());
+            }
+        }
+    }
+}
@@ -1,9 +1,17 @@
 package ru.practicum.shareit.user.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.config.CacheConfig;
+import ru.practicum.shareit.datasource.PrimaryReads;
 import ru.practicum.shareit.exception.user.UserNotFoundException;
+import ru.practicum.shareit.outbox.OutboxWriter;
+import ru.practicum.shareit.outbox.data.AggregateType;
+import ru.practicum.shareit.outbox.data.ChangeType;
 import ru.practicum.shareit.user.data.User;
 import ru.practicum.shareit.user.data.dto.UserDto;
 import ru.practicum.shareit.user.data.mapper.UserMapper;
@@ -18,15 +26,20 @@ import java.util.stream.Collectors;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository repository;
+    private final OutboxWriter outboxWriter;
+    private final PrimaryReads primaryReads;
 
     @Transactional
     @Override
     public UserDto create(UserDto userDto) {
         User user = repository.save(UserMapper.fromUserDto(userDto));
-        return UserMapper.toUserDto(user);
+        UserDto createdUserDto = UserMapper.toUserDto(user);
+        outboxWriter.append(AggregateType.USER, user.getId(), ChangeType.CREATED, createdUserDto);
+        return createdUserDto;
     }
 
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.USERS, key = "#userId")
     @Override
     public UserDto update(long userId, UserDto userDto) {
         User updatedUser = repository.getReferenceById(userId);
@@ -36,22 +49,28 @@ public class UserServiceImpl implements UserService {
         if (userDto.getEmail() != null) {
             updatedUser.setEmail(userDto.getEmail());
         }
-        return UserMapper.toUserDto(updatedUser);
+        UserDto updatedUserDto = UserMapper.toUserDto(updatedUser);
+        outboxWriter.append(AggregateType.USER, userId, ChangeType.UPDATED, updatedUserDto);
+        return updatedUserDto;
     }
 
+    @Cacheable(cacheNames = CacheConfig.USERS, key = "#userId")
     @Override
     public UserDto get(long userId) {
-        if (repository.existsById(userId)) {
-            return UserMapper.toUserDto(repository.getReferenceById(userId));
-        } else {
-            throw new UserNotFoundException(String.format("Пользователь с идентификатором %d не найден.", userId));
-        }
+        return primaryReads
+                .call(() -> repository.findById(userId).map(UserMapper::toUserDto))
+                .orElseThrow(() -> new UserNotFoundException(String.format("Пользователь с идентификатором %d не найден.", userId)));
     }
 
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USERS, key = "#userId"),
+            @CacheEvict(cacheNames = CacheConfig.USER_EXISTS, key = "#userId")
+    })
     @Override
     public void delete(long userId) {
         repository.deleteById(userId);
+        outboxWriter.append(AggregateType.USER, userId, ChangeType.DELETED, null);
     }
 
     @Override
@@ -0,0 +1,98 @@
+package ru.practicum.shareit.validation;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.datasource.PrimaryReads;
+import ru.practicum.shareit.exception.booking.BookingNotFoundException;
+import ru.practicum.shareit.exception.item.ItemNotFoundException;
+import ru.practicum.shareit.exception.request.ItemRequestNotFoundException;
+import ru.practicum.shareit.exception.user.UserNotFoundException;
+import ru.practicum.shareit.item.data.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.data.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.data.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Проверка существования и загрузка сущности выполняются одним запросом
+@Component
+@RequiredArgsConstructor
+public class EntityValidator {
+
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final PrimaryReads primaryReads;
+
+    public void checkIfUserExists(long userId) {
+        // Результат проверки кэшируется, поэтому читается из основной БД
+        if (!primaryReads.call(() -> userRepository.existsById(userId))) {
+            throw userNotFound(userId);
+        }
+    }
+
+    public User getExistingUser(long userId) {
+        return userRepository.findById(userId).orElseThrow(() -> userNotFound(userId));
+    }
+
+    public void checkIfItemExists(long itemId) {
+        if (!itemRepository.existsById(itemId)) {
+            throw itemNotFound(itemId);
+        }
+    }
+
+    public Item getExistingItem(long itemId) {
+        return itemRepository
+                .findById(itemId)
+                .orElseThrow(() -> itemNotFound(itemId));
+    }
+
+    public Item getExistingItemForUpdate(long itemId) {
+        return itemRepository
+                .findForUpdateById(itemId)
+                .orElseThrow(() -> itemNotFound(itemId));
+    }
+
+    // Отсутствующих вещей в результате нет: пакетный запрос отклоняет такие записи по отдельности
+    public Map<Long, Item> getExistingItemsForUpdate(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return Map.of();
+        }
+        return itemRepository
+                .findAllForUpdateByIdIn(itemIds)
+                .stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+    }
+
+    public Booking getExistingBookingWithItem(long bookingId) {
+        return bookingRepository
+                .findWithItemById(bookingId)
+                .orElseThrow(() -> bookingNotFound(bookingId));
+    }
+
+    public ItemRequest getExistingItemRequest(long requestId) {
+        return itemRequestRepository
+                .findById(requestId)
+                .orElseThrow(() -> new ItemRequestNotFoundException(String.format("Запроса с идентификатором %d не существует.", requestId)));
+    }
+
+    public static ItemNotFoundException itemNotFound(long itemId) {
+        return new ItemNotFoundException(String.format("Вещь с идентификатором %d не найдена.", itemId));
+    }
+
+    public static BookingNotFoundException bookingNotFound(long bookingId) {
+        return new BookingNotFoundException(String.format("Бронирование с идентификатором %d не найдено.", bookingId));
+    }
+
+    private static UserNotFoundException userNotFound(long userId) {
+        return new UserNotFoundException(String.format("Пользователь с идентификатором %d не найден.", userId));
+    }
+}
@@ -0,0 +1,68 @@
+CREATE TABLE users
+(
+    id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    name VARCHAR(200) NOT NULL,
+    email VARCHAR(200) NOT NULL UNIQUE
+);
+
+CREATE TABLE requests
+(
+    id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    description VARCHAR(1000),
+    requester_id BIGINT,
+    created TIMESTAMP WITHOUT TIME ZONE NOT NULL
+);
+
+CREATE TABLE items
+(
+    id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    name VARCHAR(1000) NOT NULL,
+    description VARCHAR(1000) NOT NULL,
+    is_available BOOLEAN NOT NULL,
+    owner_id BIGINT,
+    request_id BIGINT
+);
+
+CREATE TABLE item_search_tokens
+(
+    item_id BIGINT NOT NULL,
+    token VARCHAR(100) NOT NULL,
+    CONSTRAINT pk_item_search_tokens PRIMARY KEY(item_id, token)
+);
+
+CREATE TABLE bookings
+(
+    id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    item_id BIGINT NOT NULL,
+    status VARCHAR(100),
+    booker_id BIGINT
+);
+
+CREATE TABLE comments
+(
+    id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    text VARCHAR(1000) NOT NULL,
+    item_id BIGINT NOT NULL,
+    author_id BIGINT NOT NULL,
+    created TIMESTAMP WITHOUT TIME ZONE NOT NULL
+);
+
+-- Индексы создаются до внешних ключей: H2 использует совпадающий индекс для ограничения вместо собственного
+CREATE INDEX idx_requests_requester_created ON requests(requester_id, created DESC);
+CREATE INDEX idx_items_owner ON items(owner_id);
+CREATE INDEX idx_items_request ON items(request_id);
+CREATE INDEX idx_item_search_tokens_token ON item_search_tokens(token, item_id);
+CREATE INDEX idx_bookings_booker_start ON bookings(booker_id, start_date DESC);
+CREATE INDEX idx_bookings_item_start ON bookings(item_id, start_date);
+CREATE INDEX idx_comments_item ON comments(item_id);
+
+ALTER TABLE requests ADD CONSTRAINT fk_requester FOREIGN KEY(requester_id) REFERENCES users(id);
+ALTER TABLE items ADD CONSTRAINT fk_owner FOREIGN KEY(owner_id) REFERENCES users(id);
+ALTER TABLE items ADD CONSTRAINT fk_request FOREIGN KEY(request_id) REFERENCES requests(id);
+ALTER TABLE item_search_tokens ADD CONSTRAINT fk_item_search_token FOREIGN KEY(item_id) REFERENCES items(id);
+ALTER TABLE bookings ADD CONSTRAINT fk_item FOREIGN KEY(item_id) REFERENCES items(id);
+ALTER TABLE bookings ADD CONSTRAINT fk_booker FOREIGN KEY(booker_id) REFERENCES users(id);
+ALTER TABLE comments ADD CONSTRAINT fk_item_comment FOREIGN KEY(item_id) REFERENCES items(id);
+ALTER TABLE comments ADD CONSTRAINT fk_author FOREIGN KEY(author_id) REFERENCES users(id);
@@ -0,0 +1,15 @@
+-- Число комментариев и время последнего по каждой вещи, поддерживается писателем комментариев
+CREATE TABLE item_comment_stats
+(
+    item_id BIGINT PRIMARY KEY,
+    comment_count BIGINT NOT NULL,
+    last_comment_at TIMESTAMP WITHOUT TIME ZONE NOT NULL
+);
+
+INSERT INTO item_comment_stats (item_id, comment_count, last_comment_at)
+SELECT item_id, COUNT(*), MAX(created) FROM comments GROUP BY item_id;
+
+ALTER TABLE item_comment_stats ADD CONSTRAINT fk_item_comment_stats FOREIGN KEY(item_id) REFERENCES items(id);
+
+-- Страницы комментариев вещи читаются от новых к старым обратным проходом по индексу
+CREATE INDEX idx_comments_item_created ON comments(item_id, created, id);
@@ -0,0 +1,2 @@
+-- Лента чужих запросов читается проходом по индексу в порядке выдачи, запросы автора отсеиваются при проходе
+CREATE INDEX idx_requests_created_id ON requests(created DESC, id DESC);
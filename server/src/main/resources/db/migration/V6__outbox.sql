@@ -0,0 +1,11 @@
+-- Изменения бронирований, вещей и пользователей записываются в одной транзакции с ними и рассылаются подписчикам.
+-- Идентификатор выдаётся при вставке перед фиксацией, поэтому изменения одной записи идут в порядке фиксации.
+CREATE TABLE outbox
+(
+    id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    aggregate_type VARCHAR(100) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    type VARCHAR(100) NOT NULL,
+    payload VARCHAR(10000),
+    created TIMESTAMP WITHOUT TIME ZONE NOT NULL
+);
@@ -13,9 +13,12 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.dto.BookingBatchResult;
+import ru.practicum.shareit.booking.model.dto.BookingPage;
 import ru.practicum.shareit.booking.model.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.model.dto.StandardBookingDto;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.http.HttpCaching;
 import ru.practicum.shareit.item.data.dto.ShortItemDto;
 import ru.practicum.shareit.user.data.dto.BookerDto;
 
@@ -25,6 +28,7 @@ import java.util.List;
 
 import static org.hamcrest.Matchers.is;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -92,7 +96,8 @@ class BookingControllerTest {
                         .accept(MediaType.APPLICATION_JSON)
                 )
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.id", is(standardBookingDto.getId()), Long.class));
+                .andExpect(jsonPath("$.id", is(standardBookingDto.getId()), Long.class))
+                .andExpect(header().string(HttpCaching.INVALIDATE_HEADER, "/items/1"));
     }
 
     @Test
@@ -118,6 +123,57 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$.id", is(standardBookingDto.getId()), Long.class));
     }
 
+    @Test
+    void testCreateAll() throws Exception {
+        List<BookingRequestDto> bookingRequestDtos = List.of(
+                new BookingRequestDto(1L, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2)),
+                new BookingRequestDto(1L, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2))
+        );
+        StandardBookingDto standardBookingDto = new StandardBookingDto(
+                1L,
+                LocalDateTime.now(),
+                LocalDateTime.now().plusDays(1),
+                BookingStatus.WAITING,
+                new BookerDto(1L),
+                new ShortItemDto(1L, "Name")
+        );
+        Mockito.when(bookingService.createAll(Mockito.anyLong(), Mockito.any())).thenReturn(List.of(
+                new BookingBatchResult(200, standardBookingDto, null),
+                new BookingBatchResult(409, null, "Вещь с идентификатором 1 уже забронирована на указанный период.")
+        ));
+        mvc
+                .perform(post("/bookings/batch")
+                        .content(mapper.writeValueAsString(bookingRequestDtos))
+                        .header("X-Sharer-User-Id", 1L)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].booking.id", is(standardBookingDto.getId()), Long.class))
+                .andExpect(jsonPath("$[1].status", is(409)))
+                .andExpect(header().string(HttpCaching.INVALIDATE_HEADER, "/items/1"));
+    }
+
+    @Test
+    void testUpdateAll() throws Exception {
+        Mockito.when(bookingService.updateAll(2L, List.of(1L, 2L), BookingStatus.REJECTED)).thenReturn(List.of(
+                new BookingBatchResult(404, null, "Бронирование с идентификатором 1 не найдено."),
+                new BookingBatchResult(404, null, "Бронирование с идентификатором 2 не найдено.")
+        ));
+        mvc
+                .perform(patch("/bookings/batch?approved=false")
+                        .content(mapper.writeValueAsString(List.of(1L, 2L)))
+                        .header("X-Sharer-User-Id", 2L)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[1].status", is(404)))
+                .andExpect(header().doesNotExist(HttpCaching.INVALIDATE_HEADER));
+    }
+
     @Test
     void testGetAllByBooker() throws Exception {
         StandardBookingDto standardBookingDto1 = new StandardBookingDto(
@@ -179,4 +235,29 @@ class BookingControllerTest {
                 )
                 .andExpect(status().isOk());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetPageByBooker() throws Exception {
+        StandardBookingDto standardBookingDto = new StandardBookingDto(
+                1L,
+                LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(2),
+                BookingStatus.WAITING,
+                new BookerDto(1L),
+                new ShortItemDto(1L, "Name")
+        );
+        Mockito
+                .when(bookingService.getPageByBooker(1L, "ALL", "", 1))
+                .thenReturn(new BookingPage(List.of(standardBookingDto), "next"));
+        mvc
+                .perform(get("/bookings?state=ALL&cursor=&size=1")
+                        .header("X-Sharer-User-Id", 1L)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                )
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "next"))
+                .andExpect(jsonPath("$[0].id", is(1)));
+    }
+}
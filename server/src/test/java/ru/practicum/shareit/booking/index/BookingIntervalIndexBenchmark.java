@@ -0,0 +1,155 @@
+package ru.practicum.shareit.booking.index;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.dto.ShortBookingDto;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.datasource.PrimaryReads;
+import ru.practicum.shareit.item.data.Item;
+import ru.practicum.shareit.user.data.User;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static ru.practicum.shareit.utils.Creator.*;
+
+// Запуск: mvn -pl server test-compile, затем main() этого класса с тестовым classpath
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class BookingIntervalIndexBenchmark {
+
+    private static final long ITEM_ID = 1L;
+    private static final BookingStatus[] STATUSES = BookingStatus.values();
+
+    @Param({"10", "1000", "100000"})
+    private int bookingsPerItem;
+
+    private BookingIntervalIndex index;
+    private Connection connection;
+    private PreparedStatement lastQuery;
+    private PreparedStatement nextQuery;
+    private PreparedStatement overlapQuery;
+    private LocalDateTime now;
+    private LocalDateTime requestedStart;
+    private LocalDateTime requestedEnd;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:intervals_" + bookingsPerItem);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE bookings (id BIGINT PRIMARY KEY, start_date TIMESTAMP, end_date TIMESTAMP, "
+                    + "item_id BIGINT, booker_id BIGINT, status VARCHAR(50))");
+            statement.execute("CREATE INDEX idx_bookings_item_start ON bookings(item_id, start_date)");
+        }
+        // Непересекающиеся бронирования по дню, текущий момент посередине истории
+        Item item = createItem(ITEM_ID, "Дрель", "Простая дрель", true, 1L);
+        Random random = new Random(42);
+        LocalDateTime base = LocalDateTime.of(2020, 1, 1, 12, 0);
+        List<Booking> bookings = new ArrayList<>(bookingsPerItem);
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO bookings VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (long id = 1; id <= bookingsPerItem; id++) {
+                LocalDateTime start = base.plusDays(2 * id);
+                LocalDateTime end = start.plusDays(1);
+                User booker = createUser(2L + random.nextInt(100), "Booker", "booker@mail.ru");
+                BookingStatus status = STATUSES[random.nextInt(STATUSES.length)];
+                bookings.add(createBooking(id, start, end, item, status, booker));
+                insert.setLong(1, id);
+                insert.setTimestamp(2, Timestamp.valueOf(start));
+                insert.setTimestamp(3, Timestamp.valueOf(end));
+                insert.setLong(4, ITEM_ID);
+                insert.setLong(5, booker.getId());
+                insert.setString(6, status.name());
+                insert.addBatch();
+                if (id % 10_000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        now = base.plusDays(bookingsPerItem).plusHours(1);
+        requestedStart = now.plusHours(12);
+        requestedEnd = requestedStart.plusDays(3);
+
+        BookingRepository bookingRepository = Mockito.mock(BookingRepository.class);
+        Mockito.when(bookingRepository.findAllIntervalsByItemId(ITEM_ID)).thenReturn(bookings);
+        index = new BookingIntervalIndex(bookingRepository, new PrimaryReads(Mockito.mock(PlatformTransactionManager.class)), 10_000);
+        index.findLast(ITEM_ID, now);
+
+        lastQuery = connection.prepareStatement("SELECT id, booker_id FROM bookings "
+                + "WHERE item_id = ? AND start_date <= ? ORDER BY start_date DESC LIMIT 1");
+        nextQuery = connection.prepareStatement("SELECT id, booker_id FROM bookings "
+                + "WHERE item_id = ? AND start_date > ? ORDER BY start_date LIMIT 1");
+        overlapQuery = connection.prepareStatement("SELECT COUNT(*) FROM bookings "
+                + "WHERE item_id = ? AND status IN ('WAITING', 'APPROVED') AND start_date < ? AND end_date > ?");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public Optional<ShortBookingDto> indexLast() {
+        return index.findLast(ITEM_ID, now);
+    }
+
+    @Benchmark
+    public Optional<ShortBookingDto> indexNext() {
+        return index.findNext(ITEM_ID, now);
+    }
+
+    @Benchmark
+    public boolean indexIsTaken() {
+        return index.isTaken(ITEM_ID, requestedStart, requestedEnd);
+    }
+
+    @Benchmark
+    public ShortBookingDto sqlLast() throws SQLException {
+        lastQuery.setLong(1, ITEM_ID);
+        lastQuery.setTimestamp(2, Timestamp.valueOf(now));
+        return first(lastQuery);
+    }
+
+    @Benchmark
+    public ShortBookingDto sqlNext() throws SQLException {
+        nextQuery.setLong(1, ITEM_ID);
+        nextQuery.setTimestamp(2, Timestamp.valueOf(now));
+        return first(nextQuery);
+    }
+
+    @Benchmark
+    public boolean sqlIsFree() throws SQLException {
+        overlapQuery.setLong(1, ITEM_ID);
+        overlapQuery.setTimestamp(2, Timestamp.valueOf(requestedEnd));
+        overlapQuery.setTimestamp(3, Timestamp.valueOf(requestedStart));
+        try (ResultSet resultSet = overlapQuery.executeQuery()) {
+            resultSet.next();
+            return resultSet.getLong(1) == 0;
+        }
+    }
+
+    private static ShortBookingDto first(PreparedStatement statement) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            return resultSet.next() ? new ShortBookingDto(resultSet.getLong(1), resultSet.getLong(2)) : null;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(BookingIntervalIndexBenchmark.class.getSimpleName()).build()).run();
+    }
+}
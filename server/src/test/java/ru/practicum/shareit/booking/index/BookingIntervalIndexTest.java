@@ -0,0 +1,121 @@
+package ru.practicum.shareit.booking.index;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.dto.ShortBookingDto;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.datasource.PrimaryReads;
+import ru.practicum.shareit.item.data.Item;
+import ru.practicum.shareit.user.data.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static ru.practicum.shareit.utils.Creator.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingIntervalIndexTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2022, 12, 10, 12, 0);
+
+    private BookingIntervalIndex index;
+    private List<Booking> bookings;
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookingIntervalIndex(bookingRepository, new PrimaryReads(transactionManager), 2);
+        Item item = createItem(1L, "Дрель", "Простая дрель", true, 1L);
+        User booker = createUser(2L, "Booker", "booker@mail.ru");
+        bookings = List.of(
+                createBooking(1L, NOW.minusDays(5), NOW.minusDays(4), item, BookingStatus.APPROVED, booker),
+                createBooking(2L, NOW.minusDays(1), NOW.plusDays(1), item, BookingStatus.APPROVED, booker),
+                createBooking(3L, NOW.plusDays(2), NOW.plusDays(3), item, BookingStatus.REJECTED, booker),
+                createBooking(4L, NOW.plusDays(4), NOW.plusDays(5), item, BookingStatus.WAITING, booker)
+        );
+        Mockito.when(bookingRepository.findAllIntervalsByItemId(1L)).thenReturn(bookings);
+    }
+
+    @Test
+    void testFindLastAndNext() {
+        Assertions.assertEquals(Optional.of(new ShortBookingDto(2L, 2L)), index.findLast(1L, NOW));
+        Assertions.assertEquals(Optional.of(new ShortBookingDto(3L, 2L)), index.findNext(1L, NOW));
+        Assertions.assertEquals(Optional.empty(), index.findLast(1L, NOW.minusDays(6)));
+        Assertions.assertEquals(Optional.empty(), index.findNext(1L, NOW.plusDays(4)));
+    }
+
+    @Test
+    void testIsTaken() {
+        // Без загруженного снимка период не считается занятым и БД не читается
+        Assertions.assertFalse(index.isTaken(1L, NOW, NOW.plusHours(1)));
+        Mockito.verifyNoInteractions(bookingRepository);
+
+        index.findLast(1L, NOW);
+        Assertions.assertTrue(index.isTaken(1L, NOW, NOW.plusHours(1)));
+        Assertions.assertTrue(index.isTaken(1L, NOW.minusDays(6), NOW.plusDays(6)));
+        Assertions.assertFalse(index.isTaken(1L, NOW.minusDays(4), NOW.minusDays(1)));
+        // Отклонённое бронирование период не занимает
+        Assertions.assertFalse(index.isTaken(1L, NOW.plusDays(2), NOW.plusDays(3)));
+        Assertions.assertFalse(index.isTaken(1L, NOW.plusDays(5), NOW.plusDays(6)));
+    }
+
+    @Test
+    void testLoadsOnceUntilInvalidated() {
+        index.findLast(1L, NOW);
+        index.findNext(1L, NOW);
+        index.isTaken(1L, NOW, NOW.plusHours(1));
+        Mockito.verify(bookingRepository, Mockito.times(1)).findAllIntervalsByItemId(1L);
+
+        index.invalidate(1L);
+        index.findLast(1L, NOW);
+        Mockito.verify(bookingRepository, Mockito.times(2)).findAllIntervalsByItemId(1L);
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsedItem() {
+        Mockito.when(bookingRepository.findAllIntervalsByItemId(Mockito.longThat(id -> id != 1L))).thenReturn(List.of());
+
+        index.findLast(1L, NOW);
+        index.findLast(2L, NOW);
+        index.findLast(1L, NOW);
+        index.findLast(3L, NOW);
+        index.findLast(1L, NOW);
+        index.findLast(2L, NOW);
+
+        Mockito.verify(bookingRepository, Mockito.times(1)).findAllIntervalsByItemId(1L);
+        Mockito.verify(bookingRepository, Mockito.times(2)).findAllIntervalsByItemId(2L);
+    }
+
+    @Test
+    void testInvalidationDuringLoadSkipsOnlyThatItem() {
+        Mockito.when(bookingRepository.findAllIntervalsByItemId(1L)).thenAnswer(invocation -> {
+            // Изменение другой вещи во время загрузки снимок не отменяет
+            index.invalidate(2L);
+            return bookings;
+        });
+        Mockito.when(bookingRepository.findAllIntervalsByItemId(2L)).thenAnswer(invocation -> {
+            index.invalidate(2L);
+            return List.of();
+        });
+
+        index.findLast(1L, NOW);
+        index.findLast(1L, NOW);
+        index.findLast(2L, NOW);
+        index.findLast(2L, NOW);
+
+        Mockito.verify(bookingRepository, Mockito.times(1)).findAllIntervalsByItemId(1L);
+        Mockito.verify(bookingRepository, Mockito.times(2)).findAllIntervalsByItemId(2L);
+    }
+}
@@ -0,0 +1,155 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.dto.ItemBookingSummary;
+import ru.practicum.shareit.booking.model.dto.StandardBookingDto;
+import ru.practicum.shareit.booking.model.mapper.BookingMapper;
+import ru.practicum.shareit.item.data.Item;
+import ru.practicum.shareit.user.data.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static ru.practicum.shareit.utils.Creator.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class BookingRepositoryTest {
+
+    private static final int STATEMENTS_PER_PAGE = 1;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Statistics statistics;
+    private User owner;
+    private User booker;
+    private final Map<Long, Long> currentBookingIds = new HashMap<>();
+    private final Map<Long, Long> futureBookingIds = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        owner = entityManager.persist(createUser(null, "Owner", "owner@mail.ru"));
+        booker = entityManager.persist(createUser(null, "Booker", "booker@mail.ru"));
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 5; i++) {
+            Item item = createItem(0L, "Item " + i, "Desc " + i, true, owner.getId());
+            item.setId(null);
+            entityManager.persist(item);
+            persistBooking(now.minusDays(3 + i), now.minusDays(2 + i), item, BookingStatus.APPROVED);
+            currentBookingIds.put(item.getId(), persistBooking(now.minusHours(1), now.plusHours(1 + i), item, BookingStatus.APPROVED).getId());
+            futureBookingIds.put(item.getId(), persistBooking(now.plusDays(1 + i), now.plusDays(2 + i), item, BookingStatus.WAITING).getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testBookerPagesLoadInSingleStatement() {
+        PageRequest page = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "start"));
+        long bookerId = booker.getId();
+
+        assertStatementsPerPage(() -> bookingRepository.findAllByBooker(bookerId, page), 10);
+        assertStatementsPerPage(() -> bookingRepository.findAllByBookerAndStatus(bookerId, BookingStatus.WAITING, page), 5);
+        assertStatementsPerPage(() -> bookingRepository.findAllPastByBooker(bookerId, page), 5);
+        assertStatementsPerPage(() -> bookingRepository.findAllCurrentByBooker(bookerId, page), 5);
+        assertStatementsPerPage(() -> bookingRepository.findAllFutureByBooker(bookerId, page), 5);
+    }
+
+    @Test
+    void testOwnerPagesLoadInSingleStatement() {
+        PageRequest page = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "start"));
+        long ownerId = owner.getId();
+
+        assertStatementsPerPage(() -> bookingRepository.findAllByOwner(ownerId, page), 10);
+        assertStatementsPerPage(() -> bookingRepository.findAllByOwnerAndStatus(ownerId, BookingStatus.APPROVED, page), 10);
+        assertStatementsPerPage(() -> bookingRepository.findAllPastByOwner(ownerId, page), 5);
+        assertStatementsPerPage(() -> bookingRepository.findAllCurrentByOwner(ownerId, page), 5);
+        assertStatementsPerPage(() -> bookingRepository.findAllFutureByOwner(ownerId, page), 5);
+    }
+
+    @Test
+    void testLastAndNextBookingsLoadInSingleStatement() {
+        entityManager.clear();
+        statistics.clear();
+
+        List<ItemBookingSummary> summaries = bookingRepository.findLastAndNextByItemIds(currentBookingIds.keySet(), LocalDateTime.now());
+
+        Assertions.assertEquals(STATEMENTS_PER_PAGE, statistics.getPrepareStatementCount());
+        Assertions.assertEquals(10, summaries.size());
+        for (ItemBookingSummary summary : summaries) {
+            Assertions.assertEquals(booker.getId(), summary.getBookerId());
+            if (ItemBookingSummary.LAST.equals(summary.getKind())) {
+                Assertions.assertEquals(currentBookingIds.get(summary.getItemId()), summary.getId());
+            } else {
+                Assertions.assertEquals(ItemBookingSummary.NEXT, summary.getKind());
+                Assertions.assertEquals(futureBookingIds.get(summary.getItemId()), summary.getId());
+            }
+        }
+    }
+
+    @Test
+    void testKeysetPagesWalkAllBookingsInOrder() {
+        long bookerId = booker.getId();
+        List<Booking> expected = bookingRepository.findAllByBooker(
+                bookerId,
+                PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "start").and(Sort.by(Sort.Direction.DESC, "id")))
+        );
+        List<Booking> firstPage = bookingRepository.findAllByBooker(
+                bookerId,
+                PageRequest.of(0, 4, Sort.by(Sort.Direction.DESC, "start").and(Sort.by(Sort.Direction.DESC, "id")))
+        );
+
+        // Текущие бронирования начинаются одновременно, порядок между ними задаёт id
+        List<Long> walked = new ArrayList<>();
+        List<Booking> page = firstPage;
+        while (!page.isEmpty()) {
+            page.forEach(booking -> walked.add(booking.getId()));
+            Booking last = page.get(page.size() - 1);
+            entityManager.clear();
+            statistics.clear();
+            page = bookingRepository.findAllByBookerBefore(bookerId, last.getStart(), last.getId(), PageRequest.ofSize(4));
+            Assertions.assertEquals(STATEMENTS_PER_PAGE, statistics.getPrepareStatementCount());
+        }
+
+        Assertions.assertEquals(expected.stream().map(Booking::getId).collect(Collectors.toList()), walked);
+    }
+
+    private void assertStatementsPerPage(Supplier<List<Booking>> query, int expectedSize) {
+        entityManager.clear();
+        statistics.clear();
+
+        List<StandardBookingDto> bookings = query
+                .get()
+                .stream()
+                .map(BookingMapper::toStandardBookingDto)
+                .collect(Collectors.toList());
+
+        Assertions.assertEquals(expectedSize, bookings.size());
+        Assertions.assertEquals(STATEMENTS_PER_PAGE, statistics.getPrepareStatementCount());
+    }
+
+    private Booking persistBooking(LocalDateTime start, LocalDateTime end, Item item, BookingStatus status) {
+        Booking booking = createBooking(0L, start, end, item, status, booker);
+        booking.setId(null);
+        return entityManager.persist(booking);
+    }
+}
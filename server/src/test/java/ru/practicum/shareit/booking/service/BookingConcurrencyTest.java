@@ -0,0 +1,158 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.model.dto.StandardBookingDto;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.booking.BookingConflictException;
+import ru.practicum.shareit.item.data.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.data.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static ru.practicum.shareit.utils.Creator.createItem;
+import static ru.practicum.shareit.utils.Creator.createUser;
+
+@Slf4j
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "spring.datasource.url=jdbc:h2:mem:booking-conflicts;LOCK_TIMEOUT=10000;DB_CLOSE_ON_EXIT=FALSE"
+)
+class BookingConcurrencyTest {
+
+    private static final int ITEMS = 8;
+    private static final int SLOTS_PER_ITEM = 10;
+    private static final int CONTENDERS_PER_SLOT = 4;
+    private static final int THREADS = 16;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Test
+    void testConcurrentCreatesNeverDoubleBook() throws Exception {
+        User owner = userRepository.save(createUser(null, "Owner", "owner@conflicts.ru"));
+        List<User> bookers = new ArrayList<>();
+        for (int i = 0; i < CONTENDERS_PER_SLOT; i++) {
+            bookers.add(userRepository.save(createUser(null, "Booker " + i, "booker" + i + "@conflicts.ru")));
+        }
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            Item item = createItem(0L, "Item " + i, "Desc " + i, true, owner.getId());
+            item.setId(null);
+            items.add(itemRepository.save(item));
+        }
+
+        // Соседние слоты пересекаются на полдня, поэтому соревнуются и одинаковые, и смежные запросы
+        LocalDateTime base = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (Item item : items) {
+            for (int slot = 0; slot < SLOTS_PER_ITEM; slot++) {
+                LocalDateTime start = base.plusHours(12L * slot);
+                LocalDateTime end = start.plusDays(1);
+                for (User booker : bookers) {
+                    BookingRequestDto request = new BookingRequestDto(item.getId(), start, end);
+                    tasks.add(() -> {
+                        try {
+                            bookingService.create(booker.getId(), request);
+                            return true;
+                        } catch (BookingConflictException e) {
+                            return false;
+                        }
+                    });
+                }
+            }
+        }
+
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long started = System.nanoTime();
+        try {
+            for (Future<Boolean> future : executor.invokeAll(tasks)) {
+                if (future.get()) {
+                    created.incrementAndGet();
+                } else {
+                    conflicts.incrementAndGet();
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        log.info("Обработано {} запросов на бронирование за {} мс ({} запросов/с): создано {}, конфликтов {}.",
+                tasks.size(), elapsedMillis, tasks.size() * 1000L / elapsedMillis, created.get(), conflicts.get());
+
+        Map<Long, List<Booking>> bookingsByItem = bookingRepository
+                .findAll()
+                .stream()
+                .filter(booking -> items.stream().anyMatch(item -> item.getId().equals(booking.getItem().getId())))
+                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
+        for (List<Booking> bookings : bookingsByItem.values()) {
+            bookings.sort(Comparator.comparing(Booking::getStart));
+            for (int i = 1; i < bookings.size(); i++) {
+                Assertions.assertFalse(
+                        bookings.get(i).getStart().isBefore(bookings.get(i - 1).getEnd()),
+                        "Пересекающиеся бронирования " + bookings.get(i - 1).getId() + " и " + bookings.get(i).getId()
+                );
+            }
+        }
+        int persisted = bookingsByItem.values().stream().mapToInt(List::size).sum();
+        Assertions.assertEquals(created.get(), persisted);
+        Assertions.assertEquals(tasks.size(), created.get() + conflicts.get());
+        Assertions.assertEquals(ITEMS, bookingsByItem.size());
+    }
+
+    @Test
+    void testRejectedBookingCannotBeApprovedOverNewBooking() {
+        User owner = userRepository.save(createUser(null, "Owner", "owner@rejected.ru"));
+        User first = userRepository.save(createUser(null, "First", "first@rejected.ru"));
+        User second = userRepository.save(createUser(null, "Second", "second@rejected.ru"));
+        Item item = createItem(0L, "Item", "Desc", true, owner.getId());
+        item.setId(null);
+        item = itemRepository.save(item);
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+        BookingRequestDto request = new BookingRequestDto(item.getId(), start, start.plusDays(1));
+
+        StandardBookingDto rejected = (StandardBookingDto) bookingService.create(first.getId(), request);
+        bookingService.update(owner.getId(), rejected.getId(), BookingStatus.REJECTED);
+        // Отклонённое бронирование не занимает период
+        StandardBookingDto approved = (StandardBookingDto) bookingService.create(second.getId(), request);
+        bookingService.update(owner.getId(), approved.getId(), BookingStatus.APPROVED);
+
+        BookingConflictException exception = Assertions.assertThrows(
+                BookingConflictException.class,
+                () -> bookingService.update(owner.getId(), rejected.getId(), BookingStatus.APPROVED)
+        );
+        Assertions.assertEquals(
+                String.format("Вещь с идентификатором %d уже забронирована на указанный период.", item.getId()),
+                exception.getMessage()
+        );
+        Assertions.assertEquals(
+                409,
+                bookingService.updateAll(owner.getId(), List.of(rejected.getId()), BookingStatus.WAITING).get(0).getStatus()
+        );
+        Assertions.assertEquals(BookingStatus.REJECTED, bookingRepository.findById(rejected.getId()).orElseThrow().getStatus());
+    }
+}
@@ -0,0 +1,155 @@
+package ru.practicum.shareit.booking.service;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.dto.BookingBatchResult;
+import ru.practicum.shareit.booking.model.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.model.dto.StandardBookingDto;
+import ru.practicum.shareit.datasource.PrimaryReads;
+import ru.practicum.shareit.item.data.Item;
+import ru.practicum.shareit.outbox.OutboxWriter;
+import ru.practicum.shareit.user.data.User;
+import ru.practicum.shareit.validation.EntityValidator;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static ru.practicum.shareit.utils.Creator.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({BookingServiceImpl.class, EntityValidator.class, BookingIntervalIndex.class, PrimaryReads.class})
+class BookingServiceStatementsTest {
+
+    // Пользователь, вещь с блокировкой, проверка пересечений и вставка бронирования
+    private static final int CREATE_STATEMENTS = 4;
+    // Пользователь, бронирование вместе с вещью и обновление статуса
+    private static final int UPDATE_STATEMENTS = 3;
+    // Пользователь, вещи с блокировкой, пересечения для всех вещей и один пакет вставок
+    private static final int CREATE_ALL_STATEMENTS = 4;
+    // Пользователь, бронирования вместе с вещами и один пакет обновлений
+    private static final int UPDATE_ALL_STATEMENTS = 3;
+    private static final int BATCH_SIZE = 20;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private TestEntityManager entityManager;
+    // Строки outbox вставляются одним пакетом перед фиксацией транзакции, а транзакция теста не фиксируется
+    @MockBean
+    private OutboxWriter outboxWriter;
+
+    private Statistics statistics;
+    private User owner;
+    private User booker;
+    private Item item;
+    private Item otherItem;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        owner = entityManager.persist(createUser(null, "Owner", "owner@mail.ru"));
+        booker = entityManager.persist(createUser(null, "Booker", "booker@mail.ru"));
+        item = createItem(0L, "Дрель", "Простая дрель", true, owner.getId());
+        item.setId(null);
+        entityManager.persist(item);
+        otherItem = createItem(0L, "Пила", "Простая пила", true, owner.getId());
+        otherItem.setId(null);
+        entityManager.persist(otherItem);
+        // Блок идентификаторов бронирований выбирается из последовательности заранее и в подсчёт не попадает
+        Booking past = createBooking(0L, LocalDateTime.now().minusDays(10), LocalDateTime.now().minusDays(9), item, BookingStatus.APPROVED, booker);
+        past.setId(null);
+        entityManager.persist(past);
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+    }
+
+    @Test
+    void testCreateStatements() {
+        BookingRequestDto bookingRequestDto = new BookingRequestDto(
+                item.getId(),
+                LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(2)
+        );
+
+        bookingService.create(booker.getId(), bookingRequestDto);
+        entityManager.flush();
+
+        Assertions.assertEquals(CREATE_STATEMENTS, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testUpdateStatements() {
+        BookingRequestDto bookingRequestDto = new BookingRequestDto(
+                item.getId(),
+                LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(2)
+        );
+        long bookingId = ((StandardBookingDto) bookingService.create(booker.getId(), bookingRequestDto)).getId();
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        bookingService.update(owner.getId(), bookingId, BookingStatus.APPROVED);
+        entityManager.flush();
+
+        Assertions.assertEquals(UPDATE_STATEMENTS, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testCreateAllStatements() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<BookingRequestDto> bookingRequestDtos = IntStream
+                .range(0, BATCH_SIZE)
+                .mapToObj(i -> new BookingRequestDto(
+                        i % 2 == 0 ? item.getId() : otherItem.getId(),
+                        start.plusDays(i),
+                        start.plusDays(i).plusHours(1)
+                ))
+                .collect(Collectors.toList());
+
+        List<BookingBatchResult> results = bookingService.createAll(booker.getId(), bookingRequestDtos);
+        entityManager.flush();
+
+        Assertions.assertTrue(results.stream().allMatch(result -> result.getStatus() == 200));
+        Assertions.assertEquals(BATCH_SIZE, statistics.getEntityInsertCount());
+        Assertions.assertEquals(CREATE_ALL_STATEMENTS, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testUpdateAllStatements() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<BookingRequestDto> bookingRequestDtos = IntStream
+                .range(0, BATCH_SIZE)
+                .mapToObj(i -> new BookingRequestDto(item.getId(), start.plusDays(i), start.plusDays(i).plusHours(1)))
+                .collect(Collectors.toList());
+        List<Long> bookingIds = bookingService
+                .createAll(booker.getId(), bookingRequestDtos)
+                .stream()
+                .map(result -> result.getBooking().getId())
+                .collect(Collectors.toList());
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        List<BookingBatchResult> results = bookingService.updateAll(owner.getId(), bookingIds, BookingStatus.APPROVED);
+        entityManager.flush();
+
+        Assertions.assertTrue(results.stream().allMatch(result -> result.getStatus() == 200));
+        Assertions.assertEquals(BATCH_SIZE, statistics.getEntityUpdateCount());
+        Assertions.assertEquals(UPDATE_ALL_STATEMENTS, statistics.getPrepareStatementCount());
+    }
+}
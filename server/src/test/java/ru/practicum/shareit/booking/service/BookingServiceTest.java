@@ -4,31 +4,48 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.dto.BookingBatchResult;
 import ru.practicum.shareit.booking.model.dto.BookingDto;
+import ru.practicum.shareit.booking.model.dto.BookingPage;
 import ru.practicum.shareit.booking.model.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.model.mapper.BookingMapper;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.datasource.PrimaryReads;
+import ru.practicum.shareit.event.data.EventType;
+import ru.practicum.shareit.event.data.UserEvent;
 import ru.practicum.shareit.exception.UnsupportedStateException;
 import ru.practicum.shareit.exception.booking.BookingBadRequestException;
+import ru.practicum.shareit.exception.booking.BookingConflictException;
 import ru.practicum.shareit.exception.booking.BookingNotFoundException;
 import ru.practicum.shareit.exception.item.ItemBadRequestException;
 import ru.practicum.shareit.exception.item.ItemNotFoundException;
 import ru.practicum.shareit.exception.user.UserNotFoundException;
 import ru.practicum.shareit.item.data.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.outbox.OutboxWriter;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.data.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.validation.EntityValidator;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static ru.practicum.shareit.utils.Creator.*;
 
@@ -37,6 +54,8 @@ class BookingServiceTest {
 
     private BookingService bookingService;
 
+    private BookingIntervalIndex bookingIntervalIndex;
+
     @Mock
     private BookingRepository bookingRepository;
 
@@ -46,9 +65,29 @@ class BookingServiceTest {
     @Mock
     private ItemRepository itemRepository;
 
+    @Mock
+    private ItemRequestRepository itemRequestRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private OutboxWriter outboxWriter;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @BeforeEach
     private void initBookingService() {
-        bookingService = new BookingServiceImpl(bookingRepository, userRepository, itemRepository);
+        PrimaryReads primaryReads = new PrimaryReads(transactionManager);
+        bookingIntervalIndex = new BookingIntervalIndex(bookingRepository, primaryReads, 100);
+        bookingService = new BookingServiceImpl(
+                bookingRepository,
+                new EntityValidator(userRepository, itemRepository, bookingRepository, itemRequestRepository, primaryReads),
+                bookingIntervalIndex,
+                eventPublisher,
+                outboxWriter
+        );
     }
 
     @Test
@@ -68,10 +107,8 @@ class BookingServiceTest {
         );
         BookingRequestDto bookingRequestDto1 = new BookingRequestDto(1L, start, end);
 
-        Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
-        Mockito.when(itemRepository.existsById(Mockito.anyLong())).thenReturn(true);
-        Mockito.when(itemRepository.getReferenceById(Mockito.anyLong())).thenReturn(item1);
-        Mockito.when(userRepository.getReferenceById(Mockito.anyLong())).thenReturn(user1);
+        Mockito.when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user1));
+        Mockito.when(itemRepository.findForUpdateById(Mockito.anyLong())).thenReturn(Optional.of(item1));
         Mockito.when(bookingRepository.save(Mockito.any())).thenReturn(booking1);
 
         BookingDto expectedBookingDto = BookingMapper.toStandardBookingDto(booking1);
@@ -87,8 +124,8 @@ class BookingServiceTest {
 
         BookingRequestDto bookingRequestDto1 = new BookingRequestDto(1L, start, end);
 
-        Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
-        Mockito.when(itemRepository.existsById(Mockito.anyLong())).thenReturn(false);
+        Mockito.when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(createUser(1L, "Name 1", "email1@mail.ru")));
+        Mockito.when(itemRepository.findForUpdateById(Mockito.anyLong())).thenReturn(Optional.empty());
 
         ItemNotFoundException exception = Assertions.assertThrows(
                 ItemNotFoundException.class,
@@ -106,9 +143,8 @@ class BookingServiceTest {
 
         BookingRequestDto bookingRequestDto1 = new BookingRequestDto(1L, start, end);
 
-        Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
-        Mockito.when(itemRepository.existsById(Mockito.anyLong())).thenReturn(true);
-        Mockito.when(itemRepository.getReferenceById(Mockito.anyLong())).thenReturn(item1);
+        Mockito.when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(createUser(1L, "Name 1", "email1@mail.ru")));
+        Mockito.when(itemRepository.findForUpdateById(Mockito.anyLong())).thenReturn(Optional.of(item1));
 
         final ItemBadRequestException exception = Assertions.assertThrows(
                 ItemBadRequestException.class,
@@ -134,10 +170,8 @@ class BookingServiceTest {
         );
         BookingRequestDto bookingRequestDto1 = new BookingRequestDto(1L, start, end);
 
-        Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
-        Mockito.when(itemRepository.existsById(Mockito.anyLong())).thenReturn(true);
-        Mockito.when(itemRepository.getReferenceById(Mockito.anyLong())).thenReturn(item1);
-        Mockito.when(userRepository.getReferenceById(Mockito.anyLong())).thenReturn(user1);
+        Mockito.when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user1));
+        Mockito.when(itemRepository.findForUpdateById(Mockito.anyLong())).thenReturn(Optional.of(item1));
 
         ItemNotFoundException exception = Assertions.assertThrows(
                 ItemNotFoundException.class,
@@ -147,6 +181,59 @@ class BookingServiceTest {
         Assertions.assertEquals("Невозможно завести бронь на свою же вещь.", exception.getMessage());
     }
 
+    @Test
+    void testCreateWithOverlappingBooking() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        LocalDateTime end = LocalDateTime.now().plusDays(2);
+
+        Item item1 = createItem(1L, "Name 1", "Desc 1", true, 2L);
+        User user1 = createUser(1L, "Name 1", "email1@mail.ru");
+        BookingRequestDto bookingRequestDto1 = new BookingRequestDto(1L, start, end);
+
+        Mockito.when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user1));
+        Mockito.when(itemRepository.findForUpdateById(Mockito.anyLong())).thenReturn(Optional.of(item1));
+        Mockito
+                .when(bookingRepository.existsOverlapping(
+                        1L,
+                        EnumSet.of(BookingStatus.WAITING, BookingStatus.APPROVED),
+                        start,
+                        end
+                ))
+                .thenReturn(true);
+
+        BookingConflictException exception = Assertions.assertThrows(
+                BookingConflictException.class,
+                () -> bookingService.create(1L, bookingRequestDto1)
+        );
+
+        Assertions.assertEquals("Вещь с идентификатором 1 уже забронирована на указанный период.", exception.getMessage());
+        Mockito.verify(bookingRepository, Mockito.never()).save(Mockito.any());
+    }
+
+    @Test
+    void testCreateRejectsPeriodTakenInIndexWithoutLockingItem() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        LocalDateTime end = LocalDateTime.now().plusDays(2);
+
+        Item item1 = createItem(1L, "Name 1", "Desc 1", true, 2L);
+        User user1 = createUser(1L, "Name 1", "email1@mail.ru");
+        User user3 = createUser(3L, "Name 3", "email3@mail.ru");
+        Booking booking = createBooking(1L, start.minusHours(1), end.minusHours(1), item1, BookingStatus.APPROVED, user3);
+
+        Mockito.when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user1));
+        Mockito.when(bookingRepository.findAllIntervalsByItemId(1L)).thenReturn(List.of(booking));
+        bookingIntervalIndex.findLast(1L, start);
+
+        BookingConflictException exception = Assertions.assertThrows(
+                BookingConflictException.class,
+                () -> bookingService.create(1L, new BookingRequestDto(1L, start, end))
+        );
+
+        Assertions.assertEquals("Вещь с идентификатором 1 уже забронирована на указанный период.", exception.getMessage());
+        Mockito.verify(itemRepository, Mockito.never()).findForUpdateById(Mockito.anyLong());
+        Mockito.verify(bookingRepository, Mockito.never()).save(Mockito.any());
+    }
+
     @Test
     void testUpdate() {
         LocalDateTime start = LocalDateTime.now().plusDays(1);
@@ -164,19 +251,23 @@ class BookingServiceTest {
         );
 
         Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
-        Mockito.when(bookingRepository.existsById(Mockito.anyLong())).thenReturn(true);
-        Mockito.when(bookingRepository.getReferenceById(Mockito.anyLong())).thenReturn(booking1);
+        Mockito.when(bookingRepository.findWithItemById(Mockito.anyLong())).thenReturn(Optional.of(booking1));
 
         BookingDto expectedBookingDto = BookingMapper.toStandardBookingDto(booking1);
         BookingDto actualBookingDto = bookingService.update(2L, 1L, BookingStatus.WAITING);
 
         Assertions.assertEquals(expectedBookingDto, actualBookingDto);
+        ArgumentCaptor<UserEvent> event = ArgumentCaptor.forClass(UserEvent.class);
+        Mockito.verify(eventPublisher).publishEvent(event.capture());
+        Assertions.assertEquals(1L, event.getValue().getUserId());
+        Assertions.assertEquals(EventType.BOOKING_STATUS_CHANGED, event.getValue().getEvent().getType());
+        Assertions.assertEquals(1L, event.getValue().getEvent().getBookingId());
     }
 
     @Test
     void testUpdateBookingNotExist() {
         Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
-        Mockito.when(bookingRepository.existsById(Mockito.anyLong())).thenReturn(false);
+        Mockito.when(bookingRepository.findWithItemById(Mockito.anyLong())).thenReturn(Optional.empty());
 
         BookingNotFoundException exception = Assertions.assertThrows(
                 BookingNotFoundException.class,
@@ -202,8 +293,7 @@ class BookingServiceTest {
         );
 
         Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
-        Mockito.when(bookingRepository.existsById(Mockito.anyLong())).thenReturn(true);
-        Mockito.when(bookingRepository.getReferenceById(Mockito.anyLong())).thenReturn(booking1);
+        Mockito.when(bookingRepository.findWithItemById(Mockito.anyLong())).thenReturn(Optional.of(booking1));
 
         BookingNotFoundException exception = Assertions.assertThrows(
                 BookingNotFoundException.class,
@@ -229,8 +319,7 @@ class BookingServiceTest {
         );
 
         Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
-        Mockito.when(bookingRepository.existsById(Mockito.anyLong())).thenReturn(true);
-        Mockito.when(bookingRepository.getReferenceById(Mockito.anyLong())).thenReturn(booking1);
+        Mockito.when(bookingRepository.findWithItemById(Mockito.anyLong())).thenReturn(Optional.of(booking1));
 
         final BookingBadRequestException exception = Assertions.assertThrows(
                 BookingBadRequestException.class,
@@ -240,6 +329,73 @@ class BookingServiceTest {
         Assertions.assertEquals("Статус бронирования 1 уже подтверждён.", exception.getMessage());
     }
 
+    @Test
+    void testCreateAll() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        User booker = createUser(1L, "Name 1", "email1@mail.ru");
+        Item item1 = createItem(1L, "Name 1", "Desc 1", true, 2L);
+        Item item2 = createItem(2L, "Name 2", "Desc 2", false, 2L);
+        Booking existing = createBooking(5L, start.plusDays(5), start.plusDays(6), item1, BookingStatus.APPROVED, createUser(3L, "Name 3", "email3@mail.ru"));
+        List<BookingRequestDto> bookingRequestDtos = List.of(
+                new BookingRequestDto(1L, start, start.plusDays(1)),
+                // Пересекается с предыдущей записью пакета
+                new BookingRequestDto(1L, start.plusHours(12), start.plusDays(2)),
+                new BookingRequestDto(3L, start, start.plusDays(1)),
+                new BookingRequestDto(2L, start, start.plusDays(1)),
+                // Пересекается с уже сохранённым бронированием
+                new BookingRequestDto(1L, start.plusDays(5).plusHours(1), start.plusDays(7))
+        );
+
+        Mockito.when(userRepository.findById(1L)).thenReturn(Optional.of(booker));
+        Mockito.when(itemRepository.findAllForUpdateByIdIn(Mockito.any())).thenReturn(List.of(item1, item2));
+        Mockito.when(bookingRepository.findAllOverlapping(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(List.of(existing));
+        Mockito.when(bookingRepository.save(Mockito.any())).thenAnswer(invocation -> {
+            Booking booking = invocation.getArgument(0);
+            booking.setId(10L);
+            return booking;
+        });
+
+        List<BookingBatchResult> results = bookingService.createAll(1L, bookingRequestDtos);
+
+        Assertions.assertEquals(List.of(200, 409, 404, 400, 409), results.stream().map(BookingBatchResult::getStatus).collect(Collectors.toList()));
+        Assertions.assertEquals(10L, results.get(0).getBooking().getId());
+        Assertions.assertEquals(BookingStatus.WAITING, results.get(0).getBooking().getStatus());
+        Assertions.assertEquals("Вещь с идентификатором 3 не найдена.", results.get(2).getError());
+        Mockito.verify(bookingRepository, Mockito.times(1)).save(Mockito.any());
+    }
+
+    @Test
+    void testCreateAllTooLarge() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<BookingRequestDto> bookingRequestDtos = Collections.nCopies(101, new BookingRequestDto(1L, start, start.plusDays(1)));
+
+        BookingBadRequestException exception = Assertions.assertThrows(
+                BookingBadRequestException.class,
+                () -> bookingService.createAll(1L, bookingRequestDtos));
+
+        Assertions.assertEquals("В пакете должно быть от 1 до 100 записей.", exception.getMessage());
+    }
+
+    @Test
+    void testUpdateAll() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Item item1 = createItem(1L, "Name 1", "Desc 1", true, 2L);
+        User user1 = createUser(1L, "Name 1", "email1@mail.ru");
+        Booking waiting = createBooking(1L, start, start.plusDays(1), item1, BookingStatus.WAITING, user1);
+        Booking approved = createBooking(2L, start.plusDays(2), start.plusDays(3), item1, BookingStatus.APPROVED, user1);
+
+        Mockito.when(userRepository.existsById(2L)).thenReturn(true);
+        Mockito.when(bookingRepository.findAllWithItemByIdIn(Mockito.any())).thenReturn(List.of(waiting, approved));
+
+        List<BookingBatchResult> results = bookingService.updateAll(2L, List.of(1L, 2L, 3L), BookingStatus.APPROVED);
+
+        Assertions.assertEquals(List.of(200, 400, 404), results.stream().map(BookingBatchResult::getStatus).collect(Collectors.toList()));
+        Assertions.assertEquals(BookingStatus.APPROVED, waiting.getStatus());
+        Assertions.assertEquals("Статус бронирования 2 уже подтверждён.", results.get(1).getError());
+        Assertions.assertEquals("Бронирование с идентификатором 3 не найдено.", results.get(2).getError());
+    }
+
     @Test
     void testGet() {
         LocalDateTime start = LocalDateTime.now().plusDays(1);
@@ -565,4 +721,73 @@ class BookingServiceTest {
 
         Assertions.assertEquals("Unknown state: UNSUPPORTED_STATUS", exception.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetFirstPageByBooker() {
+        Item item1 = createItem(1L, "Name 1", "Desc 1", true, 2L);
+        User user1 = createUser(1L, "Name 1", "email1@mail.ru");
+        Booking booking1 = createBooking(
+                1L,
+                LocalDateTime.of(2022, 11, 24, 15, 10, 10),
+                LocalDateTime.of(2022, 11, 25, 15, 10, 10),
+                item1,
+                BookingStatus.WAITING,
+                user1
+        );
+
+        Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
+        Mockito
+                .when(bookingRepository.findAllByBooker(
+                        1L,
+                        PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "start").and(Sort.by(Sort.Direction.DESC, "id")))
+                ))
+                .thenReturn(List.of(booking1));
+
+        BookingPage actualPage = bookingService.getPageByBooker(1L, "ALL", "", 1);
+
+        Assertions.assertEquals(List.of(BookingMapper.toStandardBookingDto(booking1)), actualPage.getBookings());
+        Assertions.assertEquals(new KeysetCursor(booking1.getStart(), booking1.getId()).encode(), actualPage.getNextCursor());
+    }
+
+    @Test
+    void testGetNextPageByOwner() {
+        Item item1 = createItem(1L, "Name 1", "Desc 1", true, 1L);
+        User user1 = createUser(2L, "Name 2", "email2@mail.ru");
+        Booking booking1 = createBooking(
+                1L,
+                LocalDateTime.of(2022, 11, 24, 15, 10, 10),
+                LocalDateTime.of(2022, 11, 25, 15, 10, 10),
+                item1,
+                BookingStatus.APPROVED,
+                user1
+        );
+        KeysetCursor cursor = new KeysetCursor(LocalDateTime.of(2022, 11, 26, 15, 10, 10), 5L);
+
+        Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
+        Mockito
+                .when(bookingRepository.findAllByOwnerAndStatusBefore(
+                        1L,
+                        BookingStatus.APPROVED,
+                        cursor.getTimestamp(),
+                        cursor.getId(),
+                        PageRequest.ofSize(2)
+                ))
+                .thenReturn(List.of(booking1));
+
+        BookingPage actualPage = bookingService.getPageByOwner(1L, "APPROVED", cursor.encode(), 2);
+
+        Assertions.assertEquals(List.of(BookingMapper.toStandardBookingDto(booking1)), actualPage.getBookings());
+        Assertions.assertNull(actualPage.getNextCursor());
+    }
+
+    @Test
+    void testGetPageByBookerWithIncorrectCursor() {
+        Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
+
+        final BookingBadRequestException exception = Assertions.assertThrows(
+                BookingBadRequestException.class,
+                () -> bookingService.getPageByBooker(1L, "ALL", "broken", 5));
+
+        Assertions.assertEquals("Некорректный курсор broken.", exception.getMessage());
+    }
+}
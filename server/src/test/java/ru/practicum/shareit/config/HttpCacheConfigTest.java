@@ -0,0 +1,43 @@
+package ru.practicum.shareit.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.user.data.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:http-cache;DB_CLOSE_ON_EXIT=FALSE")
+@AutoConfigureMockMvc
+class HttpCacheConfigTest {
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void testUnchangedUserIsNotModified() throws Exception {
+        long userId = userService.create(new UserDto(0L, "Pavel", "pavel@etag.ru")).getId();
+
+        String etag = mvc
+                .perform(get("/users/{userId}", userId))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        mvc
+                .perform(get("/users/{userId}", userId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+}
@@ -0,0 +1,129 @@
+package ru.practicum.shareit.datasource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Основная БД и две реплики - отдельные базы H2 без репликации: по содержимому ответа видно, откуда прочитаны данные
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing;DB_CLOSE_ON_EXIT=FALSE",
+        "shareit.datasource.replicas[0].url=" + ReadReplicaRoutingTest.REPLICA_A,
+        "shareit.datasource.replicas[1].url=" + ReadReplicaRoutingTest.REPLICA_B,
+        "shareit.datasource.read-your-writes-window=500ms"
+})
+@AutoConfigureMockMvc
+class ReadReplicaRoutingTest {
+
+    static final String REPLICA_A = "jdbc:h2:mem:routing-a;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_B = "jdbc:h2:mem:routing-b;DB_CLOSE_DELAY=-1";
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Autowired
+    private MockMvc mvc;
+
+    // На реплики схема приходит репликацией, здесь её создают миграции
+    @BeforeAll
+    static void migrateReplicas() {
+        for (String url : List.of(REPLICA_A, REPLICA_B)) {
+            Flyway.configure()
+                    .dataSource(url, "test", "test")
+                    .locations("classpath:db/migration", "classpath:ru/practicum/shareit/migration")
+                    .load()
+                    .migrate();
+        }
+    }
+
+    @Test
+    void testReadsGoToReplicasExceptForRecentWriter() throws Exception {
+        String created = mvc
+                .perform(post("/users")
+                        .content("{\"name\": \"Primary\", \"email\": \"primary@routing.ru\"}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        long userId = mapper.readTree(created).path("id").asLong();
+        copyUser(REPLICA_A, userId, "Replica A");
+        copyUser(REPLICA_B, userId, "Replica B");
+
+        // Чтения распределяются по репликам по кругу
+        Set<String> names = new HashSet<>();
+        names.add(getUserName(userId));
+        names.add(getUserName(userId));
+        Assertions.assertEquals(Set.of("Replica A", "Replica B"), names);
+
+        // Кэш пользователя заполняется из основной БД
+        Assertions.assertEquals("Primary", getCachedUserName(userId, userId + 1));
+
+        // Шлюз изменяет пользователя без заголовка, автор изменения берётся из пути
+        mvc
+                .perform(patch("/users/{userId}", userId)
+                        .content("{\"name\": \"Primary Update\"}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        // Автор изменения читает из основной БД, остальные пользователи - с реплик
+        Assertions.assertEquals("Primary Update", getUserName(userId));
+        Assertions.assertTrue(getUserName(userId + 1).startsWith("Replica"));
+        // Сброшенный кэш другой пользователь заполняет из основной БД, а не с отстающей реплики
+        Assertions.assertEquals("Primary Update", getCachedUserName(userId, userId + 1));
+
+        Thread.sleep(700);
+        Assertions.assertTrue(getUserName(userId).startsWith("Replica"));
+    }
+
+    private String getUserName(long requesterId) throws Exception {
+        String body = mvc
+                .perform(get("/users").header(USER_HEADER, requesterId))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+        JsonNode users = mapper.readTree(body);
+        Assertions.assertEquals(1, users.size());
+        return users.get(0).path("name").asText();
+    }
+
+    private String getCachedUserName(long userId, long requesterId) throws Exception {
+        String body = mvc
+                .perform(get("/users/{userId}", userId).header(USER_HEADER, requesterId))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+        return mapper.readTree(body).path("name").asText();
+    }
+
+    private static void copyUser(String url, long id, String name) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url, "test", "test");
+             PreparedStatement statement = connection.prepareStatement("INSERT INTO users (id, name, email) VALUES (?, ?, ?)")) {
+            statement.setLong(1, id);
+            statement.setString(2, name);
+            statement.setString(3, "primary@routing.ru");
+            statement.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package ru.practicum.shareit.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+    private final ReadYourWritesGuard guard = new ReadYourWritesGuard(Duration.ofMinutes(1));
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager
+                    .getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        guard.setCurrentUser(null);
+        pools.forEach(HikariDataSource::close);
+    }
+
+    @Test
+    void testWritesAndReadsOutsideTransactionGoToPrimary() {
+        ReadWriteRoutingDataSource routing = routing(ReplicaProperties.Balancing.ROUND_ROBIN);
+
+        Assertions.assertEquals(ReadWriteRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+        transaction(false);
+        Assertions.assertEquals(ReadWriteRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void testRoundRobinAlternatesReplicas() {
+        ReadWriteRoutingDataSource routing = routing(ReplicaProperties.Balancing.ROUND_ROBIN);
+        transaction(true);
+
+        List<Object> keys = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            keys.add(routing.determineCurrentLookupKey());
+        }
+
+        Assertions.assertEquals(List.of("replica-0", "replica-1", "replica-0", "replica-1"), keys);
+    }
+
+    @Test
+    void testLeastConnectionsPrefersIdleReplica() throws Exception {
+        ReadWriteRoutingDataSource routing = routing(ReplicaProperties.Balancing.LEAST_CONNECTIONS);
+        transaction(true);
+
+        // Соединение реплики 0 занято долгим чтением
+        try (Connection ignored = pools.get(1).getConnection()) {
+            for (int i = 0; i < 3; i++) {
+                Assertions.assertEquals("replica-1", routing.determineCurrentLookupKey());
+            }
+        }
+    }
+
+    @Test
+    void testWriterReadsFromPrimaryWithinWindow() {
+        ReadWriteRoutingDataSource routing = routing(ReplicaProperties.Balancing.ROUND_ROBIN);
+        transaction(true);
+        guard.recordWrite(1L);
+
+        guard.setCurrentUser(1L);
+        Assertions.assertEquals(ReadWriteRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+        guard.setCurrentUser(2L);
+        Assertions.assertNotEquals(ReadWriteRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void testCacheLoadsReadFromPrimary() {
+        ReadWriteRoutingDataSource routing = routing(ReplicaProperties.Balancing.ROUND_ROBIN);
+        PlatformTransactionManager transactionManager = Mockito.mock(PlatformTransactionManager.class);
+        PrimaryReads primaryReads = new PrimaryReads(transactionManager);
+        transaction(true);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Соединение ещё не выбрано: загрузка направляет транзакцию в основную БД
+        Assertions.assertEquals(ReadWriteRoutingDataSource.PRIMARY, primaryReads.call(routing::determineCurrentLookupKey));
+        Mockito.verifyNoInteractions(transactionManager);
+
+        // Транзакция уже читает с реплики: загрузка выполняется в отдельной транзакции
+        Assertions.assertNotEquals(ReadWriteRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+        Assertions.assertTrue(ReadWriteRoutingDataSource.isCurrentTransactionOnReplica());
+        Assertions.assertEquals("loaded", primaryReads.call(() -> "loaded"));
+        Mockito.verify(transactionManager).getTransaction(Mockito.argThat(definition ->
+                definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW && !definition.isReadOnly()));
+    }
+
+    private ReadWriteRoutingDataSource routing(ReplicaProperties.Balancing balancing) {
+        HikariDataSource primary = pool("primary");
+        List<HikariDataSource> replicas = List.of(pool("replica-0"), pool("replica-1"));
+        return new ReadWriteRoutingDataSource(primary, replicas, balancing, guard);
+    }
+
+    private HikariDataSource pool(String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl("jdbc:h2:mem:routing-" + name);
+        dataSource.setMinimumIdle(1);
+        pools.add(dataSource);
+        return dataSource;
+    }
+
+    private static void transaction(boolean readOnly) {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+}
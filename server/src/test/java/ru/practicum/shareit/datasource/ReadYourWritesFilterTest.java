@@ -0,0 +1,58 @@
+package ru.practicum.shareit.datasource;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+class ReadYourWritesFilterTest {
+
+    private final ReadYourWritesGuard guard = new ReadYourWritesGuard(Duration.ofMinutes(1));
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(guard);
+
+    @Test
+    void testWriterIsPinnedBeforeResponseIsWritten() throws Exception {
+        AtomicBoolean pinned = new AtomicBoolean();
+        FilterChain chain = (request, response) -> {
+            // Ответ отправлен клиенту внутри цепочки, до выхода из фильтра
+            pinned.set(guard.isPinned());
+            response.flushBuffer();
+        };
+
+        filter.doFilter(request("PATCH", "/items/1", "1"), new MockHttpServletResponse(), chain);
+
+        Assertions.assertTrue(pinned.get());
+    }
+
+    @Test
+    void testPinsPathUserOfUserChangeAndNotReaders() throws Exception {
+        filter.doFilter(request("PATCH", "/users/2", null), new MockHttpServletResponse(), (request, response) -> {
+        });
+        filter.doFilter(request("GET", "/items/1", "3"), new MockHttpServletResponse(), (request, response) -> {
+        });
+
+        Assertions.assertTrue(isPinned(2L));
+        Assertions.assertFalse(isPinned(3L));
+    }
+
+    private boolean isPinned(long userId) {
+        guard.setCurrentUser(userId);
+        try {
+            return guard.isPinned();
+        } finally {
+            guard.setCurrentUser(null);
+        }
+    }
+
+    private static MockHttpServletRequest request(String method, String path, String userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        if (userId != null) {
+            request.addHeader("X-Sharer-User-Id", userId);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,178 @@
+package ru.practicum.shareit.event;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.event.data.EventType;
+import ru.practicum.shareit.event.data.dto.EventDto;
+import ru.practicum.shareit.validation.EntityValidator;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+class EventBusTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private EventBus eventBus;
+
+    @AfterEach
+    void tearDown() {
+        eventBus.stop();
+    }
+
+    @Test
+    void testEventsReachAllStreamsOfUserOnly() throws Exception {
+        eventBus = eventBus(10, 5, Duration.ofMinutes(1));
+        RecordingEmitter first = new RecordingEmitter(2);
+        RecordingEmitter second = new RecordingEmitter(2);
+        RecordingEmitter other = new RecordingEmitter(1);
+        eventBus.subscribe(1L, first);
+        eventBus.subscribe(1L, second);
+        eventBus.subscribe(2L, other);
+
+        eventBus.publish(1L, event(10L));
+        eventBus.publish(1L, event(11L));
+
+        Assertions.assertTrue(first.received.await(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(second.received.await(5, TimeUnit.SECONDS));
+        // События одного потока приходят в порядке публикации
+        Assertions.assertEquals(List.of(10L, 11L), first.bookingIds());
+        Assertions.assertEquals(List.of(10L, 11L), second.bookingIds());
+        Assertions.assertFalse(other.received.await(200, TimeUnit.MILLISECONDS));
+        Assertions.assertEquals(3, meterRegistry.get("shareit.events.subscribers").gauge().value());
+    }
+
+    @Test
+    void testSlowStreamIsClosedWhenBufferOverflows() throws Exception {
+        eventBus = eventBus(2, 5, Duration.ofMinutes(1));
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(1) {
+            @Override
+            public void send(SseEventBuilder builder) {
+                super.send(builder);
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        eventBus.subscribe(1L, slow);
+
+        // Первое событие отправляется и зависает, два занимают очередь, четвёртое её переполняет
+        eventBus.publish(1L, event(1L));
+        Assertions.assertTrue(slow.received.await(5, TimeUnit.SECONDS));
+        for (long id = 2; id <= 4; id++) {
+            eventBus.publish(1L, event(id));
+        }
+        Assertions.assertTrue(slow.completed);
+        Assertions.assertEquals(1, meterRegistry.get("shareit.events.dropped").counter().count());
+
+        // Закрытый поток больше не получает событий, новый поток пользователя получает
+        release.countDown();
+        RecordingEmitter fast = new RecordingEmitter(1);
+        eventBus.subscribe(1L, fast);
+        eventBus.publish(1L, event(5L));
+        Assertions.assertTrue(fast.received.await(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(List.of(5L), fast.bookingIds());
+        Assertions.assertEquals(List.of(1L), slow.bookingIds());
+        Assertions.assertEquals(1, meterRegistry.get("shareit.events.subscribers").gauge().value());
+    }
+
+    @Test
+    void testOldestStreamIsClosedOverUserLimit() {
+        eventBus = eventBus(10, 2, Duration.ofMinutes(1));
+        RecordingEmitter first = new RecordingEmitter(1);
+        RecordingEmitter second = new RecordingEmitter(1);
+        RecordingEmitter third = new RecordingEmitter(1);
+        eventBus.subscribe(1L, first);
+        eventBus.subscribe(1L, second);
+        eventBus.subscribe(1L, third);
+
+        Assertions.assertTrue(first.completed);
+        Assertions.assertFalse(second.completed);
+        Assertions.assertFalse(third.completed);
+        Assertions.assertEquals(2, meterRegistry.get("shareit.events.subscribers").gauge().value());
+    }
+
+    @Test
+    void testIdleStreamReceivesHeartbeat() throws Exception {
+        eventBus = eventBus(10, 5, Duration.ofMillis(50));
+        RecordingEmitter emitter = new RecordingEmitter(1);
+        eventBus.subscribe(1L, emitter);
+
+        Assertions.assertTrue(emitter.received.await(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(emitter.sent.get(0).contains(":heartbeat"));
+    }
+
+    private EventBus eventBus(int bufferSize, int maxSubscriptions, Duration heartbeatInterval) {
+        return new EventBus(
+                Mockito.mock(EntityValidator.class),
+                meterRegistry,
+                bufferSize,
+                maxSubscriptions,
+                2,
+                Duration.ofMinutes(30),
+                heartbeatInterval
+        );
+    }
+
+    private static EventDto event(long bookingId) {
+        return new EventDto(EventType.BOOKING_STATUS_CHANGED, null, 1L, bookingId, "APPROVED", LocalDateTime.now());
+    }
+
+    // Отправленные события записываются в виде текста потока SSE
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final MappingJackson2HttpMessageConverter converter = new MappingJackson2HttpMessageConverter();
+        private final List<String> sent = new CopyOnWriteArrayList<>();
+        private final CountDownLatch received;
+        private volatile boolean completed;
+
+        private RecordingEmitter(int expected) {
+            this.received = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            sent.add(builder
+                    .build()
+                    .stream()
+                    .map(ResponseBodyEmitter.DataWithMediaType::getData)
+                    .map(data -> data instanceof EventDto ? toJson((EventDto) data) : data.toString())
+                    .collect(Collectors.joining()));
+            received.countDown();
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        private List<Long> bookingIds() {
+            return sent
+                    .stream()
+                    .filter(text -> text.startsWith("event:"))
+                    .map(text -> Long.parseLong(text.replaceAll("(?s).*\"bookingId\":(\\d+).*", "$1")))
+                    .collect(Collectors.toList());
+        }
+
+        private String toJson(EventDto event) {
+            try {
+                return converter.getObjectMapper().writeValueAsString(event);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
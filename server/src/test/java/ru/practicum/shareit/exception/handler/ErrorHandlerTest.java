@@ -0,0 +1,38 @@
+package ru.practicum.shareit.exception.handler;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.shareit.exception.UnsupportedStateException;
+import ru.practicum.shareit.exception.booking.BookingConflictException;
+import ru.practicum.shareit.exception.booking.BookingNotFoundException;
+import ru.practicum.shareit.exception.item.CommentWriterUnavailableException;
+import ru.practicum.shareit.exception.item.ItemBadRequestException;
+import ru.practicum.shareit.exception.item.ItemForbiddenException;
+
+import java.util.Map;
+
+class ErrorHandlerTest {
+
+    private final ErrorHandler errorHandler = new ErrorHandler();
+
+    @Test
+    void testStatusOf() {
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, ErrorHandler.statusOf(new ItemBadRequestException("")));
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, ErrorHandler.statusOf(new UnsupportedStateException("")));
+        Assertions.assertEquals(HttpStatus.CONFLICT, ErrorHandler.statusOf(new BookingConflictException("")));
+        Assertions.assertEquals(HttpStatus.FORBIDDEN, ErrorHandler.statusOf(new ItemForbiddenException("")));
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, ErrorHandler.statusOf(new BookingNotFoundException("")));
+        Assertions.assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ErrorHandler.statusOf(new CommentWriterUnavailableException("")));
+        Assertions.assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, ErrorHandler.statusOf(new IllegalStateException("")));
+    }
+
+    @Test
+    void testHandlerUsesStatusOfException() {
+        ResponseEntity<Map<String, String>> unsupportedState = errorHandler.handleUnsupportedStateException(
+                new UnsupportedStateException("Unknown state: UNSUPPORTED_STATUS"));
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, unsupportedState.getStatusCode());
+        Assertions.assertEquals(Map.of("error", "Unknown state: UNSUPPORTED_STATUS"), unsupportedState.getBody());
+    }
+}
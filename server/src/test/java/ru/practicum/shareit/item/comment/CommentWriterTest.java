@@ -0,0 +1,198 @@
+package ru.practicum.shareit.item.comment;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.item.CommentWriterUnavailableException;
+import ru.practicum.shareit.item.data.Comment;
+import ru.practicum.shareit.item.data.Item;
+import ru.practicum.shareit.item.data.ItemCommentStats;
+import ru.practicum.shareit.item.data.dto.CommentDto;
+import ru.practicum.shareit.item.data.dto.CommentPage;
+import ru.practicum.shareit.item.data.dto.CommentRequestDto;
+import ru.practicum.shareit.item.data.dto.StandardItemDto;
+import ru.practicum.shareit.item.repository.ItemCommentStatsRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.user.data.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+import static ru.practicum.shareit.utils.Creator.*;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "spring.datasource.url=jdbc:h2:mem:comment-writer;DB_CLOSE_ON_EXIT=FALSE"
+)
+class CommentWriterTest {
+
+    private static final int COMMENTS = 40;
+
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemCommentStatsRepository itemCommentStatsRepository;
+
+    @Test
+    void testConcurrentCommentsAreWrittenBeforeResponse() throws Exception {
+        User owner = userRepository.save(createUser(null, "Owner", "owner@comments.ru"));
+        User booker = userRepository.save(createUser(null, "Booker", "booker@comments.ru"));
+        Item item = createItem(0L, "Дрель", "Простая дрель", true, owner.getId());
+        item.setId(null);
+        item = itemRepository.save(item);
+        Booking booking = createBooking(0L, LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1), item, BookingStatus.APPROVED, booker);
+        booking.setId(null);
+        bookingRepository.save(booking);
+
+        long itemId = item.getId();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<CommentDto>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < COMMENTS; i++) {
+                CommentRequestDto request = new CommentRequestDto();
+                request.setText("Комментарий " + i);
+                futures.add(executor.submit(() -> itemService.addComment(itemId, booker.getId(), request)));
+            }
+            Set<Long> ids = ConcurrentHashMap.newKeySet();
+            for (Future<CommentDto> future : futures) {
+                CommentDto comment = future.get(10, TimeUnit.SECONDS);
+                Assertions.assertEquals("Booker", comment.getAuthorName());
+                ids.add(comment.getId());
+            }
+            Assertions.assertEquals(COMMENTS, ids.size());
+            // Ответ получен - комментарий и агрегат уже в БД
+            ItemCommentStats stats = itemCommentStatsRepository.findById(itemId).orElseThrow();
+            Assertions.assertEquals(COMMENTS, stats.getCommentCount());
+
+            StandardItemDto itemDto = (StandardItemDto) itemService.get(itemId, booker.getId());
+            Assertions.assertEquals(ItemServiceImpl.INLINE_COMMENTS, itemDto.getComments().size());
+            Assertions.assertEquals(COMMENTS, itemDto.getCommentCount());
+            Assertions.assertEquals(itemDto.getComments().get(0).getCreated(), itemDto.getLastCommentAt());
+
+            // Карточка вещи и страницы по курсору вместе дают все комментарии от новых к старым без повторов
+            List<CommentDto> pages = new ArrayList<>(itemDto.getComments());
+            String cursor = itemDto.getNextCommentsCursor();
+            while (cursor != null) {
+                CommentPage page = itemService.getComments(itemId, cursor, 7);
+                pages.addAll(page.getComments());
+                cursor = page.getNextCursor();
+            }
+            Assertions.assertEquals(ids, pages.stream().map(CommentDto::getId).collect(Collectors.toSet()));
+            Assertions.assertEquals(COMMENTS, pages.size());
+            for (int i = 1; i < pages.size(); i++) {
+                Assertions.assertFalse(pages.get(i).getCreated().isAfter(pages.get(i - 1).getCreated()));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testRejectsWhenQueueIsFullOrWriteIsSlow() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        JdbcTemplate jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+        Mockito.when(jdbcTemplate.queryForObject("SELECT nextval('comments_seq')", Long.class)).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            return 1L;
+        });
+        Mockito.when(jdbcTemplate.batchUpdate(Mockito.anyString(), Mockito.<List<Object[]>>any())).thenReturn(new int[]{1});
+        CommentWriter writer = new CommentWriter(
+                jdbcTemplate,
+                Mockito.mock(PlatformTransactionManager.class),
+                new SimpleMeterRegistry(),
+                1,
+                50,
+                Duration.ofMillis(500)
+        );
+        writer.start();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // Первый комментарий забран писателем и ждёт записи, второй занимает единственное место в очереди
+            Future<Comment> written = executor.submit(() -> writer.write(comment("Первый")));
+            Assertions.assertTrue(writing.await(5, TimeUnit.SECONDS));
+            Future<Comment> queued = executor.submit(() -> writer.write(comment("Второй")));
+            Thread.sleep(100);
+
+            CommentWriterUnavailableException full = Assertions.assertThrows(
+                    CommentWriterUnavailableException.class,
+                    () -> writer.write(comment("Третий"))
+            );
+            Assertions.assertEquals("Очередь записи комментариев переполнена, повторите запрос позже.", full.getMessage());
+
+            // Не дождавшийся записи комментарий удаляется из очереди и не будет записан позже
+            ExecutionException timeout = Assertions.assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+            Assertions.assertInstanceOf(CommentWriterUnavailableException.class, timeout.getCause());
+
+            // Забранный писателем комментарий ждёт окончания записи дольше ack-timeout
+            release.countDown();
+            Assertions.assertEquals(1L, written.get(5, TimeUnit.SECONDS).getId());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+            writer.stop();
+        }
+        Assertions.assertThrows(CommentWriterUnavailableException.class, () -> writer.write(comment("После остановки")));
+    }
+
+    @Test
+    void testRejectsWhenTakenCommentIsNotWrittenInTime() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        JdbcTemplate jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+        Mockito.when(jdbcTemplate.queryForObject("SELECT nextval('comments_seq')", Long.class)).thenAnswer(invocation -> {
+            release.await();
+            return 1L;
+        });
+        CommentWriter writer = new CommentWriter(
+                jdbcTemplate,
+                Mockito.mock(PlatformTransactionManager.class),
+                new SimpleMeterRegistry(),
+                1,
+                50,
+                Duration.ofMillis(200)
+        );
+        writer.start();
+        try {
+            long started = System.nanoTime();
+            CommentWriterUnavailableException unknown = Assertions.assertThrows(
+                    CommentWriterUnavailableException.class,
+                    () -> writer.write(comment("Зависший"))
+            );
+            Assertions.assertEquals("Результат записи комментария неизвестен, проверьте комментарии вещи перед повтором запроса.", unknown.getMessage());
+            // Запрос ждёт не дольше двух ack-timeout: в очереди и после того, как писатель забрал комментарий
+            Assertions.assertTrue(Duration.ofNanos(System.nanoTime() - started).compareTo(Duration.ofSeconds(2)) < 0);
+        } finally {
+            release.countDown();
+            writer.stop();
+        }
+    }
+
+    private static Comment comment(String text) {
+        Comment comment = createComment(0L, text, createItem(1L, "Дрель", "Простая дрель", true, 1L), createUser(2L, "Booker", "booker@mail.ru"), LocalDateTime.now());
+        comment.setId(null);
+        return comment;
+    }
+}
@@ -11,8 +11,11 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.practicum.shareit.http.HttpCaching;
 import ru.practicum.shareit.item.data.dto.CommentDto;
+import ru.practicum.shareit.item.data.dto.CommentPage;
 import ru.practicum.shareit.item.data.dto.CommentRequestDto;
+import ru.practicum.shareit.item.data.dto.ItemUpdateResult;
 import ru.practicum.shareit.item.data.dto.StandardItemDto;
 import ru.practicum.shareit.item.service.ItemService;
 
@@ -22,6 +25,7 @@ import java.util.List;
 
 import static org.hamcrest.Matchers.is;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -51,7 +55,10 @@ class ItemControllerTest {
                 null,
                 null,
                 List.of(),
-                1L
+                1L,
+                null,
+                null,
+                null
         );
         Mockito.when(itemService.create(Mockito.anyLong(), Mockito.any())).thenReturn(itemDto);
         mvc
@@ -79,9 +86,13 @@ class ItemControllerTest {
                 null,
                 null,
                 List.of(),
-                1L
+                1L,
+                null,
+                null,
+                null
         );
-        Mockito.when(itemService.update(Mockito.anyLong(), Mockito.anyLong(), Mockito.any())).thenReturn(itemDto);
+        // Вещь перенесена из запроса 2 в запрос 3
+        Mockito.when(itemService.update(Mockito.anyLong(), Mockito.anyLong(), Mockito.any())).thenReturn(new ItemUpdateResult(itemDto, 2L, 3L));
         mvc
                 .perform(patch("/items/1")
                         .content(mapper.writeValueAsString(itemDto))
@@ -94,7 +105,8 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.id", is(itemDto.getId()), Long.class))
                 .andExpect(jsonPath("$.name", is(itemDto.getName())))
                 .andExpect(jsonPath("$.description", is(itemDto.getDescription())))
-                .andExpect(jsonPath("$.available", is(itemDto.getAvailable())));
+                .andExpect(jsonPath("$.available", is(itemDto.getAvailable())))
+                .andExpect(header().stringValues(HttpCaching.INVALIDATE_HEADER, "/items/1", "/requests/2", "/requests/3"));
     }
 
     @Test
@@ -107,7 +119,10 @@ class ItemControllerTest {
                 null,
                 null,
                 List.of(),
-                1L
+                1L,
+                null,
+                null,
+                null
         );
         Mockito.when(itemService.get(Mockito.anyLong(), Mockito.anyLong())).thenReturn(itemDto);
         mvc
@@ -135,7 +150,10 @@ class ItemControllerTest {
                 null,
                 null,
                 List.of(),
-                1L
+                1L,
+                null,
+                null,
+                null
         );
         StandardItemDto itemDto2 = new StandardItemDto(
                 2L,
@@ -145,9 +163,12 @@ class ItemControllerTest {
                 null,
                 null,
                 List.of(),
-                2L
+                2L,
+                null,
+                null,
+                null
         );
-        Mockito.when(itemService.get(Mockito.anyLong())).thenReturn(List.of(itemDto1, itemDto2));
+        Mockito.when(itemService.get(Mockito.anyLong(), Mockito.anyInt(), Mockito.anyInt())).thenReturn(List.of(itemDto1, itemDto2));
         mvc
                 .perform(get("/items")
                         .header("X-Sharer-User-Id", 1L)
@@ -168,7 +189,10 @@ class ItemControllerTest {
                 null,
                 null,
                 List.of(),
-                1L
+                1L,
+                null,
+                null,
+                null
         );
         StandardItemDto itemDto2 = new StandardItemDto(
                 2L,
@@ -178,9 +202,12 @@ class ItemControllerTest {
                 null,
                 null,
                 List.of(),
-                2L
+                2L,
+                null,
+                null,
+                null
         );
-        Mockito.when(itemService.search(Mockito.anyString())).thenReturn(List.of(itemDto1, itemDto2));
+        Mockito.when(itemService.search(Mockito.anyString(), Mockito.anyInt(), Mockito.anyInt())).thenReturn(List.of(itemDto1, itemDto2));
         mvc
                 .perform(get("/items/search?text=Name")
                         .header("X-Sharer-User-Id", 1L)
@@ -222,4 +249,20 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.text", is(commentDto.getText())))
                 .andExpect(jsonPath("$.authorName", is(commentDto.getAuthorName())));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetComments() throws Exception {
+        CommentDto commentDto = new CommentDto(1L, "Text", "Name", LocalDateTime.now());
+        Mockito.when(itemService.getComments(1L, "next", 1)).thenReturn(new CommentPage(List.of(commentDto), "after"));
+        mvc
+                .perform(get("/items/1/comments?cursor=next&size=1")
+                        .header("X-Sharer-User-Id", 1L)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON)
+                )
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "after"))
+                .andExpect(jsonPath("$[0].id", is(commentDto.getId()), Long.class))
+                .andExpect(jsonPath("$[0].text", is(commentDto.getText())));
+    }
+}
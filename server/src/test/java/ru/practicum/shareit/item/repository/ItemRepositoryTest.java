@@ -0,0 +1,75 @@
+package ru.practicum.shareit.item.repository;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import ru.practicum.shareit.item.data.Item;
+import ru.practicum.shareit.item.search.ItemSearchTokenizer;
+import ru.practicum.shareit.user.data.User;
+
+import java.util.List;
+
+import static ru.practicum.shareit.utils.Creator.createItem;
+import static ru.practicum.shareit.utils.Creator.createUser;
+
+@DataJpaTest
+class ItemRepositoryTest {
+
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User owner;
+
+    private Item drill;
+    private Item screwdriver;
+    private Item hiddenDrill;
+
+    @BeforeEach
+    void setUp() {
+        owner = entityManager.persist(createUser(null, "Owner", "owner@mail.ru"));
+        drill = save("Дрель", "Простая дрель", true);
+        screwdriver = save("Отвертка", "Аккумуляторная отвертка, работает как дрель", true);
+        hiddenDrill = save("Дрель", "Ударная дрель", false);
+    }
+
+    @Test
+    void testFindRankedIdsByTokens() {
+        List<Long> ids = itemRepository.findRankedIdsByTokens(ItemSearchTokenizer.tokenize("аккумуляторная дрель"), 0, 10);
+
+        Assertions.assertEquals(List.of(screwdriver.getId(), drill.getId()), ids);
+    }
+
+    @Test
+    void testFindRankedIdsByTokenPrefix() {
+        List<Long> ids = itemRepository.findRankedIdsByTokens(ItemSearchTokenizer.tokenize("АККУМ"), 0, 10);
+
+        Assertions.assertEquals(List.of(screwdriver.getId()), ids);
+    }
+
+    @Test
+    void testFindRankedIdsByTokensWithPaging() {
+        List<Long> ids = itemRepository.findRankedIdsByTokens(ItemSearchTokenizer.tokenize("дрель"), 1, 1);
+
+        Assertions.assertEquals(List.of(screwdriver.getId()), ids);
+        Assertions.assertFalse(ids.contains(hiddenDrill.getId()));
+    }
+
+    @Test
+    void testFindRankedIdsByTokensEscapesWildcards() {
+        List<Long> ids = itemRepository.findRankedIdsByTokens(List.of("%"), 0, 10);
+
+        Assertions.assertEquals(List.of(), ids);
+    }
+
+    private Item save(String name, String description, boolean available) {
+        Item item = createItem(0L, name, description, available, owner.getId());
+        item.setId(null);
+        item.setSearchTokens(ItemSearchTokenizer.tokenize(name, description));
+        return itemRepository.save(item);
+    }
+}
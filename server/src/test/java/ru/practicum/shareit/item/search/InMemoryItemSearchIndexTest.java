@@ -0,0 +1,93 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.data.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static ru.practicum.shareit.utils.Creator.createItem;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryItemSearchIndexTest {
+
+    private InMemoryItemSearchIndex index;
+    @Mock
+    private ItemRepository itemRepository;
+
+    @BeforeEach
+    void setUp() {
+        index = new InMemoryItemSearchIndex(itemRepository);
+        index.index(createItem(1L, "Дрель", "Простая дрель", true, 1L));
+        index.index(createItem(2L, "Отвертка", "Аккумуляторная отвертка, работает как дрель", true, 1L));
+        index.index(createItem(3L, "Дрель", "Ударная дрель", false, 1L));
+    }
+
+    @Test
+    void testSearch() {
+        Assertions.assertEquals(List.of(2L, 1L), ids(index.search("аккумуляторная дрель", 0, 10)));
+        Assertions.assertEquals(List.of(2L), ids(index.search("АККУМ", 0, 10)));
+        Assertions.assertEquals(List.of(2L), ids(index.search("дрель", 1, 1)));
+        Assertions.assertEquals(List.of(), ids(index.search("?!", 0, 10)));
+        Assertions.assertEquals(List.of(), ids(index.search("дрель", 2, 10)));
+        Assertions.assertEquals(List.of(), ids(index.search("дрель", Integer.MAX_VALUE, 10)));
+        Assertions.assertEquals(List.of(2L), ids(index.search("дрель", 1, Integer.MAX_VALUE)));
+    }
+
+    @Test
+    void testIndexUpdatesAvailability() {
+        index.index(createItem(1L, "Дрель", "Простая дрель", false, 1L));
+        index.index(createItem(3L, "Перфоратор", "Ударный", true, 1L));
+
+        Assertions.assertEquals(List.of(2L), ids(index.search("дрель", 0, 10)));
+        Assertions.assertEquals(List.of(3L), ids(index.search("удар", 0, 10)));
+    }
+
+    @Test
+    void testOutOfOrderCommitsKeepLatestVersion() {
+        List<TransactionSynchronization> first = commit(createItem(1L, "Дрель", "Старое описание", true, 1L));
+        List<TransactionSynchronization> second = commit(createItem(1L, "Шуруповерт", "Новое описание", true, 1L));
+
+        second.forEach(TransactionSynchronization::afterCommit);
+        first.forEach(TransactionSynchronization::afterCommit);
+
+        Assertions.assertEquals(List.of(1L), ids(index.search("шуруповерт", 0, 10)));
+        Assertions.assertEquals(List.of(), ids(index.search("старое", 0, 10)));
+    }
+
+    @Test
+    void testRebuild() {
+        Mockito
+                .when(itemRepository.findAllAvailableAfterId(Mockito.eq(0L), Mockito.any()))
+                .thenReturn(List.of(createItem(5L, "Пила", "Ножовка", true, 1L)));
+
+        index.rebuild();
+
+        Assertions.assertEquals(List.of(), ids(index.search("дрель", 0, 10)));
+        Assertions.assertEquals(List.of(5L), ids(index.search("ножовка", 0, 10)));
+    }
+
+    // Изменение вещи в транзакции: индекс применит его в afterCommit
+    private List<TransactionSynchronization> commit(Item item) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.index(item);
+            return TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static List<Long> ids(List<Item> items) {
+        return items.stream().map(Item::getId).collect(Collectors.toList());
+    }
+}
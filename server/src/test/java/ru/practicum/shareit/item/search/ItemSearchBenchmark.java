@@ -0,0 +1,127 @@
+package ru.practicum.shareit.item.search;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.practicum.shareit.item.data.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static ru.practicum.shareit.utils.Creator.createItem;
+
+// Запуск: mvn -pl server test-compile, затем main() этого класса с тестовым classpath
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class ItemSearchBenchmark {
+
+    private static final String[] WORDS = {
+        "дрель", "отвертка", "пила", "молоток", "лестница", "палатка", "велосипед", "самокат", "проектор", "колонка",
+        "ударная", "аккумуляторная", "садовая", "складная", "электрическая", "ручная", "большая", "детская", "новая", "старая"
+    };
+
+    @Param({"10000", "100000", "1000000"})
+    private int itemCount;
+
+    // Частое слово и редкий префикс номера вещи
+    @Param({"аккумуляторная", "777"})
+    private String query;
+
+    private InMemoryItemSearchIndex index;
+    private Connection connection;
+    private PreparedStatement likeQuery;
+    private PreparedStatement tokenQuery;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        index = new InMemoryItemSearchIndex(Mockito.mock(ItemRepository.class));
+        connection = DriverManager.getConnection("jdbc:h2:mem:search_" + itemCount + "_" + query.hashCode());
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE items (id BIGINT PRIMARY KEY, name VARCHAR(1000), description VARCHAR(1000), is_available BOOLEAN)");
+            statement.execute("CREATE TABLE item_search_tokens (item_id BIGINT, token VARCHAR(100), PRIMARY KEY (item_id, token))");
+            statement.execute("CREATE INDEX idx_item_search_tokens_token ON item_search_tokens(token, item_id)");
+        }
+        Random random = new Random(42);
+        try (PreparedStatement items = connection.prepareStatement("INSERT INTO items VALUES (?, ?, ?, ?)");
+             PreparedStatement tokens = connection.prepareStatement("INSERT INTO item_search_tokens VALUES (?, ?)")) {
+            for (long id = 1; id <= itemCount; id++) {
+                String name = word(random) + " " + word(random);
+                String description = word(random) + " " + word(random) + " " + word(random) + " #" + id;
+                Item item = createItem(id, name, description, random.nextInt(10) > 0, 1L);
+                index.index(item);
+                items.setLong(1, id);
+                items.setString(2, name);
+                items.setString(3, description);
+                items.setBoolean(4, item.getAvailable());
+                items.addBatch();
+                for (String token : ItemSearchTokenizer.tokenize(name, description)) {
+                    tokens.setLong(1, id);
+                    tokens.setString(2, token);
+                    tokens.addBatch();
+                }
+                if (id % 10_000 == 0) {
+                    items.executeBatch();
+                    tokens.executeBatch();
+                }
+            }
+            items.executeBatch();
+            tokens.executeBatch();
+        }
+        likeQuery = connection.prepareStatement("SELECT id, name, description, is_available FROM items "
+                + "WHERE is_available = TRUE AND (LOWER(name) LIKE ? OR LOWER(description) LIKE ?) "
+                + "ORDER BY id LIMIT 10");
+        tokenQuery = connection.prepareStatement("SELECT i.id FROM items AS i JOIN item_search_tokens AS t ON t.item_id = i.id "
+                + "WHERE i.is_available = TRUE AND t.token LIKE ? GROUP BY i.id ORDER BY COUNT(t.token) DESC, i.id LIMIT 10");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public List<Item> inMemoryIndex() {
+        return index.search(query, 0, 10);
+    }
+
+    @Benchmark
+    public List<Long> likeQuery() throws SQLException {
+        likeQuery.setString(1, "%" + query + "%");
+        likeQuery.setString(2, "%" + query + "%");
+        return ids(likeQuery);
+    }
+
+    @Benchmark
+    public List<Long> tokenTableQuery() throws SQLException {
+        tokenQuery.setString(1, query + "%");
+        return ids(tokenQuery);
+    }
+
+    private static List<Long> ids(PreparedStatement statement) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                ids.add(resultSet.getLong(1));
+            }
+        }
+        return ids;
+    }
+
+    private static String word(Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ItemSearchBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -4,31 +4,51 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.dto.ItemBookingSummary;
 import ru.practicum.shareit.booking.model.dto.ShortBookingDto;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.datasource.PrimaryReads;
+import ru.practicum.shareit.event.data.EventType;
+import ru.practicum.shareit.event.data.UserEvent;
 import ru.practicum.shareit.exception.item.ItemForbiddenException;
 import ru.practicum.shareit.exception.item.ItemNotFoundException;
 import ru.practicum.shareit.exception.user.CommentBadRequestException;
 import ru.practicum.shareit.exception.user.UserNotFoundException;
+import ru.practicum.shareit.item.comment.CommentWriter;
 import ru.practicum.shareit.item.data.Comment;
 import ru.practicum.shareit.item.data.Item;
+import ru.practicum.shareit.item.data.ItemCommentStats;
 import ru.practicum.shareit.item.data.dto.*;
 import ru.practicum.shareit.item.data.mapper.CommentMapper;
 import ru.practicum.shareit.item.data.mapper.ItemMapper;
 import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemCommentStatsRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.DatabaseItemSearchIndex;
+import ru.practicum.shareit.outbox.OutboxWriter;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.request.data.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.data.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.validation.EntityValidator;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 import static ru.practicum.shareit.utils.Creator.*;
 
@@ -45,11 +65,34 @@ class ItemServiceTest {
     @Mock
     private CommentRepository commentRepository;
     @Mock
+    private ItemCommentStatsRepository itemCommentStatsRepository;
+    @Mock
     private ItemRequestRepository itemRequestRepository;
+    @Mock
+    private CommentWriter commentWriter;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private OutboxWriter outboxWriter;
+    @Mock
+    private PlatformTransactionManager transactionManager;
 
     @BeforeEach
     private void initItemService() {
-        itemService = new ItemServiceImpl(itemRepository, userRepository, bookingRepository, commentRepository, itemRequestRepository);
+        PrimaryReads primaryReads = new PrimaryReads(transactionManager);
+        itemService = new ItemServiceImpl(
+                itemRepository,
+                bookingRepository,
+                commentRepository,
+                itemCommentStatsRepository,
+                itemRequestRepository,
+                new DatabaseItemSearchIndex(itemRepository),
+                new EntityValidator(userRepository, itemRepository, bookingRepository, itemRequestRepository, primaryReads),
+                new BookingIntervalIndex(bookingRepository, primaryReads, 100),
+                commentWriter,
+                eventPublisher,
+                outboxWriter
+        );
     }
 
     @Test
@@ -71,6 +114,35 @@ class ItemServiceTest {
         Assertions.assertEquals(expectedItemDto, actualItemDto);
     }
 
+    @Test
+    public void testCreateAnswerPublishesEventToRequester() {
+        User requester = createUser(2L, "Requester", "requester@mail.ru");
+        ItemRequest itemRequest = createItemRequest(3L, "Нужна дрель", requester, LocalDateTime.now(), Set.of());
+
+        StandardItemDto itemDto = new StandardItemDto();
+        itemDto.setName("Name");
+        itemDto.setDescription("Desc");
+        itemDto.setAvailable(true);
+        itemDto.setRequestId(3L);
+
+        Mockito.when(userRepository.existsById(1L)).thenReturn(true);
+        Mockito.when(itemRequestRepository.findById(3L)).thenReturn(Optional.of(itemRequest));
+        Mockito.when(itemRepository.save(Mockito.any())).thenAnswer(invocation -> {
+            Item item = invocation.getArgument(0);
+            item.setId(5L);
+            return item;
+        });
+
+        itemService.create(1L, itemDto);
+
+        ArgumentCaptor<UserEvent> event = ArgumentCaptor.forClass(UserEvent.class);
+        Mockito.verify(eventPublisher).publishEvent(event.capture());
+        Assertions.assertEquals(2L, event.getValue().getUserId());
+        Assertions.assertEquals(EventType.REQUEST_ANSWERED, event.getValue().getEvent().getType());
+        Assertions.assertEquals(3L, event.getValue().getEvent().getRequestId());
+        Assertions.assertEquals(5L, event.getValue().getEvent().getItemId());
+    }
+
     @Test
     public void testCreateWithWrongUser() {
         StandardItemDto itemDto = new StandardItemDto();
@@ -97,8 +169,7 @@ class ItemServiceTest {
         itemDto.setDescription("Desc Update");
         itemDto.setAvailable(true);
 
-        Mockito.when(itemRepository.existsById(1L)).thenReturn(true);
-        Mockito.when(itemRepository.getReferenceById(Mockito.anyLong())).thenReturn(updatedItem);
+        Mockito.when(itemRepository.findForUpdateById(1L)).thenReturn(Optional.of(updatedItem));
 
         StandardItemDto expectedItemDto = new StandardItemDto();
         expectedItemDto.setId(1L);
@@ -106,9 +177,12 @@ class ItemServiceTest {
         expectedItemDto.setDescription("Desc Update");
         expectedItemDto.setAvailable(true);
         expectedItemDto.setComments(List.of());
-        ItemDto actualItemDto = itemService.update(1L, 1L, itemDto);
+        expectedItemDto.setCommentCount(0L);
+        ItemUpdateResult result = itemService.update(1L, 1L, itemDto);
 
-        Assertions.assertEquals(expectedItemDto, actualItemDto);
+        Assertions.assertEquals(expectedItemDto, result.getItem());
+        Assertions.assertNull(result.getPreviousRequestId());
+        Assertions.assertNull(result.getRequestId());
     }
 
     @Test
@@ -118,7 +192,7 @@ class ItemServiceTest {
         itemDto.setDescription("Desc Update");
         itemDto.setAvailable(true);
 
-        Mockito.when(itemRepository.existsById(1L)).thenReturn(false);
+        Mockito.when(itemRepository.findForUpdateById(1L)).thenReturn(Optional.empty());
 
         ItemNotFoundException exception = Assertions.assertThrows(
                 ItemNotFoundException.class,
@@ -136,8 +210,7 @@ class ItemServiceTest {
         itemDto.setDescription("Desc Update");
         itemDto.setAvailable(true);
 
-        Mockito.when(itemRepository.existsById(1L)).thenReturn(true);
-        Mockito.when(itemRepository.getReferenceById(Mockito.anyLong())).thenReturn(updatedItem);
+        Mockito.when(itemRepository.findForUpdateById(1L)).thenReturn(Optional.of(updatedItem));
 
         ItemForbiddenException exception = Assertions.assertThrows(
                 ItemForbiddenException.class,
@@ -151,8 +224,7 @@ class ItemServiceTest {
     public void testGet() {
         Item item = createItem(1L, "Name", "Desc", true, 1L);
 
-        Mockito.when(itemRepository.existsById(1L)).thenReturn(true);
-        Mockito.when(itemRepository.getReferenceById(Mockito.anyLong())).thenReturn(item);
+        Mockito.when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
 
         StandardItemDto expectedItemDto = new StandardItemDto();
         expectedItemDto.setId(1L);
@@ -160,6 +232,7 @@ class ItemServiceTest {
         expectedItemDto.setDescription("Desc");
         expectedItemDto.setAvailable(true);
         expectedItemDto.setComments(List.of());
+        expectedItemDto.setCommentCount(0L);
         ItemDto actualItemDto = itemService.get(1L, 1L);
 
         Assertions.assertEquals(expectedItemDto, actualItemDto);
@@ -169,25 +242,27 @@ class ItemServiceTest {
     public void testGetWithBooking() {
         Item item = createItem(1L, "Name", "Desc", true, 1L);
 
-        User booker = new User();
-        booker.setId(1L);
+        User booker = createUser(1L, "Booker", "booker@mail.ru");
 
-        Booking lastBooking = new Booking();
-        lastBooking.setId(1L);
-        lastBooking.setBooker(booker);
-
-        Booking nextBooking = new Booking();
-        nextBooking.setId(2L);
-        nextBooking.setBooker(booker);
+        Booking lastBooking = createBooking(
+                1L,
+                LocalDateTime.now().minusDays(2),
+                LocalDateTime.now().minusDays(1),
+                item,
+                BookingStatus.APPROVED,
+                booker
+        );
+        Booking nextBooking = createBooking(
+                2L,
+                LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(2),
+                item,
+                BookingStatus.WAITING,
+                booker
+        );
 
-        Mockito.when(itemRepository.existsById(1L)).thenReturn(true);
-        Mockito.when(itemRepository.getReferenceById(Mockito.anyLong())).thenReturn(item);
-        Mockito
-                .when(bookingRepository.getLastByItemId(Mockito.anyLong(), Mockito.anyLong(), Mockito.any()))
-                .thenReturn(List.of(lastBooking));
-        Mockito
-                .when(bookingRepository.getNextByItemId(Mockito.anyLong(), Mockito.anyLong(), Mockito.any()))
-                .thenReturn(List.of(nextBooking));
+        Mockito.when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        Mockito.when(bookingRepository.findAllIntervalsByItemId(1L)).thenReturn(List.of(lastBooking, nextBooking));
 
         ItemDto expectedItemDto = WithBookingItemDto
                 .builder()
@@ -196,6 +271,7 @@ class ItemServiceTest {
                 .description("Desc")
                 .available(true)
                 .comments(List.of())
+                .commentCount(0L)
                 .lastBooking(new ShortBookingDto(1L, 1L))
                 .nextBooking(new ShortBookingDto(2L, 1L))
                 .build();
@@ -204,64 +280,150 @@ class ItemServiceTest {
         Assertions.assertEquals(expectedItemDto, actualItemDto);
     }
 
+    @Test
+    void testGetShowsLatestCommentsWithCursor() {
+        Item item = createItem(1L, "Name", "Desc", true, 1L);
+        User author = createUser(2L, "Author", "author@mail.ru");
+        LocalDateTime created = LocalDateTime.of(2022, 11, 23, 15, 10, 18);
+        List<Comment> latest = new ArrayList<>();
+        for (long id = ItemServiceImpl.INLINE_COMMENTS + 2; id > 2; id--) {
+            latest.add(createComment(id, "Comment " + id, item, author, created.plusMinutes(id)));
+        }
+
+        Mockito.when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        Mockito.when(commentRepository.findLatestByItemId(1L, PageRequest.ofSize(ItemServiceImpl.INLINE_COMMENTS))).thenReturn(latest);
+        Mockito.when(itemCommentStatsRepository.findById(1L)).thenReturn(Optional.of(createItemCommentStats(1L, 12L, created.plusMinutes(12))));
+
+        StandardItemDto actualItemDto = (StandardItemDto) itemService.get(1L, 2L);
+
+        Assertions.assertEquals(ItemServiceImpl.INLINE_COMMENTS, actualItemDto.getComments().size());
+        Assertions.assertEquals(12L, actualItemDto.getCommentCount());
+        Assertions.assertEquals(created.plusMinutes(12), actualItemDto.getLastCommentAt());
+        Assertions.assertEquals(new KeysetCursor(created.plusMinutes(3), 3L).encode(), actualItemDto.getNextCommentsCursor());
+    }
+
+    @Test
+    void testGetComments() {
+        Item item = createItem(1L, "Name", "Desc", true, 1L);
+        User author = createUser(2L, "Author", "author@mail.ru");
+        LocalDateTime created = LocalDateTime.of(2022, 11, 23, 15, 10, 18);
+        Comment comment1 = createComment(1L, "Comment 1", item, author, created);
+        Comment comment2 = createComment(2L, "Comment 2", item, author, created);
+        KeysetCursor cursor = new KeysetCursor(created.plusMinutes(1), 3L);
+
+        Mockito.when(itemRepository.existsById(1L)).thenReturn(true);
+        Mockito
+                .when(commentRepository.findLatestByItemIdBefore(1L, cursor.getTimestamp(), 3L, PageRequest.ofSize(2)))
+                .thenReturn(List.of(comment2, comment1));
+
+        CommentPage page = itemService.getComments(1L, cursor.encode(), 2);
+
+        Assertions.assertEquals(List.of(CommentMapper.toCommentDto(comment2), CommentMapper.toCommentDto(comment1)), page.getComments());
+        Assertions.assertEquals(new KeysetCursor(comment1.getCreated(), comment1.getId()).encode(), page.getNextCursor());
+    }
+
+    @Test
+    void testGetCommentsWithInvalidCursor() {
+        Mockito.when(itemRepository.existsById(1L)).thenReturn(true);
+
+        CommentBadRequestException exception = Assertions.assertThrows(
+                CommentBadRequestException.class,
+                () -> itemService.getComments(1L, "not-a-cursor", 10)
+        );
+
+        Assertions.assertEquals("Некорректный курсор not-a-cursor.", exception.getMessage());
+    }
+
     @Test
     public void testGetAll() {
         Item item1 = createItem(1L, "Name 1", "Desc 1", true, 1L);
         Item item2 = createItem(2L, "Name 2", "Desc 2", true, 1L);
 
         Mockito.when(userRepository.existsById(1L)).thenReturn(true);
-        Mockito.when(itemRepository.findAllByOwnerId(1L, Sort.by(Sort.Direction.ASC, "id"))).thenReturn(List.of(item1, item2));
+        Mockito
+                .when(itemRepository.findAllByOwnerId(1L, PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "id"))))
+                .thenReturn(List.of(item1, item2));
 
         List<ItemDto> expectedItems = List.of(
-                ItemMapper.toStandardItemDto(item1, null),
-                ItemMapper.toStandardItemDto(item2, null)
+                ItemMapper.toStandardItemDto(item1, null, null, null),
+                ItemMapper.toStandardItemDto(item2, null, null, null)
         );
-        List<ItemDto> actualItems = itemService.get(1L);
+        List<ItemDto> actualItems = itemService.get(1L, 0, 10);
 
         Assertions.assertEquals(expectedItems, actualItems);
     }
 
     @Test
-    public void testGetAllWithCommentsAndBookings() {
+    public void testGetAllWithCommentStatsAndBookings() {
         Item item2 = createItem(2L, "Отвертка", "Аккумуляторная отвертка", true, 4L);
         User user1 = createUser(1L, "updateName", "updateName@user.com");
+        ItemCommentStats stats = createItemCommentStats(2L, 3L, LocalDateTime.of(2022, 11, 23, 15, 10, 18));
 
-        Comment comment1 = createComment(
+        Booking booking1 = createBooking(
                 1L,
-                "Add comment from user 1",
+                LocalDateTime.of(2022, 11, 23, 15, 10, 13),
+                LocalDateTime.of(2022, 11, 23, 15, 10, 14),
                 item2,
-                user1,
-                LocalDateTime.of(2022, 11, 23, 15, 10, 18)
+                BookingStatus.APPROVED,
+                user1
         );
 
-        Booking booking1 = createBooking(
+        Mockito.when(userRepository.existsById(4L)).thenReturn(true);
+        Mockito
+                .when(itemRepository.findAllByOwnerId(4L, PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "id"))))
+                .thenReturn(List.of(item2));
+        Mockito.when(itemCommentStatsRepository.findAllByItemIdIn(List.of(2L))).thenReturn(List.of(stats));
+        Mockito
+                .when(bookingRepository.findLastAndNextByItemIds(Mockito.eq(List.of(2L)), Mockito.any()))
+                .thenReturn(List.of(createBookingSummary(booking1, ItemBookingSummary.LAST)));
+
+        // Список вещей не загружает комментарии, только их число и время последнего
+        List<ItemDto> expectedItems = List.of(ItemMapper.toStandardItemDto(item2, null, stats, null));
+        List<ItemDto> actualItems = itemService.get(4L, 0, 10);
+
+        Assertions.assertEquals(expectedItems, actualItems);
+        Mockito.verifyNoInteractions(commentRepository);
+    }
+
+    @Test
+    public void testGetAllWithLastAndNextBookings() {
+        Item item1 = createItem(1L, "Name 1", "Desc 1", true, 4L);
+        Item item2 = createItem(2L, "Name 2", "Desc 2", true, 4L);
+        User user1 = createUser(1L, "updateName", "updateName@user.com");
+
+        Booking lastBooking = createBooking(
                 1L,
                 LocalDateTime.of(2022, 11, 23, 15, 10, 13),
                 LocalDateTime.of(2022, 11, 23, 15, 10, 14),
-                item2,
+                item1,
                 BookingStatus.APPROVED,
                 user1
         );
-        Booking booking2 = createBooking(
+        Booking nextBooking = createBooking(
                 2L,
-                LocalDateTime.of(2022, 11, 24, 15, 10, 10),
-                LocalDateTime.of(2022, 11, 25, 15, 10, 10),
-                item2,
+                LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(2),
+                item1,
                 BookingStatus.APPROVED,
                 user1
         );
 
         Mockito.when(userRepository.existsById(4L)).thenReturn(true);
-        Mockito.when(itemRepository.findAllByOwnerId(4L, Sort.by(Sort.Direction.ASC, "id"))).thenReturn(List.of(item2));
-        Mockito.when(commentRepository.findAllByOwnerId(4L)).thenReturn(List.of(comment1));
         Mockito
-                .when(bookingRepository.findAllByOwner(4L, Sort.by(Sort.Direction.ASC, "start")))
-                .thenReturn(List.of(booking1));
+                .when(itemRepository.findAllByOwnerId(4L, PageRequest.of(1, 2, Sort.by(Sort.Direction.ASC, "id"))))
+                .thenReturn(List.of(item1, item2));
+        Mockito
+                .when(bookingRepository.findLastAndNextByItemIds(Mockito.eq(List.of(1L, 2L)), Mockito.any()))
+                .thenReturn(List.of(
+                        createBookingSummary(lastBooking, ItemBookingSummary.LAST),
+                        createBookingSummary(nextBooking, ItemBookingSummary.NEXT)
+                ));
 
         List<ItemDto> expectedItems = List.of(
-                ItemMapper.toStandardItemDto(item2, List.of(CommentMapper.toCommentDto(comment1)))
+                ItemMapper.toWithBookingItemDto(item1, null, null, null, new ShortBookingDto(1L, 1L), new ShortBookingDto(2L, 1L)),
+                ItemMapper.toStandardItemDto(item2, null, null, null)
         );
-        List<ItemDto> actualItems = itemService.get(4L);
+        List<ItemDto> actualItems = itemService.get(4L, 2, 2);
 
         Assertions.assertEquals(expectedItems, actualItems);
     }
@@ -271,29 +433,29 @@ class ItemServiceTest {
         Item item1 = createItem(1L, "Name 1", "Desc 1", true, 1L);
         Item item2 = createItem(2L, "Name 2", "Desc 2", true, 1L);
 
-        Mockito.when(itemRepository.findAllByText(Mockito.any())).thenReturn(List.of(item1, item2));
+        Mockito.when(itemRepository.findRankedIdsByTokens(Set.of("name"), 0, 10)).thenReturn(List.of(2L, 1L));
+        Mockito.when(itemRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(item1, item2));
 
         List<ItemDto> expectedItems = List.of(
-                ItemMapper.toStandardItemDto(item1, null),
-                ItemMapper.toStandardItemDto(item2, null)
+                ItemMapper.toStandardItemDto(item2, null),
+                ItemMapper.toStandardItemDto(item1, null)
         );
-        List<ItemDto> actualItems = itemService.search("Name");
+        List<ItemDto> actualItems = itemService.search("Name", 0, 10);
 
         Assertions.assertEquals(expectedItems, actualItems);
     }
 
+    @Test
+    public void testSearchWithoutTokens() {
+        List<ItemDto> actualItems = itemService.search("?!", 0, 10);
+
+        Assertions.assertEquals(List.of(), actualItems);
+    }
+
     @Test
     public void testAddComment() {
         Item item1 = createItem(1L, "Отвертка", "Аккумуляторная отвертка", true, 4L);
         User user1 = createUser(1L, "updateName", "updateName@user.com");
-        Booking booking1 = createBooking(
-                1L,
-                LocalDateTime.of(2022, 11, 23, 15, 10, 13),
-                LocalDateTime.of(2022, 11, 23, 15, 10, 14),
-                item1,
-                BookingStatus.APPROVED,
-                user1
-        );
         Comment comment1 = createComment(
                 1L,
                 "Add comment from user 1",
@@ -305,13 +467,10 @@ class ItemServiceTest {
         CommentRequestDto commentRequestDto = new CommentRequestDto();
         commentRequestDto.setText("Add comment from user 1");
 
-        Mockito.when(userRepository.existsById(1L)).thenReturn(true);
-        Mockito.when(itemRepository.existsById(1L)).thenReturn(true);
-        Mockito.when(bookingRepository.findAllByItemIdAndStatus(1L, BookingStatus.REJECTED)).thenReturn(List.of(booking1));
-        Mockito.when(bookingRepository.findAllCurrentByItemId(1L)).thenReturn(List.of(booking1));
-        Mockito.when(userRepository.getReferenceById(1L)).thenReturn(user1);
-        Mockito.when(itemRepository.getReferenceById(1L)).thenReturn(item1);
-        Mockito.when(commentRepository.save(Mockito.any())).thenReturn(comment1);
+        Mockito.when(userRepository.findById(1L)).thenReturn(Optional.of(user1));
+        Mockito.when(itemRepository.findById(1L)).thenReturn(Optional.of(item1));
+        Mockito.when(bookingRepository.findCommentEligibility(Mockito.eq(1L), Mockito.any())).thenReturn(createCommentEligibility(true, true));
+        Mockito.when(commentWriter.write(Mockito.any())).thenReturn(comment1);
 
         CommentDto expectedCommentDto = CommentMapper.toCommentDto(comment1);
         CommentDto actualCommentDto = itemService.addComment(1L, 1L, commentRequestDto);
@@ -324,9 +483,9 @@ class ItemServiceTest {
         CommentRequestDto commentRequestDto = new CommentRequestDto();
         commentRequestDto.setText("Add comment from user 1");
 
-        Mockito.when(userRepository.existsById(1L)).thenReturn(true);
-        Mockito.when(itemRepository.existsById(1L)).thenReturn(true);
-        Mockito.when(bookingRepository.findAllByItemIdAndStatus(1L, BookingStatus.REJECTED)).thenReturn(List.of());
+        Mockito.when(userRepository.findById(1L)).thenReturn(Optional.of(createUser(1L, "updateName", "updateName@user.com")));
+        Mockito.when(itemRepository.findById(1L)).thenReturn(Optional.of(createItem(1L, "Отвертка", "Аккумуляторная отвертка", true, 4L)));
+        Mockito.when(bookingRepository.findCommentEligibility(Mockito.eq(1L), Mockito.any())).thenReturn(createCommentEligibility(false, true));
 
         CommentBadRequestException exception = Assertions.assertThrows(
                 CommentBadRequestException.class,
@@ -343,19 +502,10 @@ class ItemServiceTest {
 
         Item item1 = createItem(1L, "Отвертка", "Аккумуляторная отвертка", true, 4L);
         User user1 = createUser(1L, "updateName", "updateName@user.com");
-        Booking booking1 = createBooking(
-                1L,
-                LocalDateTime.of(2022, 11, 23, 15, 10, 13),
-                LocalDateTime.of(2022, 11, 23, 15, 10, 14),
-                item1,
-                BookingStatus.APPROVED,
-                user1
-        );
 
-        Mockito.when(userRepository.existsById(1L)).thenReturn(true);
-        Mockito.when(itemRepository.existsById(1L)).thenReturn(true);
-        Mockito.when(bookingRepository.findAllByItemIdAndStatus(1L, BookingStatus.REJECTED)).thenReturn(List.of(booking1));
-        Mockito.when(bookingRepository.findAllCurrentByItemId(1L)).thenReturn(List.of());
+        Mockito.when(userRepository.findById(1L)).thenReturn(Optional.of(user1));
+        Mockito.when(itemRepository.findById(1L)).thenReturn(Optional.of(item1));
+        Mockito.when(bookingRepository.findCommentEligibility(Mockito.eq(1L), Mockito.any())).thenReturn(createCommentEligibility(true, false));
 
         CommentBadRequestException exception = Assertions.assertThrows(
                 CommentBadRequestException.class,
@@ -0,0 +1,166 @@
+package ru.practicum.shareit.migration;
+
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.*;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+// Массовая вставка бронирований и комментариев теми же запросами, что выполняет Hibernate:
+// identity - INSERT на каждую строку с возвратом ключа, sequence - один nextval на блок и пакетный INSERT.
+// H2 работает как TCP-сервер, чтобы каждый запрос был отдельным обращением по сети, как с Postgres.
+// Запуск: mvn -pl server test-compile, затем main() этого класса с тестовым classpath
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@OperationsPerInvocation(IdGenerationBenchmark.ROWS)
+public class IdGenerationBenchmark {
+
+    static final int ROWS = 200;
+    private static final int BATCH_SIZE = 50;
+
+    @Param({"bookings", "comments"})
+    private String table;
+
+    @Param({"identity", "sequence"})
+    private String strategy;
+
+    private Server server;
+    private Connection connection;
+    private PreparedStatement insert;
+    private PreparedStatement nextId;
+    private long nextValue;
+    private long lastValue;
+    private long row;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        connection = DriverManager.getConnection(String.format(
+                "jdbc:h2:tcp://localhost:%d/mem:ids_%s_%s;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+                server.getPort(),
+                table,
+                strategy
+        ));
+        boolean identity = strategy.equals("identity");
+        String id = identity ? "id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY" : "id BIGINT PRIMARY KEY";
+        String columns;
+        if (table.equals("bookings")) {
+            columns = "start_date, end_date, item_id, status, booker_id";
+            execute(String.format("CREATE TABLE bookings (%s, start_date TIMESTAMP NOT NULL, end_date TIMESTAMP NOT NULL, "
+                    + "item_id BIGINT NOT NULL, status VARCHAR(100), booker_id BIGINT)", id));
+        } else {
+            columns = "text, item_id, author_id, created";
+            execute(String.format("CREATE TABLE comments (%s, text VARCHAR(1000) NOT NULL, item_id BIGINT NOT NULL, "
+                    + "author_id BIGINT NOT NULL, created TIMESTAMP NOT NULL)", id));
+        }
+        int parameters = columns.split(",").length;
+        if (identity) {
+            insert = connection.prepareStatement(
+                    String.format("INSERT INTO %s (%s) VALUES (%s)", table, columns, placeholders(parameters)),
+                    Statement.RETURN_GENERATED_KEYS
+            );
+        } else {
+            execute(String.format("CREATE SEQUENCE %s_seq START WITH 1 INCREMENT BY %d", table, BATCH_SIZE));
+            insert = connection.prepareStatement(
+                    String.format("INSERT INTO %s (%s, id) VALUES (%s)", table, columns, placeholders(parameters + 1))
+            );
+            nextId = connection.prepareStatement(String.format("SELECT nextval('%s_seq')", table));
+        }
+        connection.setAutoCommit(false);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+        server.stop();
+    }
+
+    @Benchmark
+    public long insert() throws SQLException {
+        return strategy.equals("identity") ? insertWithIdentity() : insertWithSequence();
+    }
+
+    private long insertWithIdentity() throws SQLException {
+        long lastId = 0;
+        for (int i = 0; i < ROWS; i++) {
+            bind();
+            insert.executeUpdate();
+            try (ResultSet keys = insert.getGeneratedKeys()) {
+                keys.next();
+                lastId = keys.getLong(1);
+            }
+        }
+        connection.commit();
+        return lastId;
+    }
+
+    private long insertWithSequence() throws SQLException {
+        long lastId = 0;
+        for (int i = 1; i <= ROWS; i++) {
+            lastId = allocateId();
+            int parameters = bind();
+            insert.setLong(parameters + 1, lastId);
+            insert.addBatch();
+            if (i % BATCH_SIZE == 0) {
+                insert.executeBatch();
+            }
+        }
+        insert.executeBatch();
+        connection.commit();
+        return lastId;
+    }
+
+    // pooled-lo: значение последовательности - начало блока из BATCH_SIZE идентификаторов
+    private long allocateId() throws SQLException {
+        if (nextValue == lastValue) {
+            try (ResultSet resultSet = nextId.executeQuery()) {
+                resultSet.next();
+                nextValue = resultSet.getLong(1);
+            }
+            lastValue = nextValue + BATCH_SIZE;
+        }
+        return nextValue++;
+    }
+
+    private int bind() throws SQLException {
+        row++;
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        if (table.equals("bookings")) {
+            insert.setTimestamp(1, now);
+            insert.setTimestamp(2, new Timestamp(now.getTime() + TimeUnit.DAYS.toMillis(1)));
+            insert.setLong(3, row % 1_000 + 1);
+            insert.setString(4, "WAITING");
+            insert.setLong(5, row % 100 + 1);
+            return 5;
+        }
+        insert.setString(1, "Комментарий " + row);
+        insert.setLong(2, row % 1_000 + 1);
+        insert.setLong(3, row % 100 + 1);
+        insert.setTimestamp(4, now);
+        return 4;
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(IdGenerationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
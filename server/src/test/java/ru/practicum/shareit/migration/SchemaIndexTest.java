@@ -0,0 +1,113 @@
+package ru.practicum.shareit.migration;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.persistence.IdSequences;
+
+import java.util.List;
+import java.util.Locale;
+
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:shareit-explain;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class SchemaIndexTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testBookerBookingsUseBookerStartIndex() {
+        assertPlanUsesIndex(
+                "SELECT b.* FROM bookings AS b WHERE b.booker_id = 1 AND b.start_date > CURRENT_TIMESTAMP ORDER BY b.start_date DESC",
+                "idx_bookings_booker_start"
+        );
+        assertPlanUsesIndex(
+                "SELECT b.* FROM bookings AS b WHERE b.booker_id = 1 AND CURRENT_TIMESTAMP BETWEEN b.start_date AND b.end_date",
+                "idx_bookings_booker_start"
+        );
+    }
+
+    @Test
+    void testItemBookingsUseItemStartIndex() {
+        assertPlanUsesIndex(
+                "SELECT b.* FROM bookings AS b WHERE b.item_id = 1 AND b.start_date <= CURRENT_TIMESTAMP",
+                "idx_bookings_item_start"
+        );
+    }
+
+    @Test
+    void testCommentEligibilityUsesItemStartIndex() {
+        assertPlanUsesIndex(
+                "SELECT EXISTS (SELECT 1 FROM bookings AS b WHERE b.item_id = 1 AND b.status <> 'REJECTED') AS booked, "
+                        + "EXISTS (SELECT 1 FROM bookings AS b WHERE b.item_id = 1 AND b.start_date <= CURRENT_TIMESTAMP) AS started",
+                "idx_bookings_item_start"
+        );
+    }
+
+    @Test
+    void testOwnerBookingsUseOwnerAndItemStartIndexes() {
+        String sql = "SELECT b.* FROM bookings AS b JOIN items AS i ON b.item_id = i.id "
+                + "WHERE i.owner_id = 1 AND b.start_date > CURRENT_TIMESTAMP";
+        assertPlanUsesIndex(sql, "idx_items_owner");
+        assertPlanUsesIndex(sql, "idx_bookings_item_start");
+    }
+
+    @Test
+    void testOwnerItemsUseOwnerIndex() {
+        assertPlanUsesIndex("SELECT i.* FROM items AS i WHERE i.owner_id = 1 ORDER BY i.id", "idx_items_owner");
+    }
+
+    @Test
+    void testRequestItemsUseRequestIndex() {
+        assertPlanUsesIndex("SELECT i.* FROM items AS i WHERE i.request_id = 1", "idx_items_request");
+    }
+
+    @Test
+    void testItemCommentPagesUseItemCreatedIndex() {
+        assertPlanUsesIndex(
+                "SELECT c.* FROM comments AS c WHERE c.item_id = 1 AND c.created <= CURRENT_TIMESTAMP AND (c.created < CURRENT_TIMESTAMP OR c.id < 5) "
+                        + "ORDER BY c.created DESC, c.id DESC LIMIT 10",
+                "idx_comments_item_created"
+        );
+    }
+
+    @Test
+    void testRequesterRequestsUseRequesterCreatedIndex() {
+        assertPlanUsesIndex(
+                "SELECT r.* FROM requests AS r WHERE r.requester_id = 1 AND r.created <= CURRENT_TIMESTAMP ORDER BY r.created DESC",
+                "idx_requests_requester_created"
+        );
+    }
+
+    @Test
+    void testRequestFeedUsesCreatedIndex() {
+        assertPlanUsesIndex(
+                "SELECT r.* FROM requests AS r WHERE r.requester_id <> 1 ORDER BY r.created DESC, r.id DESC LIMIT 10",
+                "idx_requests_created_id"
+        );
+        assertPlanUsesIndex(
+                "SELECT r.* FROM requests AS r WHERE r.requester_id <> 1 AND r.created <= CURRENT_TIMESTAMP "
+                        + "AND (r.created < CURRENT_TIMESTAMP OR r.id < 5) ORDER BY r.created DESC, r.id DESC LIMIT 10",
+                "idx_requests_created_id"
+        );
+    }
+
+    @Test
+    void testSequencesIncrementByEntityAllocationSize() {
+        List<Long> increments = jdbcTemplate.queryForList(
+                "SELECT increment FROM information_schema.sequences WHERE sequence_name LIKE '%_seq'",
+                Long.class
+        );
+        Assertions.assertEquals(5, increments.size());
+        increments.forEach(increment -> Assertions.assertEquals(IdSequences.ALLOCATION_SIZE, increment));
+    }
+
+    private void assertPlanUsesIndex(String sql, String index) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+        Assertions.assertNotNull(plan);
+        Assertions.assertTrue(plan.toLowerCase(Locale.ROOT).contains(index), plan);
+    }
+}
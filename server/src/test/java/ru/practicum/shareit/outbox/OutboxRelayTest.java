@@ -0,0 +1,208 @@
+package ru.practicum.shareit.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import ru.practicum.shareit.outbox.data.ChangeEvent;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+class OutboxRelayTest {
+
+    private String url;
+    private JdbcTemplate jdbcTemplate;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        url = String.format("jdbc:h2:mem:outbox_%s;DB_CLOSE_DELAY=-1", UUID.randomUUID());
+        Flyway.configure()
+                .dataSource(url, "sa", "")
+                .locations("classpath:db/migration", "classpath:ru/practicum/shareit/migration")
+                .load()
+                .migrate();
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException, SQLException {
+        relay.stop();
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+    }
+
+    @Test
+    void testWaitsForMissingIdAndDeliversInOrder() throws Exception {
+        insert(1, LocalDateTime.now());
+        insert(2, LocalDateTime.now());
+        insert(4, LocalDateTime.now());
+        RecordingListener listener = new RecordingListener(0);
+        relay = relay(Duration.ofSeconds(10), listener);
+
+        Assertions.assertEquals(List.of(1L, 2L), listener.next());
+        // Строка 3 ещё не зафиксирована: строка 4 ждёт её
+        Assertions.assertNull(listener.batches.poll(300, TimeUnit.MILLISECONDS));
+
+        insert(3, LocalDateTime.now());
+        relay.wakeUp();
+        Assertions.assertEquals(List.of(3L, 4L), listener.next());
+    }
+
+    @Test
+    void testSkipsMissingIdAfterGapTimeout() throws Exception {
+        insert(1, LocalDateTime.now());
+        insert(3, LocalDateTime.now());
+        RecordingListener listener = new RecordingListener(0);
+        relay = relay(Duration.ofMillis(200), listener);
+
+        Assertions.assertEquals(List.of(1L), listener.next());
+        Assertions.assertEquals(List.of(3L), listener.next());
+    }
+
+    @Test
+    void testDeliversSkippedIdCommittedAfterGapTimeout() throws Exception {
+        insert(1, LocalDateTime.now());
+        insert(3, LocalDateTime.now());
+        RecordingListener listener = new RecordingListener(0);
+        relay = relay(Duration.ofMillis(200), listener);
+
+        Assertions.assertEquals(List.of(1L), listener.next());
+        Assertions.assertEquals(List.of(3L), listener.next());
+
+        // Транзакция со строкой 2 зафиксирована позже gap-timeout: её событие приходит после строки 3, один раз
+        insert(2, LocalDateTime.now());
+        relay.wakeUp();
+        Assertions.assertEquals(List.of(2L), listener.next());
+        Assertions.assertNull(listener.batches.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void testForgetsSkippedIdAfterSkippedRetry() throws Exception {
+        insert(1, LocalDateTime.now());
+        insert(3, LocalDateTime.now());
+        RecordingListener listener = new RecordingListener(0);
+        relay = relay(Duration.ofMillis(100), Duration.ofMillis(200), listener);
+
+        Assertions.assertEquals(List.of(1L), listener.next());
+        Assertions.assertEquals(List.of(3L), listener.next());
+        Thread.sleep(500);
+
+        insert(2, LocalDateTime.now());
+        relay.wakeUp();
+        Assertions.assertNull(listener.batches.poll(300, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void testRedeliversBatchToFailedListenerOnly() throws Exception {
+        insert(1, LocalDateTime.now());
+        insert(2, LocalDateTime.now());
+        RecordingListener failing = new RecordingListener(1);
+        RecordingListener healthy = new RecordingListener(0);
+        relay = relay(Duration.ofSeconds(10), failing, healthy);
+
+        Assertions.assertEquals(List.of(1L, 2L), failing.next());
+        Assertions.assertEquals(List.of(1L, 2L), failing.next());
+        Assertions.assertEquals(List.of(1L, 2L), healthy.next());
+        Assertions.assertNull(healthy.batches.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void testKeepsRetryingFailedListenerBeforeNextBatch() throws Exception {
+        insert(1, LocalDateTime.now());
+        RecordingListener failing = new RecordingListener(6);
+        relay = relay(Duration.ofSeconds(10), failing);
+
+        for (int attempt = 0; attempt < 7; attempt++) {
+            Assertions.assertEquals(List.of(1L), failing.next());
+        }
+        // Следующий пакет рассылается только после того, как подписчик принял предыдущий
+        insert(2, LocalDateTime.now());
+        relay.wakeUp();
+        Assertions.assertEquals(List.of(2L), failing.next());
+    }
+
+    @Test
+    void testStartsAfterEventsOlderThanGapTimeout() throws Exception {
+        insert(1, LocalDateTime.now().minusHours(1));
+        insert(2, LocalDateTime.now());
+        RecordingListener listener = new RecordingListener(0);
+        relay = relay(Duration.ofSeconds(10), listener);
+
+        Assertions.assertEquals(List.of(2L), listener.next());
+    }
+
+    private OutboxRelay relay(Duration gapTimeout, ChangeEventListener... listeners) {
+        return relay(gapTimeout, Duration.ofMinutes(1), listeners);
+    }
+
+    private OutboxRelay relay(Duration gapTimeout, Duration skippedRetry, ChangeEventListener... listeners) {
+        OutboxRelay outboxRelay = new OutboxRelay(
+                jdbcTemplate,
+                new ObjectMapper(),
+                List.of(listeners),
+                new SimpleMeterRegistry(),
+                100,
+                Duration.ofMillis(20),
+                gapTimeout,
+                Duration.ofDays(1),
+                Duration.ofMillis(100),
+                skippedRetry
+        );
+        outboxRelay.start();
+        return outboxRelay;
+    }
+
+    // Идентификатор задаётся явно, чтобы смоделировать ещё не зафиксированную транзакцию
+    private void insert(long id, LocalDateTime created) {
+        jdbcTemplate.update(
+                "INSERT INTO outbox (id, aggregate_type, aggregate_id, type, payload, created) OVERRIDING SYSTEM VALUE "
+                        + "VALUES (?, 'BOOKING', ?, 'UPDATED', '{\"item\":{\"id\":1}}', ?)",
+                id,
+                id,
+                Timestamp.valueOf(created)
+        );
+    }
+
+    private static class RecordingListener implements ChangeEventListener {
+
+        private final BlockingQueue<List<Long>> batches = new LinkedBlockingQueue<>();
+        private final AtomicInteger failures;
+
+        private RecordingListener(int failures) {
+            this.failures = new AtomicInteger(failures);
+        }
+
+        @Override
+        public void onChanges(List<ChangeEvent> events) {
+            batches.add(events.stream().map(ChangeEvent::getId).collect(Collectors.toList()));
+            if (failures.getAndDecrement() > 0) {
+                throw new IllegalStateException("Подписчик недоступен");
+            }
+        }
+
+        private List<Long> next() throws InterruptedException {
+            return batches.poll(5, TimeUnit.SECONDS);
+        }
+    }
+}
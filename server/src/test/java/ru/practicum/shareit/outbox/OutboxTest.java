@@ -0,0 +1,117 @@
+package ru.practicum.shareit.outbox;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.model.dto.StandardBookingDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.data.dto.StandardItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.outbox.data.ChangeEvent;
+import ru.practicum.shareit.user.data.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "spring.datasource.url=jdbc:h2:mem:outbox;DB_CLOSE_ON_EXIT=FALSE"
+)
+class OutboxTest {
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private RecordingListener listener;
+
+    @Test
+    void testChangesAreWrittenWithMutationAndDeliveredInOrder() throws Exception {
+        UserDto owner = userService.create(new UserDto(0, "Owner", "owner@outbox.ru"));
+        UserDto booker = userService.create(new UserDto(0, "Booker", "booker@outbox.ru"));
+        StandardItemDto itemDto = new StandardItemDto();
+        itemDto.setName("Дрель");
+        itemDto.setDescription("Простая дрель");
+        itemDto.setAvailable(true);
+        StandardItemDto item = (StandardItemDto) itemService.create(owner.getId(), itemDto);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        StandardBookingDto booking = (StandardBookingDto) bookingService.create(
+                booker.getId(),
+                new BookingRequestDto(item.getId(), start, start.plusDays(1))
+        );
+        bookingService.update(owner.getId(), booking.getId(), BookingStatus.APPROVED);
+        userService.update(booker.getId(), new UserDto(0, "Booker Update", null));
+
+        // Пользователь с занятой почтой отклоняется БД при фиксации, его событие откатывается вместе с ним
+        Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox", Integer.class);
+        Assertions.assertThrows(
+                DataIntegrityViolationException.class,
+                () -> userService.create(new UserDto(0, "Copy", "owner@outbox.ru"))
+        );
+        Assertions.assertEquals(rows, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox", Integer.class));
+
+        List<ChangeEvent> events = listener.await(6);
+        Assertions.assertEquals(
+                List.of("USER:CREATED", "USER:CREATED", "ITEM:CREATED", "BOOKING:CREATED", "BOOKING:UPDATED", "USER:UPDATED"),
+                events.stream().map(event -> event.getAggregateType() + ":" + event.getType()).collect(Collectors.toList())
+        );
+        ChangeEvent itemCreated = events.get(2);
+        Assertions.assertEquals(item.getId(), itemCreated.getAggregateId());
+        Assertions.assertEquals("Дрель", itemCreated.getPayload().path("name").asText());
+        ChangeEvent bookingApproved = events.get(4);
+        Assertions.assertEquals(booking.getId(), bookingApproved.getAggregateId());
+        Assertions.assertEquals("APPROVED", bookingApproved.getPayload().path("status").asText());
+        Assertions.assertEquals(item.getId(), bookingApproved.getPayload().path("item").path("id").asLong());
+        Assertions.assertEquals("Booker Update", events.get(5).getPayload().path("name").asText());
+        for (int i = 1; i < events.size(); i++) {
+            Assertions.assertTrue(events.get(i - 1).getId() < events.get(i).getId());
+        }
+    }
+
+    @TestConfiguration
+    static class ListenerConfig {
+
+        @Bean
+        RecordingListener recordingListener() {
+            return new RecordingListener();
+        }
+    }
+
+    static class RecordingListener implements ChangeEventListener {
+
+        private final BlockingQueue<ChangeEvent> events = new LinkedBlockingQueue<>();
+
+        @Override
+        public void onChanges(List<ChangeEvent> batch) {
+            events.addAll(batch);
+        }
+
+        private List<ChangeEvent> await(int count) throws InterruptedException {
+            List<ChangeEvent> received = new ArrayList<>();
+            while (received.size() < count) {
+                ChangeEvent event = events.poll(5, TimeUnit.SECONDS);
+                Assertions.assertNotNull(event, "Получено событий: " + received.size());
+                received.add(event);
+            }
+            return received;
+        }
+    }
+}
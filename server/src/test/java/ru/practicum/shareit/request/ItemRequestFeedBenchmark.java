@@ -0,0 +1,157 @@
+package ru.practicum.shareit.request;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Лента чужих запросов на 1 000 000 запросов: страница ленты и ответы на запросы страницы теми же запросами,
+// что выполняет Hibernate. offset - страница по from/size, keyset - страница по курсору (created, id).
+// depth - сколько запросов ленты пролистано до страницы. Схема создаётся миграциями Flyway, как на сервере.
+// Запуск: mvn -pl server test-compile, затем main() этого класса с тестовым classpath
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class ItemRequestFeedBenchmark {
+
+    private static final int REQUESTS = 1_000_000;
+    private static final int USERS = 1_000;
+    // Каждый десятый запрос получил ответ
+    private static final int ANSWER_EVERY = 10;
+    private static final int PAGE_SIZE = 20;
+    private static final String FEED = "SELECT r.id, r.created, r.description, r.requester_id FROM requests AS r WHERE r.requester_id <> ? ";
+    private static final String ORDER = "ORDER BY r.created DESC, r.id DESC LIMIT ?";
+
+    @Param({"offset", "keyset"})
+    private String paging;
+
+    @Param({"0", "10000", "500000"})
+    private int depth;
+
+    private Connection connection;
+    private PreparedStatement page;
+    private Timestamp cursorCreated;
+    private long cursorId;
+    private long userId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        String url = String.format("jdbc:h2:mem:feed_%s_%d;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", paging, depth);
+        Flyway.configure()
+                .dataSource(url, "sa", "")
+                .locations("classpath:db/migration", "classpath:ru/practicum/shareit/migration")
+                .load()
+                .migrate();
+        connection = DriverManager.getConnection(url, "sa", "");
+        execute(String.format("INSERT INTO users (id, name, email) SELECT x, 'User ' || x, 'user' || x || '@mail.ru' "
+                + "FROM SYSTEM_RANGE(1, %d) AS s(x)", USERS));
+        // Время создания повторяется парами, чтобы порядок внутри пары задавал id
+        execute(String.format("INSERT INTO requests (id, description, requester_id, created) "
+                + "SELECT x, 'Нужна вещь ' || x, MOD(x, %d) + 1, DATEADD(SECOND, x / 2, TIMESTAMP '2020-01-01 00:00:00') "
+                + "FROM SYSTEM_RANGE(1, %d) AS s(x)", USERS, REQUESTS));
+        execute(String.format("INSERT INTO items (id, name, description, is_available, owner_id, request_id) "
+                + "SELECT x, 'Вещь ' || x, 'Ответ на запрос ' || x * %d, TRUE, MOD(x, %d) + 1, x * %d "
+                + "FROM SYSTEM_RANGE(1, %d) AS s(x)", ANSWER_EVERY, USERS, ANSWER_EVERY, REQUESTS / ANSWER_EVERY));
+        execute("ANALYZE");
+        if (paging.equals("offset")) {
+            page = connection.prepareStatement(FEED + ORDER + " OFFSET ?");
+        } else {
+            page = connection.prepareStatement(FEED + "AND r.created <= ? AND (r.created < ? OR r.id < ?) " + ORDER);
+            findCursor();
+        }
+        if (feedPage() <= PAGE_SIZE) {
+            throw new IllegalStateException("Страница ленты не заполнена");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        execute("SHUTDOWN");
+        connection.close();
+    }
+
+    @Benchmark
+    public int feedPage() throws SQLException {
+        List<Long> ids = new ArrayList<>(PAGE_SIZE);
+        // Пользователь чередуется: H2 повторно отдаёт прошлый результат запроса с теми же параметрами
+        userId = userId % 2 + 1;
+        page.setLong(1, userId);
+        if (paging.equals("offset")) {
+            page.setInt(2, PAGE_SIZE);
+            page.setInt(3, depth);
+        } else {
+            page.setTimestamp(2, cursorCreated);
+            page.setTimestamp(3, cursorCreated);
+            page.setLong(4, cursorId);
+            page.setInt(5, PAGE_SIZE);
+        }
+        try (ResultSet resultSet = page.executeQuery()) {
+            while (resultSet.next()) {
+                ids.add(resultSet.getLong(1));
+            }
+        }
+        return ids.size() + answers(ids);
+    }
+
+    // Ответы на все запросы страницы одним запросом
+    private int answers(List<Long> ids) throws SQLException {
+        String sql = String.format(
+                "SELECT i.id, i.name, i.description, i.is_available, i.owner_id, i.request_id FROM items AS i WHERE i.request_id IN (%s)",
+                String.join(", ", Collections.nCopies(ids.size(), "?"))
+        );
+        int count = 0;
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < ids.size(); i++) {
+                statement.setLong(i + 1, ids.get(i));
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    // Курсор последнего запроса перед страницей: клиент получил его с предыдущей страницей.
+    // Для первой страницы - граница позже любого запроса
+    private void findCursor() throws SQLException {
+        if (depth == 0) {
+            cursorCreated = Timestamp.valueOf("9999-01-01 00:00:00");
+            cursorId = Long.MAX_VALUE;
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(FEED + ORDER + " OFFSET ?")) {
+            statement.setLong(1, 1);
+            statement.setInt(2, 1);
+            statement.setInt(3, depth - 1);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                cursorId = resultSet.getLong(1);
+                cursorCreated = resultSet.getTimestamp(2);
+            }
+        }
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ItemRequestFeedBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
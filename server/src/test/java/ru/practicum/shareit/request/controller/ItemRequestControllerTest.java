@@ -13,6 +13,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import ru.practicum.shareit.request.data.dto.ItemRequestDto;
+import ru.practicum.shareit.request.data.dto.ItemRequestPage;
 import ru.practicum.shareit.request.service.ItemRequestService;
 
 import java.nio.charset.StandardCharsets;
@@ -23,6 +24,7 @@ import java.util.Set;
 import static org.hamcrest.Matchers.is;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -87,6 +89,24 @@ class ItemRequestControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void testGetAllWithCursor() throws Exception {
+        ItemRequestDto itemRequestDto = new ItemRequestDto(1L, "Desc", LocalDateTime.now(), Set.of());
+        Mockito
+                .when(itemRequestService.getPage(1L, "abc", 5))
+                .thenReturn(new ItemRequestPage(List.of(itemRequestDto), "def"));
+        mvc
+                .perform(get("/requests/all?cursor=abc&size=5")
+                        .header("X-Sharer-User-Id", 1L)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                )
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "def"))
+                .andExpect(jsonPath("$[0].id", is(itemRequestDto.getId()), Long.class));
+    }
+
     @Test
     void testGet() throws Exception {
         ItemRequestDto itemRequestDto = new ItemRequestDto(1L, "Desc", LocalDateTime.now(), Set.of());
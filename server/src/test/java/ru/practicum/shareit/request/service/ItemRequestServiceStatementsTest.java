@@ -0,0 +1,120 @@
+package ru.practicum.shareit.request.service;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import ru.practicum.shareit.datasource.PrimaryReads;
+import ru.practicum.shareit.item.data.Item;
+import ru.practicum.shareit.item.data.dto.StandardItemDto;
+import ru.practicum.shareit.request.data.ItemRequest;
+import ru.practicum.shareit.request.data.dto.ItemRequestDto;
+import ru.practicum.shareit.request.data.dto.ItemRequestPage;
+import ru.practicum.shareit.user.data.User;
+import ru.practicum.shareit.validation.EntityValidator;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static ru.practicum.shareit.utils.Creator.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({ItemRequestServiceImpl.class, EntityValidator.class, PrimaryReads.class})
+class ItemRequestServiceStatementsTest {
+
+    // Проверка пользователя, запросы и ответы на все запросы страницы
+    private static final int LIST_STATEMENTS = 3;
+    private static final int PAGE_SIZE = 3;
+    private static final int REQUESTS = 10;
+    private static final int ITEMS_PER_REQUEST = 2;
+
+    @Autowired
+    private ItemRequestService itemRequestService;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Statistics statistics;
+    private User requester;
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        requester = entityManager.persist(createUser(null, "Requester", "requester@mail.ru"));
+        owner = entityManager.persist(createUser(null, "Owner", "owner@mail.ru"));
+        // Запросы идут парами с одинаковым временем создания, порядок внутри пары задаёт id
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < REQUESTS; i++) {
+            ItemRequest itemRequest = createItemRequest(0L, "Нужна дрель " + i, requester, now.minusHours(i / 2), null);
+            itemRequest.setId(null);
+            entityManager.persist(itemRequest);
+            for (int j = 0; j < ITEMS_PER_REQUEST; j++) {
+                Item item = createItem(0L, "Дрель " + i + "-" + j, "Простая дрель", true, owner.getId());
+                item.setId(null);
+                item.setRequest(itemRequest);
+                entityManager.persist(item);
+            }
+        }
+        // Собственный запрос владельца в его ленту не попадает
+        ItemRequest ownRequest = createItemRequest(0L, "Нужна пила", owner, now, null);
+        ownRequest.setId(null);
+        entityManager.persist(ownRequest);
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+    }
+
+    @Test
+    void testGetByRequesterIdStatements() {
+        List<ItemRequestDto> requests = itemRequestService.getByRequesterId(requester.getId());
+
+        Assertions.assertEquals(REQUESTS, requests.size());
+        assertAnswered(requests);
+        Assertions.assertEquals(LIST_STATEMENTS, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testGetAllStatements() {
+        List<ItemRequestDto> requests = itemRequestService.getAll(owner.getId(), 0, REQUESTS * 2);
+
+        Assertions.assertEquals(REQUESTS, requests.size());
+        assertAnswered(requests);
+        Assertions.assertEquals(LIST_STATEMENTS, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testGetPageStatements() {
+        List<ItemRequestDto> requests = new ArrayList<>();
+        String cursor = "";
+        while (cursor != null) {
+            statistics.clear();
+            ItemRequestPage page = itemRequestService.getPage(owner.getId(), cursor, PAGE_SIZE);
+            Assertions.assertTrue(statistics.getPrepareStatementCount() <= LIST_STATEMENTS);
+            requests.addAll(page.getRequests());
+            cursor = page.getNextCursor();
+        }
+
+        // Страницы по курсору вместе дают всю ленту от новых к старым без повторов
+        Assertions.assertEquals(REQUESTS, requests.size());
+        Assertions.assertEquals(REQUESTS, requests.stream().map(ItemRequestDto::getId).distinct().count());
+        for (int i = 1; i < requests.size(); i++) {
+            Assertions.assertFalse(requests.get(i).getCreated().isAfter(requests.get(i - 1).getCreated()));
+        }
+        assertAnswered(requests);
+    }
+
+    private static void assertAnswered(List<ItemRequestDto> requests) {
+        for (ItemRequestDto request : requests) {
+            Assertions.assertEquals(ITEMS_PER_REQUEST, request.getItems().size());
+            for (StandardItemDto item : request.getItems()) {
+                Assertions.assertEquals(request.getId(), item.getRequestId());
+            }
+        }
+    }
+}
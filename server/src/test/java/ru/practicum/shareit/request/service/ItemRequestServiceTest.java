@@ -8,19 +8,27 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.datasource.PrimaryReads;
+import ru.practicum.shareit.exception.request.ItemRequestBadRequestException;
 import ru.practicum.shareit.exception.request.ItemRequestNotFoundException;
 import ru.practicum.shareit.exception.user.UserNotFoundException;
 import ru.practicum.shareit.item.data.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.request.data.ItemRequest;
 import ru.practicum.shareit.request.data.dto.ItemRequestDto;
+import ru.practicum.shareit.request.data.dto.ItemRequestPage;
 import ru.practicum.shareit.request.data.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.data.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.validation.EntityValidator;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 import static ru.practicum.shareit.utils.Creator.*;
@@ -33,10 +41,20 @@ class ItemRequestServiceTest {
     private ItemRequestRepository itemRequestRepository;
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
 
     @BeforeEach
     private void initItemRequestService() {
-        itemRequestService = new ItemRequestServiceImpl(itemRequestRepository, userRepository);
+        itemRequestService = new ItemRequestServiceImpl(
+                itemRequestRepository,
+                itemRepository,
+                new EntityValidator(userRepository, itemRepository, bookingRepository, itemRequestRepository, new PrimaryReads(transactionManager))
+        );
     }
 
     @Test
@@ -47,8 +65,7 @@ class ItemRequestServiceTest {
         ItemRequestDto itemRequestDto = new ItemRequestDto();
         itemRequestDto.setDescription("Desc 1");
 
-        Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
-        Mockito.when(userRepository.getReferenceById(Mockito.anyLong())).thenReturn(user1);
+        Mockito.when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user1));
         Mockito.when(itemRequestRepository.save(Mockito.any())).thenReturn(itemRequest);
 
         ItemRequestDto expectedItemRequestDto = ItemRequestMapper.toItemRequestDto(itemRequest);
@@ -62,7 +79,7 @@ class ItemRequestServiceTest {
         ItemRequestDto itemRequestDto = new ItemRequestDto();
         itemRequestDto.setDescription("Desc 1");
 
-        Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(false);
+        Mockito.when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.empty());
 
         UserNotFoundException exception = Assertions.assertThrows(
                 UserNotFoundException.class,
@@ -78,8 +95,11 @@ class ItemRequestServiceTest {
         User user1 = createUser(1L, "updateName", "updateName@user.com");
         ItemRequest itemRequest = createItemRequest(1L, "Desc 1", user1, LocalDateTime.now(), Set.of(item1));
 
+        item1.setRequest(itemRequest);
+
         Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
         Mockito.when(itemRequestRepository.getByRequesterId(Mockito.anyLong(), Mockito.any())).thenReturn(List.of(itemRequest));
+        Mockito.when(itemRepository.findAllByRequestIdIn(Set.of(1L))).thenReturn(List.of(item1));
 
         List<ItemRequestDto> expectedRequests = List.of(ItemRequestMapper.toItemRequestDto(itemRequest));
         List<ItemRequestDto> actualRequests = itemRequestService.getByRequesterId(1L);
@@ -92,11 +112,13 @@ class ItemRequestServiceTest {
         Item item1 = createItem(1L, "Отвертка", "Аккумуляторная отвертка", true, 4L);
         User user1 = createUser(1L, "updateName", "updateName@user.com");
         ItemRequest itemRequest = createItemRequest(1L, "Desc 1", user1, LocalDateTime.now(), Set.of(item1));
+        item1.setRequest(itemRequest);
 
         Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
         Mockito
-                .when(itemRequestRepository.findAllByUserId(1L, PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "created"))))
+                .when(itemRequestRepository.findFeed(1L, PageRequest.of(0, 1)))
                 .thenReturn(List.of(itemRequest));
+        Mockito.when(itemRepository.findAllByRequestIdIn(Set.of(1L))).thenReturn(List.of(item1));
 
         List<ItemRequestDto> expectedRequests = List.of(ItemRequestMapper.toItemRequestDto(itemRequest));
         List<ItemRequestDto> actualRequests = itemRequestService.getAll(1L, 0, 1);
@@ -104,6 +126,60 @@ class ItemRequestServiceTest {
         Assertions.assertEquals(expectedRequests, actualRequests);
     }
 
+    @Test
+    public void testGetAllEmpty() {
+        Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
+        Mockito
+                .when(itemRequestRepository.findFeed(1L, PageRequest.of(0, 1)))
+                .thenReturn(List.of());
+
+        Assertions.assertEquals(List.of(), itemRequestService.getAll(1L, 0, 1));
+        Mockito.verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    public void testGetPage() {
+        Item item1 = createItem(1L, "Отвертка", "Аккумуляторная отвертка", true, 4L);
+        User user1 = createUser(1L, "updateName", "updateName@user.com");
+        LocalDateTime created = LocalDateTime.of(2022, 9, 1, 12, 0);
+        ItemRequest itemRequest = createItemRequest(3L, "Desc 1", user1, created, Set.of(item1));
+        item1.setRequest(itemRequest);
+        KeysetCursor cursor = new KeysetCursor(created.plusHours(1), 7L);
+
+        Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
+        Mockito
+                .when(itemRequestRepository.findFeedBefore(2L, cursor.getTimestamp(), 7L, PageRequest.ofSize(1)))
+                .thenReturn(List.of(itemRequest));
+        Mockito.when(itemRepository.findAllByRequestIdIn(Set.of(3L))).thenReturn(List.of(item1));
+
+        ItemRequestPage page = itemRequestService.getPage(2L, cursor.encode(), 1);
+
+        Assertions.assertEquals(List.of(ItemRequestMapper.toItemRequestDto(itemRequest)), page.getRequests());
+        Assertions.assertEquals(new KeysetCursor(created, 3L), KeysetCursor.decode(page.getNextCursor(), ItemRequestBadRequestException::new));
+    }
+
+    @Test
+    public void testGetFirstPageWithoutNextCursor() {
+        Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
+        Mockito.when(itemRequestRepository.findFeed(1L, PageRequest.ofSize(5))).thenReturn(List.of());
+
+        ItemRequestPage page = itemRequestService.getPage(1L, "", 5);
+
+        Assertions.assertEquals(List.of(), page.getRequests());
+        Assertions.assertNull(page.getNextCursor());
+    }
+
+    @Test
+    public void testGetPageWithBadCursor() {
+        Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
+
+        ItemRequestBadRequestException exception = Assertions.assertThrows(
+                ItemRequestBadRequestException.class, () -> itemRequestService.getPage(1L, "bad", 5)
+        );
+
+        Assertions.assertEquals("Некорректный курсор bad.", exception.getMessage());
+    }
+
     @Test
     public void testGet() {
         Item item1 = createItem(1L, "Отвертка", "Аккумуляторная отвертка", true, 4L);
@@ -111,8 +187,7 @@ class ItemRequestServiceTest {
         ItemRequest itemRequest = createItemRequest(1L, "Desc 1", user1, LocalDateTime.now(), Set.of(item1));
 
         Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
-        Mockito.when(itemRequestRepository.existsById(Mockito.anyLong())).thenReturn(true);
-        Mockito.when(itemRequestRepository.getReferenceById(1L)).thenReturn(itemRequest);
+        Mockito.when(itemRequestRepository.findById(1L)).thenReturn(Optional.of(itemRequest));
 
         ItemRequestDto expectedItemRequestDto = ItemRequestMapper.toItemRequestDto(itemRequest);
         ItemRequestDto actualItemRequestDto = itemRequestService.get(1L, 1L);
@@ -123,7 +198,7 @@ class ItemRequestServiceTest {
     @Test
     public void testGetItemRequestNotFound() {
         Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
-        Mockito.when(itemRequestRepository.existsById(Mockito.anyLong())).thenReturn(false);
+        Mockito.when(itemRequestRepository.findById(Mockito.anyLong())).thenReturn(Optional.empty());
 
         ItemRequestNotFoundException exception = Assertions.assertThrows(
                 ItemRequestNotFoundException.class, () -> itemRequestService.get(1L, 1L)
@@ -0,0 +1,103 @@
+package ru.practicum.shareit.user.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.config.CacheConfig;
+import ru.practicum.shareit.exception.user.UserNotFoundException;
+import ru.practicum.shareit.outbox.data.AggregateType;
+import ru.practicum.shareit.outbox.data.ChangeEvent;
+import ru.practicum.shareit.outbox.data.ChangeType;
+import ru.practicum.shareit.user.data.dto.UserDto;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.validation.EntityValidator;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "spring.datasource.url=jdbc:h2:mem:user-cache;DB_CLOSE_ON_EXIT=FALSE"
+)
+class UserCacheTest {
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private EntityValidator entityValidator;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private UserCacheInvalidator userCacheInvalidator;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @SpyBean
+    private UserRepository userRepository;
+
+    @Test
+    void testGetIsCachedUntilUpdate() {
+        long userId = userService.create(new UserDto(0L, "Pavel", "pavel@cache.ru")).getId();
+        double hits = cacheGets(CacheConfig.USERS, "hit");
+
+        userService.get(userId);
+        userService.get(userId);
+        Mockito.verify(userRepository, Mockito.times(1)).findById(userId);
+        Assertions.assertEquals(hits + 1, cacheGets(CacheConfig.USERS, "hit"));
+
+        userService.update(userId, new UserDto(userId, "Pavel Update", null));
+        Assertions.assertEquals("Pavel Update", userService.get(userId).getName());
+        Mockito.verify(userRepository, Mockito.times(2)).findById(userId);
+    }
+
+    @Test
+    void testExistenceIsCachedUntilDelete() {
+        long userId = userService.create(new UserDto(0L, "Ivan", "ivan@cache.ru")).getId();
+
+        entityValidator.checkIfUserExists(userId);
+        entityValidator.checkIfUserExists(userId);
+        Mockito.verify(userRepository, Mockito.times(1)).existsById(userId);
+
+        userService.delete(userId);
+        Assertions.assertThrows(UserNotFoundException.class, () -> entityValidator.checkIfUserExists(userId));
+        Assertions.assertThrows(UserNotFoundException.class, () -> userService.get(userId));
+    }
+
+    @Test
+    void testMissingUserIsNotCached() {
+        Assertions.assertThrows(UserNotFoundException.class, () -> entityValidator.checkIfUserExists(999L));
+        Assertions.assertThrows(UserNotFoundException.class, () -> entityValidator.checkIfUserExists(999L));
+        Mockito.verify(userRepository, Mockito.times(2)).existsById(999L);
+    }
+
+    @Test
+    void testChangeFromOtherInstanceEvictsCache() {
+        long userId = userService.create(new UserDto(0L, "Olga", "olga@cache.ru")).getId();
+        userService.get(userId);
+        entityValidator.checkIfUserExists(userId);
+
+        // Другой экземпляр сервера меняет пользователя в БД, этот экземпляр узнаёт об изменении из outbox
+        jdbcTemplate.update("UPDATE users SET name = 'Olga Update' WHERE id = ?", userId);
+        userCacheInvalidator.onChanges(List.of(change(userId, ChangeType.UPDATED)));
+        Assertions.assertEquals("Olga Update", userService.get(userId).getName());
+        entityValidator.checkIfUserExists(userId);
+        Mockito.verify(userRepository, Mockito.times(1)).existsById(userId);
+
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+        userCacheInvalidator.onChanges(List.of(change(userId, ChangeType.DELETED)));
+        Assertions.assertThrows(UserNotFoundException.class, () -> entityValidator.checkIfUserExists(userId));
+        Assertions.assertThrows(UserNotFoundException.class, () -> userService.get(userId));
+    }
+
+    private static ChangeEvent change(long userId, ChangeType type) {
+        return new ChangeEvent(0, AggregateType.USER, userId, type, null, LocalDateTime.now());
+    }
+
+    private double cacheGets(String cache, String result) {
+        return meterRegistry.get("cache.gets").tag("cache", cache).tag("result", result).functionCounter().count();
+    }
+}
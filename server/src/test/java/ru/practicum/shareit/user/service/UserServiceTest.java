@@ -7,13 +7,19 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.datasource.PrimaryReads;
 import ru.practicum.shareit.exception.user.UserNotFoundException;
+import ru.practicum.shareit.outbox.OutboxWriter;
+import ru.practicum.shareit.outbox.data.AggregateType;
+import ru.practicum.shareit.outbox.data.ChangeType;
 import ru.practicum.shareit.user.data.User;
 import ru.practicum.shareit.user.data.dto.UserDto;
 import ru.practicum.shareit.user.data.mapper.UserMapper;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.util.List;
+import java.util.Optional;
 
 @ExtendWith(MockitoExtension.class)
 class UserServiceTest {
@@ -21,10 +27,14 @@ class UserServiceTest {
     private UserService userService;
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private OutboxWriter outboxWriter;
+    @Mock
+    private PlatformTransactionManager transactionManager;
 
     @BeforeEach
     private void initUserService() {
-        userService = new UserServiceImpl(userRepository);
+        userService = new UserServiceImpl(userRepository, outboxWriter, new PrimaryReads(transactionManager));
     }
 
     @Test
@@ -55,6 +65,7 @@ class UserServiceTest {
         UserDto actualUserDto = userService.update(1L, new UserDto(1L, "Pavel Update", "pavelupdate@mail.ru"));
 
         Assertions.assertEquals(expectedUserDto, actualUserDto);
+        Mockito.verify(outboxWriter).append(AggregateType.USER, 1L, ChangeType.UPDATED, expectedUserDto);
     }
 
     @Test
@@ -64,8 +75,7 @@ class UserServiceTest {
         mockUser.setName("Pavel");
         mockUser.setEmail("pavel@mail.ru");
 
-        Mockito.when(userRepository.existsById(1L)).thenReturn(true);
-        Mockito.when(userRepository.getReferenceById(1L)).thenReturn(mockUser);
+        Mockito.when(userRepository.findById(1L)).thenReturn(Optional.of(mockUser));
 
         UserDto expectedUserDto = new UserDto(1L, "Pavel", "pavel@mail.ru");
         UserDto actualUserDto = userService.get(1);
@@ -75,7 +85,7 @@ class UserServiceTest {
 
     @Test
     void testGetWithWrongUser() {
-        Mockito.when(userRepository.existsById(99L)).thenReturn(false);
+        Mockito.when(userRepository.findById(99L)).thenReturn(Optional.empty());
 
         final UserNotFoundException exception = Assertions.assertThrows(
                 UserNotFoundException.class,
@@ -2,8 +2,11 @@ package ru.practicum.shareit.utils;
 
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.dto.CommentEligibility;
+import ru.practicum.shareit.booking.model.dto.ItemBookingSummary;
 import ru.practicum.shareit.item.data.Comment;
 import ru.practicum.shareit.item.data.Item;
+import ru.practicum.shareit.item.data.ItemCommentStats;
 import ru.practicum.shareit.request.data.ItemRequest;
 import ru.practicum.shareit.user.data.User;
 
@@ -40,6 +43,14 @@ public class Creator {
         return comment;
     }
 
+    public static ItemCommentStats createItemCommentStats(long itemId, long commentCount, LocalDateTime lastCommentAt) {
+        ItemCommentStats stats = new ItemCommentStats();
+        stats.setItemId(itemId);
+        stats.setCommentCount(commentCount);
+        stats.setLastCommentAt(lastCommentAt);
+        return stats;
+    }
+
     public static Booking createBooking(long id, LocalDateTime start, LocalDateTime end, Item item, BookingStatus status, User booker) {
         Booking booking = new Booking();
         booking.setId(id);
@@ -60,4 +71,42 @@ public class Creator {
         itemRequest.setItems(items);
         return itemRequest;
     }
-}
+
+    public static ItemBookingSummary createBookingSummary(Booking booking, String kind) {
+        return new ItemBookingSummary() {
+            @Override
+            public Long getId() {
+                return booking.getId();
+            }
+
+            @Override
+            public Long getBookerId() {
+                return booking.getBooker().getId();
+            }
+
+            @Override
+            public Long getItemId() {
+                return booking.getItem().getId();
+            }
+
+            @Override
+            public String getKind() {
+                return kind;
+            }
+        };
+    }
+
+    public static CommentEligibility createCommentEligibility(boolean booked, boolean started) {
+        return new CommentEligibility() {
+            @Override
+            public boolean getBooked() {
+                return booked;
+            }
+
+            @Override
+            public boolean getStarted() {
+                return started;
+            }
+        };
+    }
+}
\ No newline at end of file